@@ -2304,7 +2304,7 @@ Error vcsShow(const json::JsonRpcRequest& request,
                         "UTF-8", true);
    output = string_utils::filterControlChars(output);
 
-   if (!noSizeWarning && output.size() > source_control::WARN_SIZE)
+   if (!noSizeWarning && output.size() > source_control::SHOW_WARN_SIZE)
    {
       error = systemError(boost::system::errc::file_too_large,
                           ERROR_LOCATION);
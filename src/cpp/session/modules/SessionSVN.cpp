@@ -1539,7 +1539,7 @@ void svnShowEnd(bool noSizeWarning,
       return;
    }
 
-   if (!noSizeWarning && result.stdOut.size() > source_control::WARN_SIZE)
+   if (!noSizeWarning && result.stdOut.size() > source_control::SHOW_WARN_SIZE)
    {
       response.setError(
             systemError(boost::system::errc::file_too_large, ERROR_LOCATION),
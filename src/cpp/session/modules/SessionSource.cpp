@@ -712,6 +712,39 @@ Error modifyDocumentProperties(const json::JsonRpcRequest& request,
    return source_database::put(pDoc, false);
 }
 
+// properties for several documents at once, as an object mapping document
+// ids to the properties to edit (batched by the client)
+Error modifyDocumentsProperties(const json::JsonRpcRequest& request,
+                                json::JsonRpcResponse* pResponse)
+{
+   json::Object documents;
+   Error error = json::readParams(request.params, &documents);
+   if (error)
+      return error;
+
+   for (json::Object::const_iterator it = documents.begin();
+        it != documents.end();
+        it++)
+   {
+      if (it->second.type() != json::ObjectType)
+         continue;
+
+      // the document may have been closed since these were queued
+      boost::shared_ptr<SourceDocument> pDoc(new SourceDocument());
+      error = source_database::get(it->first, false, pDoc);
+      if (error)
+         continue;
+
+      json::Object properties = it->second.get_obj();
+      pDoc->editProperties(properties);
+      error = source_database::put(pDoc, false);
+      if (error)
+         LOG_ERROR(error);
+   }
+
+   return Success();
+}
+
 Error getDocumentProperties(const json::JsonRpcRequest& request,
                             json::JsonRpcResponse* pResponse)
 {
@@ -1298,6 +1331,7 @@ Error initialize()
       (bind(registerRpcMethod, "ignore_external_edit", ignoreExternalEdit))
       (bind(registerRpcMethod, "set_source_document_on_save", setSourceDocumentOnSave))
       (bind(registerRpcMethod, "modify_document_properties", modifyDocumentProperties))
+      (bind(registerRpcMethod, "modify_documents_properties", modifyDocumentsProperties))
       (bind(registerRpcMethod, "get_document_properties", getDocumentProperties))
       (bind(registerRpcMethod, "revert_document", revertDocument))
       (bind(registerRpcMethod, "reopen_with_encoding", reopenWithEncoding))
@@ -33,6 +33,10 @@ namespace source_control {
 // requesting might slow down the app and are they sure they want to proceed?
 const size_t WARN_SIZE = 200 * 1024;
 
+// Commit details are rendered lazily (only the files and lines near the
+// viewport), so they can afford a much larger threshold than single diffs
+const size_t SHOW_WARN_SIZE = 20 * 1024 * 1024;
+
 class VCSStatus
 {
 public:
@@ -0,0 +1,256 @@
+/*
+ * ConsoleLineBuffer.java
+ *
+ * Copyright (C) 2009-17 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gwt.dom.client.Element;
+
+/**
+ * Bounded ring buffer of styled console output lines. Each line is stored as
+ * a list of (text, class) segments, which is all that's needed to re-create
+ * its DOM on demand. Lines are addressed by an absolute index which keeps
+ * increasing as lines are added, so callers can tell which lines have been
+ * dropped from the front of the buffer.
+ */
+public class ConsoleLineBuffer
+{
+   public static class Segment
+   {
+      public Segment(String text, String clazz)
+      {
+         this.text = text;
+         this.clazz = clazz;
+      }
+
+      public final String text;
+      public final String clazz;
+   }
+
+   public static class Line
+   {
+      public List<Segment> getSegments()
+      {
+         return segments_;
+      }
+
+      /**
+       * @return The element shown as-is for this line (e.g. a widget from
+       * the output), or null if the line is rendered from its segments
+       */
+      public Element getElement()
+      {
+         return element_;
+      }
+
+      public String getText()
+      {
+         if (element_ != null)
+            return element_.getInnerText();
+
+         StringBuilder builder = new StringBuilder();
+         for (Segment segment : segments_)
+            builder.append(segment.text);
+         return builder.toString();
+      }
+
+      private void add(String text, String clazz)
+      {
+         segments_.add(new Segment(text, clazz));
+      }
+
+      private final List<Segment> segments_ = new ArrayList<Segment>(1);
+      private Element element_;
+   }
+
+   /**
+    * @param capacity Maximum number of lines to retain; zero or less means
+    * the buffer is unbounded
+    */
+   public ConsoleLineBuffer(int capacity)
+   {
+      setCapacity(capacity);
+   }
+
+   public int getCapacity()
+   {
+      return capacity_;
+   }
+
+   /**
+    * Change the maximum number of retained lines, dropping the oldest lines
+    * if the buffer is shrinking.
+    */
+   public void setCapacity(int capacity)
+   {
+      Line[] lines = new Line[capacity > 0 ? capacity :
+                                  Math.max(INITIAL_SIZE, size_)];
+      int keep = capacity > 0 ? Math.min(size_, capacity) : size_;
+      for (int i = 0; i < keep; i++)
+         lines[i] = lines_[(head_ + size_ - keep + i) % lines_.length];
+
+      lines_ = lines;
+      head_ = 0;
+      firstIndex_ += size_ - keep;
+      size_ = keep;
+      capacity_ = capacity;
+   }
+
+   /**
+    * Appends styled text to the buffer. Each newline in the text completes
+    * the pending line and moves it into the buffer; text after the last
+    * newline remains pending until more text arrives or flush() is called.
+    *
+    * @return The number of lines completed by this call
+    */
+   public int append(String text, String clazz)
+   {
+      int completed = 0;
+      int start = 0;
+      int newline = text.indexOf('\n');
+      while (newline != -1)
+      {
+         appendPending(text.substring(start, newline + 1), clazz);
+         push(pending_);
+         pending_ = null;
+         completed++;
+         start = newline + 1;
+         newline = text.indexOf('\n', start);
+      }
+      if (start < text.length())
+         appendPending(text.substring(start), clazz);
+      return completed;
+   }
+
+   /**
+    * Completes the pending line, if any, even if it doesn't end in a newline.
+    */
+   public void flush()
+   {
+      if (pending_ != null)
+      {
+         push(pending_);
+         pending_ = null;
+      }
+   }
+
+   /**
+    * Appends an element which is kept whole as a line of its own, completing
+    * the pending line first.
+    */
+   public void appendElement(Element element)
+   {
+      flush();
+      Line line = new Line();
+      line.element_ = element;
+      push(line);
+   }
+
+   public void clear()
+   {
+      firstIndex_ += size_;
+      lines_ = new Line[capacity_ > 0 ? capacity_ : INITIAL_SIZE];
+      head_ = 0;
+      size_ = 0;
+      pending_ = null;
+   }
+
+   public int size()
+   {
+      return size_;
+   }
+
+   /**
+    * @return Absolute index of the oldest line still in the buffer
+    */
+   public int getFirstIndex()
+   {
+      return firstIndex_;
+   }
+
+   /**
+    * @return Absolute index one past the newest line in the buffer
+    */
+   public int getEndIndex()
+   {
+      return firstIndex_ + size_;
+   }
+
+   /**
+    * @param index Absolute line index, between getFirstIndex() (inclusive)
+    * and getEndIndex() (exclusive)
+    */
+   public Line get(int index)
+   {
+      if (index < firstIndex_ || index >= getEndIndex())
+         throw new IndexOutOfBoundsException("Line " + index + " not in buffer");
+      return lines_[(head_ + index - firstIndex_) % lines_.length];
+   }
+
+   public String getText(int startIndex, int endIndex)
+   {
+      StringBuilder builder = new StringBuilder();
+      for (int i = Math.max(startIndex, firstIndex_);
+           i < Math.min(endIndex, getEndIndex()); i++)
+      {
+         builder.append(get(i).getText());
+      }
+      return builder.toString();
+   }
+
+   private void appendPending(String text, String clazz)
+   {
+      if (text.length() == 0)
+         return;
+      if (pending_ == null)
+         pending_ = new Line();
+      pending_.add(text, clazz);
+   }
+
+   private void push(Line line)
+   {
+      if (size_ == lines_.length)
+      {
+         if (capacity_ > 0)
+         {
+            // full; overwrite the oldest line
+            lines_[head_] = line;
+            head_ = (head_ + 1) % lines_.length;
+            firstIndex_++;
+            return;
+         }
+
+         // unbounded; grow the backing array
+         Line[] lines = new Line[lines_.length * 2];
+         for (int i = 0; i < size_; i++)
+            lines[i] = lines_[(head_ + i) % lines_.length];
+         lines_ = lines;
+         head_ = 0;
+      }
+
+      lines_[(head_ + size_) % lines_.length] = line;
+      size_++;
+   }
+
+   private static final int INITIAL_SIZE = 1024;
+
+   private Line[] lines_ = new Line[0];
+   private Line pending_;
+   private int head_ = 0;
+   private int size_ = 0;
+   private int capacity_;
+   private int firstIndex_ = 0;
+}
@@ -44,6 +44,14 @@ public class ConsoleOutputWriter
    {
       return output_.getElement();
    }
+   
+   /**
+    * @return Element to which trailing output spans are appended
+    */
+   protected Element getOutputContainer()
+   {
+      return output_.getElement();
+   }
 
    public void clearConsoleOutput()
    {
@@ -79,7 +87,7 @@ public class ConsoleOutputWriter
       if (text.indexOf('\f') >= 0)
          clearConsoleOutput();
 
-      Element outEl = output_.getElement();
+      Element outEl = getOutputContainer();
       
       // create trailing output console if it doesn't already exist 
       if (virtualConsole_ == null)
@@ -89,10 +97,8 @@ public class ConsoleOutputWriter
          virtualConsole_ = new VirtualConsole(trailing);
       }
 
-      int oldLineCount = DomUtils.countLines(virtualConsole_.getParent(), true);
       virtualConsole_.submit(text, className, isError);
-      int newLineCount = DomUtils.countLines(virtualConsole_.getParent(), true);
-      lines_ += newLineCount - oldLineCount;
+      lines_ += virtualConsole_.getNewlineDelta();
 
       return ignoreLineCount ? true : !trimExcess();
    }
@@ -105,13 +111,52 @@ public class ConsoleOutputWriter
       int linesToTrim = lines_ - maxLines_;
       if (linesToTrim > 0)
       {
-         lines_ -= DomUtils.trimLines(getElement(), linesToTrim);
+         // output from earlier prompts can be trimmed from the DOM directly
+         Element trailing = virtualConsole_ == null ? null :
+                                                      virtualConsole_.getParent();
+         int trimmed = 0;
+         Element child = getOutputContainer().getFirstChildElement();
+         while (child != null && child != trailing && trimmed < linesToTrim)
+         {
+            Element next = child.getNextSiblingElement();
+            int lines = DomUtils.countLines(child, true);
+            if (trimmed + lines <= linesToTrim)
+            {
+               child.removeFromParent();
+               trimmed += lines;
+            }
+            else
+            {
+               trimmed += DomUtils.trimLines(child, linesToTrim - trimmed);
+            }
+            child = next;
+         }
+
+         // lines in the trailing output have to leave the virtual console
+         // too, or its newline count (and so lines_) drifts from the DOM
+         if (trimmed < linesToTrim && virtualConsole_ != null)
+            trimmed += virtualConsole_.harvestLines(linesToTrim - trimmed, null);
+
+         lines_ -= trimmed;
          return true;
       }
 
       return false;
    }
 
+   /**
+    * Keeps the given output elements in place until they're released (e.g.
+    * error output which may yet be replaced by an extended error). Only
+    * writers which move output out of the DOM need to honor this.
+    */
+   public void retainElements(List<Element> elements)
+   {
+   }
+
+   public void releaseElements(List<Element> elements)
+   {
+   }
+
    // Elements added by last submit call; only captured if 
    // outputToConsole/isError was true for performance reasons
    public List<Element> getNewElements()
@@ -132,6 +177,7 @@ public class ConsoleOutputWriter
              !Element.as(child).getInnerText().endsWith("\n"))
          {
             virtualConsole_.submit("\n");
+            lines_ += virtualConsole_.getNewlineDelta();
          }
          // clear the virtual console so we start with a fresh slate
          virtualConsole_ = null;
@@ -144,7 +190,7 @@ public class ConsoleOutputWriter
    }
    
    private int maxLines_ = -1;
-   private int lines_ = 0;
+   protected int lines_ = 0;
    private final PreWidget output_;
-   private VirtualConsole virtualConsole_;
+   protected VirtualConsole virtualConsole_;
 }
\ No newline at end of file
@@ -31,7 +31,9 @@ import org.rstudio.studio.client.workbench.prefs.model.UIPrefs;
 import com.google.gwt.core.client.JsArrayString;
 import com.google.gwt.dom.client.Document;
 import com.google.gwt.dom.client.Element;
+import com.google.gwt.dom.client.Node;
 import com.google.gwt.dom.client.SpanElement;
+import com.google.gwt.dom.client.Text;
 import com.google.inject.Inject;
 
 /**
@@ -119,6 +121,8 @@ public class VirtualConsole
       clearPartialAnsiCode();
       output_.setLength(0);
       cursor_ = 0;
+      newlineDelta_ -= newlineCount_;
+      newlineCount_ = 0;
       class_.clear();
       if (parent_ != null)
          parent_.setInnerHTML("");
@@ -170,6 +174,85 @@ public class VirtualConsole
       return parent_;
    }
    
+   /**
+    * @return Net number of newlines added (positive) or removed (negative)
+    * by the last submit call
+    */
+   public int getNewlineDelta()
+   {
+      return newlineDelta_;
+   }
+   
+   /**
+    * Moves completed lines (those before the line holding the cursor) out of
+    * the virtual console and into a line buffer, releasing their DOM. ANSI
+    * state and the line being edited are left untouched.
+    *
+    * @param maxLines Maximum number of lines to move
+    * @param buffer Buffer receiving the lines, or null to discard them
+    * @return The number of lines moved
+    */
+   public int harvestLines(int maxLines, ConsoleLineBuffer buffer)
+   {
+      int end = 0;
+      int harvested = 0;
+      for (int i = 0; i < cursor_ && harvested < maxLines; i++)
+      {
+         if (output_.charAt(i) == '\n')
+         {
+            end = i + 1;
+            harvested++;
+         }
+      }
+      if (harvested == 0)
+         return 0;
+
+      TreeMap<Integer, ClassRange> remaining = new TreeMap<Integer, ClassRange>();
+      for (ClassRange range: class_.values())
+      {
+         int r = range.start + range.length;
+         if (r <= end)
+         {
+            // entirely harvested
+            if (buffer != null)
+               buffer.append(range.text(), range.clazz);
+            if (parent_ != null)
+               range.element.removeFromParent();
+         }
+         else
+         {
+            if (range.start < end)
+            {
+               // straddles the boundary; harvest the leading part
+               int delta = end - range.start;
+               if (buffer != null)
+                  buffer.append(range.text().substring(0, delta), range.clazz);
+               range.trimLeft(delta);
+            }
+            range.start -= end;
+            remaining.put(range.start, range);
+         }
+      }
+      class_.clear();
+      class_.putAll(remaining);
+
+      output_.delete(0, end);
+      cursor_ -= end;
+      newlineCount_ -= harvested;
+      return harvested;
+   }
+
+   private static int countNewlines(CharSequence text, int start, int end)
+   {
+      int count = 0;
+      for (int i = start; i < end; i++)
+      {
+         if (text.charAt(i) == '\n')
+            count++;
+      }
+      return count;
+   }
+   
    /**
     * Appends text to the end of the virtual console.
     * 
@@ -351,6 +434,32 @@ public class VirtualConsole
       }
    }
    
+   /**
+    * Overwrites text in place when it starts within the last output range
+    * and has the same style, which is what progress bars redrawing the
+    * current line after a \r do; this avoids the bookkeeping (and the new
+    * span) of insertText, which would end up with the same result.
+    * 
+    * @return Whether the text was written
+    */
+   private boolean overwriteLastRange(String text, String clazz)
+   {
+      Entry<Integer, ClassRange> last = class_.lastEntry();
+      if (last == null)
+         return false;
+
+      ClassRange range = last.getValue();
+      if (range.clazz != clazz ||
+          range.start > cursor_ ||
+          range.start + range.length != output_.length())
+      {
+         return false;
+      }
+
+      range.overwriteInPlace(text, cursor_ - range.start);
+      return true;
+   }
+
    /**
     * Write text to DOM
     * @param text text to write
@@ -369,10 +478,18 @@ public class VirtualConsole
          // short circuit common case in which we're just adding output
          if (cursor_ == output_.length() && !class_.isEmpty())
             appendText(text, clazz, forceNewRange);
-         else
+         else if (forceNewRange || !overwriteLastRange(text, clazz))
             insertText(new ClassRange(start, clazz, text));
       }
 
+      // track newlines incrementally so callers don't have to recount the
+      // DOM after every submit; only the overwritten region and the new text
+      // can change the count
+      int delta = countNewlines(text, 0, text.length()) -
+            countNewlines(output_, start, Math.min(end, output_.length()));
+      newlineCount_ += delta;
+      newlineDelta_ += delta;
+
       output_.replace(start, end, text);
       cursor_ += text.length();
    }
@@ -402,6 +519,7 @@ public class VirtualConsole
       // output.
       captureNewElements_ = forceNewRange;
       newElements_.clear();
+      newlineDelta_ = 0;
       
       // If previous submit ended with an incomplete ANSI code, add new data
       // to the previous (unwritten) data so we can try again to recognize
@@ -585,6 +703,28 @@ public class VirtualConsole
                text.substring(pos + content.length(), text.length()));
       }
       
+      // Like overwrite, but edits the span's text node rather than
+      // replacing it, and extends the range if the content runs past its end
+      public void overwriteInPlace(String content, int pos)
+      {
+         int replaced = Math.min(content.length(), length - pos);
+         Node child = element.getFirstChild();
+         if (child != null &&
+             child.getNodeType() == Node.TEXT_NODE &&
+             child.getNextSibling() == null)
+         {
+            child.<Text>cast().replaceData(pos, replaced, content);
+         }
+         else
+         {
+            String text = element.getInnerText();
+            element.setInnerText(
+                  text.substring(0, pos) + content +
+                  text.substring(pos + replaced));
+         }
+         length += content.length() - replaced;
+      }
+
       public String text()
       {
          return element.getInnerText();
@@ -608,6 +748,8 @@ public class VirtualConsole
    private final Element parent_;
    
    private int cursor_ = 0;
+   private int newlineCount_ = 0;
+   private int newlineDelta_ = 0;
    private AnsiCode ansi_;
    private String partialAnsiCode_;
    private AnsiCode.AnsiClazzes ansiCodeStyles_ = new AnsiCode.AnsiClazzes();
@@ -0,0 +1,396 @@
+/*
+ * VirtualizedConsoleOutputWriter.java
+ *
+ * Copyright (C) 2009-17 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.rstudio.core.client.dom.DomUtils;
+
+import com.google.gwt.animation.client.AnimationScheduler;
+import com.google.gwt.animation.client.AnimationScheduler.AnimationCallback;
+import com.google.gwt.dom.client.DivElement;
+import com.google.gwt.dom.client.Document;
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.dom.client.Node;
+import com.google.gwt.dom.client.SpanElement;
+import com.google.gwt.dom.client.Style.Unit;
+import com.google.gwt.dom.client.Text;
+import com.google.gwt.event.dom.client.ScrollEvent;
+import com.google.gwt.event.dom.client.ScrollHandler;
+import com.google.gwt.user.client.ui.ScrollPanel;
+
+/**
+ * Console output writer which keeps only the most recent output in live DOM.
+ * Older, completed lines are moved into a bounded ring buffer of styled line
+ * records, and only the lines in or near the viewport of the owning scroll
+ * panel are rendered; the rest of the buffer is represented by spacers.
+ *
+ * The live region at the end of the output still goes through VirtualConsole,
+ * so \r, \b, ANSI styles and getNewElements() behave as they do in
+ * ConsoleOutputWriter. Retained elements (error output awaiting an extended
+ * error) hold the live region in place until released, and widgets in the
+ * output are buffered whole rather than as text.
+ */
+public class VirtualizedConsoleOutputWriter extends ConsoleOutputWriter
+{
+   public VirtualizedConsoleOutputWriter()
+   {
+      super();
+      buffer_ = new ConsoleLineBuffer(getMaxOutputLines());
+      initStructure();
+   }
+
+   /**
+    * Sets the scroll panel whose viewport determines which buffered lines
+    * are rendered.
+    */
+   public void setViewport(ScrollPanel viewport)
+   {
+      viewport_ = viewport;
+      viewport_.addScrollHandler(new ScrollHandler()
+      {
+         @Override
+         public void onScroll(ScrollEvent event)
+         {
+            scheduleRender();
+         }
+      });
+      scheduleRender();
+   }
+
+   @Override
+   protected Element getOutputContainer()
+   {
+      return live_;
+   }
+
+   @Override
+   public void clearConsoleOutput()
+   {
+      super.clearConsoleOutput();
+      buffer_.clear();
+      retained_.clear();
+      initStructure();
+   }
+
+   @Override
+   public void retainElements(List<Element> elements)
+   {
+      retained_.addAll(elements);
+   }
+
+   @Override
+   public void releaseElements(List<Element> elements)
+   {
+      retained_.removeAll(elements);
+   }
+
+   ConsoleLineBuffer getLineBuffer()
+   {
+      return buffer_;
+   }
+
+   @Override
+   public void setMaxOutputLines(int maxLines)
+   {
+      buffer_.setCapacity(maxLines);
+      super.setMaxOutputLines(maxLines);
+   }
+
+   @Override
+   public int getCurrentLines()
+   {
+      return buffer_.size() + lines_;
+   }
+
+   @Override
+   public boolean trimExcess()
+   {
+      int firstIndex = buffer_.getFirstIndex();
+      harvest();
+      scheduleRender();
+      return buffer_.getFirstIndex() > firstIndex;
+   }
+
+   private void initStructure()
+   {
+      Document doc = Document.get();
+      topSpacer_ = doc.createDivElement();
+      rows_ = doc.createDivElement();
+      bottomSpacer_ = doc.createDivElement();
+      live_ = doc.createSpanElement();
+
+      Element outEl = getElement();
+      outEl.appendChild(topSpacer_);
+      outEl.appendChild(rows_);
+      outEl.appendChild(bottomSpacer_);
+      outEl.appendChild(live_);
+
+      renderStart_ = renderEnd_ = buffer_.getFirstIndex();
+   }
+
+   /**
+    * Moves completed lines out of the live DOM and into the line buffer once
+    * the live region grows past its limit.
+    */
+   private void harvest()
+   {
+      if (lines_ <= MAX_LIVE_LINES)
+         return;
+
+      int excess = lines_ - MAX_LIVE_LINES / 2;
+      while (excess > 0)
+      {
+         Element span = live_.getFirstChildElement();
+         if (span == null)
+         {
+            // everything's been taken (widgets count as one line, so the
+            // count may have drifted)
+            lines_ = 0;
+            break;
+         }
+
+         // output after retained elements has to wait until they're released
+         if (holdsRetained(span))
+            break;
+
+         if (virtualConsole_ != null && span == virtualConsole_.getParent())
+         {
+            // the span still being written to; only take completed lines,
+            // and only while they're all text (VirtualConsole doesn't know
+            // about widgets swapped into its output)
+            if (!hasWidgets(span))
+               lines_ -= virtualConsole_.harvestLines(excess, buffer_);
+            break;
+         }
+
+         // a span from an earlier prompt; take all of it
+         int harvested = harvestNode(span, null);
+         buffer_.flush();
+         span.removeFromParent();
+         lines_ = Math.max(0, lines_ - harvested);
+         excess -= harvested;
+      }
+   }
+
+   private boolean holdsRetained(Element span)
+   {
+      for (Element el : retained_)
+         if (span.isOrHasChild(el))
+            return true;
+      return false;
+   }
+
+   private static boolean isWidget(Element el)
+   {
+      return !el.getTagName().equalsIgnoreCase("span");
+   }
+
+   private static boolean hasWidgets(Element span)
+   {
+      for (Element child = span.getFirstChildElement();
+           child != null;
+           child = child.getNextSiblingElement())
+      {
+         if (isWidget(child))
+            return true;
+      }
+      return false;
+   }
+
+   private int harvestNode(Node node, String clazz)
+   {
+      switch (node.getNodeType())
+      {
+         case Node.TEXT_NODE:
+            return buffer_.append(Text.as(node).getData(), clazz);
+         case Node.ELEMENT_NODE:
+            Element el = Element.as(node);
+            if (isWidget(el))
+            {
+               // e.g. a ConsoleError; keep its element (and its handlers)
+               // and render it as a single row
+               buffer_.appendElement(el);
+               return 1;
+            }
+            if (!StringUtil.isNullOrEmpty(el.getClassName()))
+               clazz = el.getClassName();
+            int lines = 0;
+            for (Node child = el.getFirstChild();
+                 child != null;
+                 child = child.getNextSibling())
+            {
+               lines += harvestNode(child, clazz);
+            }
+            return lines;
+         default:
+            return 0;
+      }
+   }
+
+   private void scheduleRender()
+   {
+      if (viewport_ == null || renderPending_)
+         return;
+
+      renderPending_ = true;
+      AnimationScheduler.get().requestAnimationFrame(new AnimationCallback()
+      {
+         @Override
+         public void execute(double timestamp)
+         {
+            renderPending_ = false;
+            render();
+         }
+      });
+   }
+
+   private void render()
+   {
+      int first = buffer_.getFirstIndex();
+      int end = buffer_.getEndIndex();
+
+      // discard rows whose lines have fallen out of the buffer
+      while (renderStart_ < first && renderStart_ < renderEnd_)
+      {
+         rows_.getFirstChild().removeFromParent();
+         renderStart_++;
+      }
+      if (renderStart_ < first)
+         renderStart_ = renderEnd_ = first;
+
+      // map the viewport onto line indexes; rendered rows are measured,
+      // everything else is estimated from the average rendered row height
+      int lineHeight = getLineHeight();
+      int topHeight = (renderStart_ - first) * lineHeight;
+      int rowsHeight = rows_.getOffsetHeight();
+      int viewTop = viewport_.getElement().getAbsoluteTop() -
+                    topSpacer_.getAbsoluteTop();
+      int viewBottom = viewTop + viewport_.getOffsetHeight();
+
+      int wantStart = Math.max(first, Math.min(end,
+            lineAt(viewTop, first, topHeight, rowsHeight, lineHeight) -
+            OVERSCAN_LINES));
+      int wantEnd = Math.min(end,
+            lineAt(viewBottom, first, topHeight, rowsHeight, lineHeight) +
+            OVERSCAN_LINES + 1);
+      wantEnd = Math.max(wantStart, wantEnd);
+
+      // don't pull rows out from under an active selection; only grow
+      if (renderStart_ < renderEnd_ && DomUtils.selectionExists())
+      {
+         wantStart = Math.min(wantStart, renderStart_);
+         wantEnd = Math.max(wantEnd, renderEnd_);
+      }
+
+      if (wantEnd <= renderStart_ || wantStart >= renderEnd_)
+      {
+         // no overlap with what's rendered; start over (removing rows one
+         // by one, since buffered widget elements are reused)
+         while (rows_.getFirstChild() != null)
+            rows_.getFirstChild().removeFromParent();
+         renderStart_ = renderEnd_ = wantStart;
+      }
+
+      while (renderStart_ < wantStart)
+      {
+         rows_.getFirstChild().removeFromParent();
+         renderStart_++;
+      }
+      while (renderEnd_ > wantEnd)
+      {
+         rows_.getLastChild().removeFromParent();
+         renderEnd_--;
+      }
+      while (renderStart_ > wantStart)
+      {
+         renderStart_--;
+         rows_.insertFirst(createRow(buffer_.get(renderStart_)));
+      }
+      while (renderEnd_ < wantEnd)
+      {
+         rows_.appendChild(createRow(buffer_.get(renderEnd_)));
+         renderEnd_++;
+      }
+
+      lineHeight = getLineHeight();
+      topSpacer_.getStyle().setHeight(
+            (renderStart_ - first) * lineHeight, Unit.PX);
+      bottomSpacer_.getStyle().setHeight(
+            (end - renderEnd_) * lineHeight, Unit.PX);
+   }
+
+   private int lineAt(int y, int first, int topHeight, int rowsHeight,
+                      int lineHeight)
+   {
+      if (y < topHeight)
+         return first + y / lineHeight;
+      else if (y < topHeight + rowsHeight)
+         return renderStart_ + (y - topHeight) / lineHeight;
+      else
+         return renderEnd_ + (y - topHeight - rowsHeight) / lineHeight;
+   }
+
+   private int getLineHeight()
+   {
+      int rendered = renderEnd_ - renderStart_;
+      if (rendered > 0)
+      {
+         int height = rows_.getOffsetHeight() / rendered;
+         if (height > 0)
+            lineHeight_ = height;
+      }
+      return lineHeight_;
+   }
+
+   private Element createRow(ConsoleLineBuffer.Line line)
+   {
+      if (line.getElement() != null)
+         return line.getElement();
+
+      SpanElement row = Document.get().createSpanElement();
+      for (ConsoleLineBuffer.Segment segment : line.getSegments())
+      {
+         SpanElement span = Document.get().createSpanElement();
+         if (segment.clazz != null)
+            span.setClassName(segment.clazz);
+         span.setInnerText(segment.text);
+         row.appendChild(span);
+      }
+      return row;
+   }
+
+   // number of completed lines allowed in live DOM before moving them into
+   // the buffer
+   private static final int MAX_LIVE_LINES = 200;
+
+   // number of lines rendered above and below the viewport
+   private static final int OVERSCAN_LINES = 100;
+
+   private static final int DEFAULT_LINE_HEIGHT = 15;
+
+   private final ConsoleLineBuffer buffer_;
+   private final List<Element> retained_ = new ArrayList<Element>();
+   private ScrollPanel viewport_;
+   private DivElement topSpacer_;
+   private DivElement rows_;
+   private DivElement bottomSpacer_;
+   private SpanElement live_;
+   private int renderStart_;
+   private int renderEnd_;
+   private int lineHeight_ = DEFAULT_LINE_HEIGHT;
+   private boolean renderPending_ = false;
+}
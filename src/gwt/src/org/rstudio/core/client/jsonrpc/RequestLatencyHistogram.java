@@ -0,0 +1,109 @@
+/*
+ * RequestLatencyHistogram.java
+ *
+ * Copyright (C) 2009-17 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.core.client.jsonrpc;
+
+/**
+ * Fixed-bucket histogram of request latencies for a single RPC method.
+ */
+public class RequestLatencyHistogram
+{
+   public RequestLatencyHistogram(String method)
+   {
+      method_ = method;
+   }
+
+   public void add(long millis)
+   {
+      int bucket = 0;
+      while (bucket < BUCKET_LIMITS.length && millis > BUCKET_LIMITS[bucket])
+         bucket++;
+      counts_[bucket]++;
+
+      count_++;
+      totalMillis_ += millis;
+      maxMillis_ = Math.max(maxMillis_, millis);
+   }
+
+   public String getMethod()
+   {
+      return method_;
+   }
+
+   public int getCount()
+   {
+      return count_;
+   }
+
+   public long getMaxMillis()
+   {
+      return maxMillis_;
+   }
+
+   public long getMeanMillis()
+   {
+      return count_ == 0 ? 0 : totalMillis_ / count_;
+   }
+
+   /**
+    * @return Number of buckets; the last bucket holds latencies above the
+    * largest limit
+    */
+   public int getBucketCount()
+   {
+      return counts_.length;
+   }
+
+   public int getBucketValue(int bucket)
+   {
+      return counts_[bucket];
+   }
+
+   /**
+    * @return Upper (inclusive) bound of the bucket in milliseconds, or -1 for
+    * the last, unbounded bucket
+    */
+   public static long getBucketLimit(int bucket)
+   {
+      return bucket < BUCKET_LIMITS.length ? BUCKET_LIMITS[bucket] : -1;
+   }
+
+   @Override
+   public String toString()
+   {
+      StringBuilder builder = new StringBuilder();
+      builder.append(method_)
+             .append(": n=").append(count_)
+             .append(" mean=").append(getMeanMillis()).append("ms")
+             .append(" max=").append(maxMillis_).append("ms\n  ");
+      for (int i = 0; i < counts_.length; i++)
+      {
+         if (i < BUCKET_LIMITS.length)
+            builder.append("<=").append(BUCKET_LIMITS[i]);
+         else
+            builder.append(">").append(BUCKET_LIMITS[BUCKET_LIMITS.length - 1]);
+         builder.append(":").append(counts_[i]).append(" ");
+      }
+      return builder.toString();
+   }
+
+   private static final long[] BUCKET_LIMITS =
+         { 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000 };
+
+   private final String method_;
+   private final int[] counts_ = new int[BUCKET_LIMITS.length + 1];
+   private int count_;
+   private long totalMillis_;
+   private long maxMillis_;
+}
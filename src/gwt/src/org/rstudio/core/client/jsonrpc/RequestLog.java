@@ -15,7 +15,14 @@
 package org.rstudio.core.client.jsonrpc;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 
+/**
+ * Log of recent RPC requests. The log is bounded both by number of entries
+ * and by the total size of the payloads it retains; unless full capture is
+ * enabled only a prefix of each request and response is kept, along with
+ * its size. Per-method latency histograms are kept for the whole session.
+ */
 public class RequestLog
 {
    public static RequestLogEntry log(String requestId, String requestData)
@@ -23,16 +30,8 @@ public class RequestLog
       RequestLogEntry entry = new RequestLogEntry(System.currentTimeMillis(),
                                                   requestId, requestData);
       entries_.add(entry);
-
-      for (int i = 0; entries_.size() > MAX_ENTRIES && i < entries_.size(); i++)
-      {
-         RequestLogEntry oldEntry = entries_.get(i);
-         if (!oldEntry.isAlive())
-         {
-            entries_.remove(i);
-            i--;
-         }
-      }
+      retainedChars_ += entry.getRetainedSize();
+      trim();
 
       return entry;
    }
@@ -45,8 +44,85 @@ public class RequestLog
       return entries;
    }
 
+   public static RequestLatencyHistogram[] getLatencyHistograms()
+   {
+      return histograms_.values().toArray(
+            new RequestLatencyHistogram[histograms_.size()]);
+   }
+
+   /**
+    * Enable or disable capture of complete request and response payloads.
+    * This is a diagnostic mode; payloads can be very large.
+    */
+   public static void setFullCapture(boolean fullCapture)
+   {
+      fullCapture_ = fullCapture;
+   }
+
+   public static boolean isFullCapture()
+   {
+      return fullCapture_;
+   }
+
+   static String truncate(String data)
+   {
+      if (fullCapture_ || data == null || data.length() <= MAX_PAYLOAD_CHARS)
+         return data;
+      return data.substring(0, MAX_PAYLOAD_CHARS);
+   }
+
+   static void onResponseLogged(RequestLogEntry entry, int addedChars)
+   {
+      retainedChars_ += addedChars;
+
+      String method = entry.getRequestMethodName();
+      if (method != null && entry.getResponseTime() != null)
+         recordLatency(method, entry.getResponseTime() - entry.getRequestTime());
+
+      trim();
+   }
+
+   /**
+    * Record the duration of a client-side operation (e.g. one which spans
+    * several requests) alongside the per-method request latencies.
+    */
+   public static void recordLatency(String label, long millis)
+   {
+      RequestLatencyHistogram histogram = histograms_.get(label);
+      if (histogram == null)
+      {
+         histogram = new RequestLatencyHistogram(label);
+         histograms_.put(label, histogram);
+      }
+      histogram.add(millis);
+   }
+
+   private static void trim()
+   {
+      for (int i = 0;
+           (entries_.size() > MAX_ENTRIES || retainedChars_ > MAX_RETAINED_CHARS)
+              && i < entries_.size();
+           i++)
+      {
+         RequestLogEntry oldEntry = entries_.get(i);
+         if (!oldEntry.isAlive())
+         {
+            retainedChars_ -= oldEntry.getRetainedSize();
+            entries_.remove(i);
+            i--;
+         }
+      }
+   }
+
    private static final ArrayList<RequestLogEntry> entries_ =
          new ArrayList<RequestLogEntry>();
+   private static final HashMap<String, RequestLatencyHistogram> histograms_ =
+         new HashMap<String, RequestLatencyHistogram>();
+
+   private static boolean fullCapture_ = false;
+   private static int retainedChars_ = 0;
 
    private static final int MAX_ENTRIES = 50;
+   private static final int MAX_PAYLOAD_CHARS = 4 * 1024;
+   private static final int MAX_RETAINED_CHARS = 1024 * 1024;
 }
@@ -35,7 +35,8 @@ public class RequestLogEntry
    {
       requestTime_ = requestTime;
       requestId_ = requestId;
-      requestData_ = requestData;
+      requestSize_ = requestData == null ? 0 : requestData.length();
+      requestData_ = RequestLog.truncate(requestData);
    }
 
    public long getRequestTime()
@@ -53,6 +54,15 @@ public class RequestLogEntry
       return requestData_;
    }
 
+   /**
+    * @return Length of the complete request, which may be longer than the
+    * data retained in the log
+    */
+   public int getRequestSize()
+   {
+      return requestSize_;
+   }
+
    public Long getResponseTime()
    {
       return responseTime_;
@@ -63,11 +73,42 @@ public class RequestLogEntry
       return responseData_;
    }
 
+   /**
+    * @return Length of the complete response, which may be longer than the
+    * data retained in the log
+    */
+   public int getResponseSize()
+   {
+      return responseSize_;
+   }
+
+   public boolean isTruncated()
+   {
+      return (requestData_ != null && requestData_.length() < requestSize_) ||
+             (responseData_ != null && responseData_.length() < responseSize_);
+   }
+
    public void logResponse(int responseType, String data)
    {
+      int oldSize = responseData_ == null ? 0 : responseData_.length();
+
       responseType_ = responseType;
       responseTime_ = System.currentTimeMillis();
-      responseData_ = data;
+      responseSize_ = data == null ? 0 : data.length();
+      responseData_ = RequestLog.truncate(data);
+
+      RequestLog.onResponseLogged(this, getResponseDataLength() - oldSize);
+   }
+
+   int getRetainedSize()
+   {
+      return (requestData_ == null ? 0 : requestData_.length()) +
+             getResponseDataLength();
+   }
+
+   private int getResponseDataLength()
+   {
+      return responseData_ == null ? 0 : responseData_.length();
    }
 
    public int getResponseType()
@@ -97,8 +138,10 @@ public class RequestLogEntry
       RequestLogEntry clone = new RequestLogEntry(requestTime_,
                                                   requestId_,
                                                   requestData_);
+      clone.requestSize_ = requestSize_;
       clone.responseType_ = responseType_;
       clone.responseData_ = responseData_;
+      clone.responseSize_ = responseSize_;
       clone.responseTime_ = responseTime_;
       return clone;
    }
@@ -137,13 +180,16 @@ public class RequestLogEntry
       entry.responseType_ = respType;
       entry.responseTime_ = respTime;
       entry.responseData_ = respData;
+      entry.responseSize_ = respData == null ? 0 : respData.length();
       return entry;
    }
 
    private final long requestTime_;
    private final String requestId_;
    private final String requestData_;
+   private int requestSize_;
    private Long responseTime_;
    private String responseData_;
+   private int responseSize_;
    private int responseType_ = ResponseType.None;
 }
@@ -14,12 +14,15 @@
  */
 package org.rstudio.core.client.widget;
 
+import com.google.gwt.animation.client.AnimationScheduler;
+import com.google.gwt.animation.client.AnimationScheduler.AnimationCallback;
 import com.google.gwt.core.client.JavaScriptException;
 import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.core.client.Scheduler.ScheduledCommand;
 import com.google.gwt.dom.client.*;
 import com.google.gwt.dom.client.Element;
 import com.google.gwt.dom.client.Style.Cursor;
+import com.google.gwt.dom.client.Style.Unit;
 import com.google.gwt.event.dom.client.*;
 import com.google.gwt.event.shared.HandlerRegistration;
 import com.google.gwt.user.client.DOM;
@@ -36,6 +39,7 @@ import org.rstudio.core.client.widget.events.SelectionChangedHandler;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.TreeSet;
 
 public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widget
    implements HasAllMouseHandlers, HasClickHandlers, HasAllKeyHandlers
@@ -90,7 +94,18 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
                return;
             TableRowElement row = (TableRowElement) cell.getParentElement();
             if (codec_.isValueRow(row))
-               handleRowClick(event, row);
+            {
+               if (virtualized_)
+               {
+                  int index = renderedRows_.indexOf(row);
+                  if (index != -1)
+                     handleRowClick(event, renderStart_ + index);
+               }
+               else
+               {
+                  handleRowClick(event, row);
+               }
+            }
          }
       });
       addClickHandler(new ClickHandler()
@@ -123,9 +138,34 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
    public void setOwningScrollPanel(ScrollPanel scrollPanel)
    {
       scrollPanel_ = scrollPanel;
+      if (virtualized_)
+         attachScrollHandler();
    }
 
-   private void handleRowClick(MouseDownEvent event, TableRowElement row)
+   /**
+    * Enables the virtualized mode, in which items are kept in a model array
+    * and only the rows in or near the viewport of the owning scroll panel
+    * are rendered. Must be called before any items are added.
+    *
+    * In this mode every item counts as one logical row, so row indexes
+    * (e.g. for getSelectedRowIndexes or setSelected) are item indexes.
+    */
+   public void setVirtualized(boolean virtualized)
+   {
+      assert items_.isEmpty() && renderedBody_ == null :
+         "setVirtualized must be called before items are added";
+
+      virtualized_ = virtualized;
+      if (virtualized_ && scrollPanel_ != null)
+         attachScrollHandler();
+   }
+
+   public boolean isVirtualized()
+   {
+      return virtualized_;
+   }
+
+   private int getClickModifiers(MouseDownEvent event)
    {
       int modifiers = KeyboardShortcut.getModifierValue(event.getNativeEvent());
       modifiers &= ~KeyboardShortcut.ALT; // ALT has no effect
@@ -138,6 +178,13 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
          modifiers |= KeyboardShortcut.CTRL;
       modifiers &= ~KeyboardShortcut.META;
 
+      return modifiers;
+   }
+
+   private void handleRowClick(MouseDownEvent event, TableRowElement row)
+   {
+      int modifiers = getClickModifiers(event);
+
       if (modifiers == KeyboardShortcut.NONE)
       {
          // Select only the target row
@@ -206,6 +253,52 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
       }
    }
 
+   private void handleRowClick(MouseDownEvent event, int target)
+   {
+      int modifiers = getClickModifiers(event);
+
+      if (modifiers == KeyboardShortcut.NONE)
+      {
+         // Select only the target item
+         clearSelection();
+         setItemSelected(target, true);
+      }
+      else if (modifiers == KeyboardShortcut.CTRL)
+      {
+         // Toggle the target item
+         setItemSelected(target, !selectedIndexes_.contains(target));
+      }
+      else
+      {
+         // SHIFT or CTRL+SHIFT; same rules as for rows above
+         int offset = target;
+         int length = 1;
+         if (!selectedIndexes_.isEmpty())
+         {
+            int min = selectedIndexes_.first();
+            int max = selectedIndexes_.last();
+            if (target < min)
+            {
+               length = max - target + 1;
+            }
+            else if (target > max)
+            {
+               offset = min;
+               length = target - min + 1;
+            }
+            else if (modifiers == (KeyboardShortcut.CTRL | KeyboardShortcut.SHIFT))
+            {
+               offset = min;
+               length = target - min + 1;
+            }
+         }
+
+         clearSelection();
+         for (int i = 0; i < length; i++)
+            setItemSelected(offset + i, true);
+      }
+   }
+
    private void handleKeyDown(KeyDownEvent event)
    {
       int modifiers = KeyboardShortcut.getModifierValue(event.getNativeEvent());
@@ -233,7 +326,8 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
             return;
       }
 
-      sortSelectedRows();
+      if (!virtualized_)
+         sortSelectedRows();
       boolean clearSelection = modifiers != KeyboardShortcut.SHIFT;
 
       switch (event.getNativeKeyCode())
@@ -253,6 +347,14 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
    
    private void selectPreviousRow(boolean clearSelection)
    {
+      if (virtualized_)
+      {
+         int min = selectedIndexes_.isEmpty() ? items_.size()
+                                              : selectedIndexes_.first();
+         selectItem(findNextValueItem(min, true), clearSelection);
+         return;
+      }
+
       int min = selectedRows_.size() > 0
             ? selectedRows_.get(0).getRowIndex()
             : table_.getRows().getLength();
@@ -274,6 +376,13 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
    
    private void selectNextRow(boolean clearSelection)
    {
+      if (virtualized_)
+      {
+         int max = selectedIndexes_.isEmpty() ? -1 : selectedIndexes_.last();
+         selectItem(findNextValueItem(max, false), clearSelection);
+         return;
+      }
+
       int max = selectedRows_.size() > 0
             ? selectedRows_.get(selectedRows_.size() - 1).getRowIndex()
             : -1;
@@ -313,12 +422,44 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
 
    public void clearSelection()
    {
+      if (virtualized_)
+      {
+         for (Integer index : new ArrayList<Integer>(selectedIndexes_))
+            setItemSelected(index, false);
+         return;
+      }
+
       while (selectedRows_.size() > 0)
          setSelected(selectedRows_.get(0), false);
    }
 
    public void addItems(Iterable<TItemInput> items, boolean top)
    {
+      if (virtualized_)
+      {
+         ArrayList<TItemInput> added = new ArrayList<TItemInput>();
+         for (TItemInput item : items)
+            added.add(item);
+
+         if (top)
+         {
+            // existing items (and the rows already rendered for them) move
+            // down; rendering catches up on the next frame
+            items_.addAll(0, added);
+            shiftSelection(added.size());
+            renderStart_ += added.size();
+            renderEnd_ += added.size();
+         }
+         else
+         {
+            items_.addAll(added);
+         }
+
+         updateSpacers();
+         scheduleRender();
+         return;
+      }
+
       TableSectionElement tbody = Document.get().createTBodyElement();
       for (TItemInput item : items)
          tbody.appendChild(codec_.getRowForItem(item));
@@ -339,6 +480,16 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
    {
       table_.setInnerText("");
       selectedRows_.clear();
+
+      if (virtualized_)
+      {
+         items_.clear();
+         selectedIndexes_.clear();
+         renderedRows_.clear();
+         renderedBody_ = null;
+         renderStart_ = renderEnd_ = 0;
+         updateSpacers();
+      }
    }
    
    public void focus()
@@ -349,6 +500,9 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
    
    public int getRowCount()
    {
+      if (virtualized_)
+         return items_.size();
+
       return codec_.getLogicalRowCount(table_);
    }
    
@@ -357,6 +511,20 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
       if (rowCount <= 0)
          return;
 
+      if (virtualized_)
+      {
+         int count = Math.min(rowCount, items_.size());
+         items_.subList(0, count).clear();
+         shiftSelection(-count);
+
+         // drop the rows of removed items; what's left is re-rendered in
+         // place
+         int start = Math.max(0, renderStart_ - count);
+         int end = Math.max(start, renderEnd_ - count);
+         renderRange(start, end);
+         return;
+      }
+
       NodeList<TableSectionElement> tBodies = table_.getTBodies();
       for (int i = 0; i < tBodies.getLength(); i++)
       {
@@ -387,6 +555,9 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
 
    public ArrayList<Integer> getSelectedRowIndexes()
    {
+      if (virtualized_)
+         return new ArrayList<Integer>(selectedIndexes_);
+
       sortSelectedRows();
 
       ArrayList<Integer> results = new ArrayList<Integer>();
@@ -404,11 +575,24 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
    @Deprecated
    public void setSelected(int row, boolean selected)
    {
+      if (virtualized_)
+      {
+         setItemSelected(row, selected);
+         return;
+      }
+
       setSelected(getRow(row), selected);
    }
 
    public void setSelected(int offset, int length, boolean selected)
    {
+      if (virtualized_)
+      {
+         for (int i = 0; i < length; i++)
+            setItemSelected(offset + i, selected);
+         return;
+      }
+
       if (codec_.hasNonValueRows())
       {
          // If the codec might have stuck in some non-value rows, we need
@@ -439,6 +623,14 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
 
    public void setSelected(TableRowElement row, boolean selected)
    {
+      if (virtualized_)
+      {
+         int index = renderedRows_.indexOf(row);
+         if (index != -1)
+            setItemSelected(renderStart_ + index, selected);
+         return;
+      }
+
       try
       {
          if (row.getParentElement().getParentElement() != table_)
@@ -467,19 +659,30 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
          selectedRows_.remove(row);
 
       if (selected && !allowMultiSelect_)
+         fireSelectionChangedDeferred();
+   }
+
+   private void fireSelectionChangedDeferred()
+   {
+      Scheduler.get().scheduleDeferred(new ScheduledCommand()
       {
-         Scheduler.get().scheduleDeferred(new ScheduledCommand()
+         public void execute()
          {
-            public void execute()
-            {
-               fireEvent(new SelectionChangedEvent());
-            }
-         });
-      }
+            fireEvent(new SelectionChangedEvent());
+         }
+      });
    }
 
    public ArrayList<TItemOutput> getSelectedValues()
    {
+      if (virtualized_)
+      {
+         ArrayList<TItemOutput> results = new ArrayList<TItemOutput>();
+         for (Integer index : selectedIndexes_)
+            results.add(codec_.getOutputForRow(getItemRow(index)));
+         return results;
+      }
+
       sortSelectedRows();
 
       ArrayList<TItemOutput> results = new ArrayList<TItemOutput>();
@@ -501,6 +704,14 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
 
    public ArrayList<TItemOutput2> getSelectedValues2()
    {
+      if (virtualized_)
+      {
+         ArrayList<TItemOutput2> results = new ArrayList<TItemOutput2>();
+         for (Integer index : selectedIndexes_)
+            results.add(codec_.getOutputForRow2(getItemRow(index)));
+         return results;
+      }
+
       sortSelectedRows();
 
       ArrayList<TItemOutput2> results = new ArrayList<TItemOutput2>();
@@ -511,6 +722,9 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
 
    public boolean moveSelectionUp()
    {
+      if (virtualized_)
+         return moveItemSelection(true);
+
       if (selectedRows_.size() == 0)
          return false;
 
@@ -538,6 +752,9 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
 
    public boolean moveSelectionDown()
    {
+      if (virtualized_)
+         return moveItemSelection(false);
+
       if (selectedRows_.size() == 0)
          return false;
 
@@ -570,19 +787,48 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
 
    public TableRowElement getTopRow()
    {
+      if (virtualized_)
+         return renderedRows_.isEmpty() ? null : renderedRows_.get(0);
+
       if (table_.getRows().getLength() > 0)
          return getRow(0);
       else
          return null;
    }
 
+   /**
+    * In virtualized mode, only the selected rows which are currently
+    * rendered are returned.
+    */
    public ArrayList<TableRowElement> getSelectedRows()
    {
+      if (virtualized_)
+      {
+         ArrayList<TableRowElement> rows = new ArrayList<TableRowElement>();
+         for (Integer index : selectedIndexes_)
+            if (isRendered(index))
+               rows.add(renderedRows_.get(index - renderStart_));
+         return rows;
+      }
+
       return new ArrayList<TableRowElement>(selectedRows_);
    }
 
+   /**
+    * Returns the top of the row relative to the top of the table's contents,
+    * including (in virtualized mode) the space reserved for unrendered rows
+    * above it.
+    */
+   public int getRowTop(TableRowElement row)
+   {
+      return row.getOffsetTop() + (virtualized_ ? getTopSpace() : 0);
+   }
+
    public Rectangle getSelectionRect()
    {
+      if (virtualized_)
+         return getItemSelectionRect();
+
       if (selectedRows_.size() == 0)
          return null;
 
@@ -597,6 +843,311 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
       return new Rectangle(left, top, width, bottom - top);
    }
 
+   private void attachScrollHandler()
+   {
+      if (scrollHandler_ != null)
+         scrollHandler_.removeHandler();
+
+      scrollHandler_ = scrollPanel_.addScrollHandler(new ScrollHandler()
+      {
+         public void onScroll(ScrollEvent event)
+         {
+            scheduleRender();
+         }
+      });
+   }
+
+   private void scheduleRender()
+   {
+      if (renderPending_)
+         return;
+
+      renderPending_ = true;
+      AnimationScheduler.get().requestAnimationFrame(new AnimationCallback()
+      {
+         public void execute(double timestamp)
+         {
+            renderPending_ = false;
+            renderVisible();
+         }
+      });
+   }
+
+   /**
+    * Re-renders the table if the viewport of the owning scroll panel is no
+    * longer covered by the rendered rows, keeping the rows in view where
+    * they were.
+    */
+   private void renderVisible()
+   {
+      int itemCount = items_.size();
+      if (scrollPanel_ == null)
+      {
+         if (renderStart_ != 0 || renderEnd_ != itemCount)
+            renderRange(0, itemCount);
+         return;
+      }
+
+      Element scroller = scrollPanel_.getElement();
+      int viewTop = scroller.getAbsoluteTop() - getContentTop();
+      int viewBottom = viewTop + scroller.getClientHeight();
+      int renderedTop = getTopSpace();
+      int renderedBottom = renderedTop +
+            (renderedBody_ == null ? 0 : renderedBody_.getOffsetHeight());
+
+      if ((renderStart_ == 0 || viewTop >= renderedTop) &&
+          (renderEnd_ == itemCount || viewBottom <= renderedBottom))
+      {
+         return;
+      }
+
+      // remember where the first visible row was (or whether we were
+      // scrolled to the bottom) so we can restore it after rendering
+      boolean atBottom = scroller.getScrollTop() + scroller.getClientHeight()
+                         >= scroller.getScrollHeight() - 1;
+      int anchor = -1;
+      int anchorOffset = 0;
+      for (int i = 0; i < renderedRows_.size(); i++)
+      {
+         TableRowElement row = renderedRows_.get(i);
+         int top = getRowTop(row);
+         if (top + row.getOffsetHeight() > viewTop)
+         {
+            anchor = renderStart_ + i;
+            anchorOffset = top - viewTop;
+            break;
+         }
+      }
+
+      int first = Math.max(0, estimateIndex(viewTop) - OVERSCAN_ROWS);
+      int last = Math.min(itemCount, estimateIndex(viewBottom) + 1 + OVERSCAN_ROWS);
+      renderRange(first, Math.max(first, last));
+
+      if (atBottom && renderEnd_ == itemCount)
+      {
+         scroller.setScrollTop(scroller.getScrollHeight());
+      }
+      else if (anchor != -1 && isRendered(anchor))
+      {
+         int top = getRowTop(renderedRows_.get(anchor - renderStart_));
+         int newViewTop = scroller.getAbsoluteTop() - getContentTop();
+         scroller.setScrollTop(
+               scroller.getScrollTop() + (top - newViewTop) - anchorOffset);
+      }
+   }
+
+   private int estimateIndex(int y)
+   {
+      int renderedTop = getTopSpace();
+      if (y < renderedTop)
+         return Math.max(0, y / rowHeight_);
+
+      int renderedHeight = renderedBody_ == null ? 0 : renderedBody_.getOffsetHeight();
+      if (y < renderedTop + renderedHeight)
+      {
+         return renderStart_ + (y - renderedTop) * (renderEnd_ - renderStart_)
+                               / renderedHeight;
+      }
+
+      return renderEnd_ + (y - renderedTop - renderedHeight) / rowHeight_;
+   }
+
+   /**
+    * Replaces the rendered rows with those for the items in [start, end).
+    */
+   private void renderRange(int start, int end)
+   {
+      TableSectionElement tbody = Document.get().createTBodyElement();
+      renderedRows_.clear();
+      for (int i = start; i < end; i++)
+      {
+         TableRowElement row = codec_.getRowForItem(items_.get(i));
+         if (selectedIndexes_.contains(i))
+            setStyleName(row, selectedClassName_, true);
+         tbody.appendChild(row);
+         renderedRows_.add(row);
+      }
+
+      if (renderedBody_ != null && renderedBody_.getParentElement() == table_)
+         table_.replaceChild(tbody, renderedBody_);
+      else
+         table_.appendChild(tbody);
+      renderedBody_ = tbody;
+      renderStart_ = start;
+      renderEnd_ = end;
+
+      codec_.onRowsChanged(tbody);
+
+      // use the average height of what we just rendered (including any
+      // non-value rows the codec added) to size the unrendered space
+      int height = tbody.getOffsetHeight();
+      if (end > start && height > 0)
+         rowHeight_ = Math.max(1, height / (end - start));
+      updateSpacers();
+   }
+
+   private void updateSpacers()
+   {
+      table_.getStyle().setMarginTop(getTopSpace(), Unit.PX);
+      table_.getStyle().setMarginBottom(
+            (items_.size() - renderEnd_) * rowHeight_, Unit.PX);
+   }
+
+   private int getTopSpace()
+   {
+      return renderStart_ * rowHeight_;
+   }
+
+   private int getContentTop()
+   {
+      return table_.getAbsoluteTop() - getTopSpace();
+   }
+
+   private boolean isRendered(int index)
+   {
+      return index >= renderStart_ && index < renderEnd_;
+   }
+
+   /**
+    * Returns the rendered row for the item, or a detached one if the item
+    * isn't currently rendered.
+    */
+   private TableRowElement getItemRow(int index)
+   {
+      if (isRendered(index))
+         return renderedRows_.get(index - renderStart_);
+      return codec_.getRowForItem(items_.get(index));
+   }
+
+   private void setItemSelected(int index, boolean selected)
+   {
+      if (index < 0 || index >= items_.size())
+         return;
+
+      if (selectedIndexes_.contains(index) == selected)
+         return;
+
+      if (selected && !codec_.isValueRow(getItemRow(index)))
+         return;
+
+      if (selected)
+         selectedIndexes_.add(index);
+      else
+         selectedIndexes_.remove(index);
+
+      if (isRendered(index))
+      {
+         setStyleName(renderedRows_.get(index - renderStart_),
+                      selectedClassName_,
+                      selected);
+      }
+
+      if (selected && !allowMultiSelect_)
+         fireSelectionChangedDeferred();
+   }
+
+   private void shiftSelection(int delta)
+   {
+      ArrayList<Integer> shifted = new ArrayList<Integer>();
+      for (Integer index : selectedIndexes_)
+      {
+         if (index + delta >= 0)
+            shifted.add(index + delta);
+      }
+      selectedIndexes_.clear();
+      selectedIndexes_.addAll(shifted);
+   }
+
+   private Integer findNextValueItem(int index, boolean up)
+   {
+      int limit = up ? -1 : items_.size();
+      int increment = up ? -1 : 1;
+      for (int i = index + increment; i != limit; i += increment)
+      {
+         if (codec_.isValueRow(getItemRow(i)))
+            return i;
+      }
+      return null;
+   }
+
+   private void selectItem(Integer index, boolean clearSelection)
+   {
+      if (index == null)
+         return;
+
+      if (clearSelection)
+         clearSelection();
+      setItemSelected(index, true);
+      ensureItemVisible(index, 0);
+   }
+
+   private boolean moveItemSelection(boolean up)
+   {
+      if (selectedIndexes_.isEmpty())
+         return false;
+
+      Integer index = findNextValueItem(
+            up ? selectedIndexes_.first() : selectedIndexes_.last(), up);
+      if (index == null)
+         return false;
+
+      selectItem(index, true);
+      return true;
+   }
+
+   /**
+    * Scrolls the owning scroll panel so that the given item is visible,
+    * rendering it first if necessary. Only meaningful in virtualized mode.
+    */
+   public void ensureItemVisible(int index, int padding)
+   {
+      if (scrollPanel_ == null || index < 0 || index >= items_.size())
+         return;
+
+      if (!isRendered(index))
+      {
+         renderRange(Math.max(0, index - OVERSCAN_ROWS),
+                     Math.min(items_.size(), index + 1 + OVERSCAN_ROWS));
+      }
+
+      DomUtils.ensureVisibleVert(scrollPanel_.getElement(),
+                                 renderedRows_.get(index - renderStart_),
+                                 padding);
+   }
+
+   private Rectangle getItemSelectionRect()
+   {
+      if (selectedIndexes_.isEmpty())
+         return null;
+
+      int first = selectedIndexes_.first();
+      int last = selectedIndexes_.last();
+      if ((!isRendered(first) || !isRendered(last)) &&
+          last - first < 2 * OVERSCAN_ROWS)
+      {
+         renderRange(Math.max(0, first - OVERSCAN_ROWS),
+                     Math.min(items_.size(), last + 1 + OVERSCAN_ROWS));
+      }
+
+      if (isRendered(first) && isRendered(last))
+      {
+         TableRowElement firstRow = renderedRows_.get(first - renderStart_);
+         TableRowElement lastRow = renderedRows_.get(last - renderStart_);
+         int top = getRowTop(firstRow);
+         int bottom = getRowTop(lastRow) + lastRow.getOffsetHeight();
+         return new Rectangle(firstRow.getOffsetLeft(),
+                              top,
+                              firstRow.getOffsetWidth(),
+                              bottom - top);
+      }
+
+      // too large to render; estimate
+      return new Rectangle(0,
+                           first * rowHeight_,
+                           table_.getOffsetWidth(),
+                           (last - first + 1) * rowHeight_);
+   }
+
    protected Element getEventTargetCell(Event event) {
      Element td = DOM.eventGetTarget(event);
      for (; td != null; td = DOM.getParent(td)) {
@@ -685,4 +1236,20 @@ public class FastSelectTable<TItemInput, TItemOutput, TItemOutput2> extends Widg
    private final boolean allowMultiSelect_;
    private ScrollPanel scrollPanel_;
    private final boolean focusable_;
+
+   // virtualized mode: items_ is the model, and only the rows for
+   // [renderStart_, renderEnd_) are in the DOM
+   private boolean virtualized_;
+   private final ArrayList<TItemInput> items_ = new ArrayList<TItemInput>();
+   private final TreeSet<Integer> selectedIndexes_ = new TreeSet<Integer>();
+   private final ArrayList<TableRowElement> renderedRows_ = new ArrayList<TableRowElement>();
+   private TableSectionElement renderedBody_;
+   private int renderStart_;
+   private int renderEnd_;
+   private int rowHeight_ = DEFAULT_ROW_HEIGHT;
+   private boolean renderPending_;
+   private HandlerRegistration scrollHandler_;
+
+   private static final int DEFAULT_ROW_HEIGHT = 16;
+   private static final int OVERSCAN_ROWS = 50;
 }
\ No newline at end of file
@@ -104,6 +104,7 @@ import org.rstudio.studio.client.workbench.views.source.NewShinyWebApplication;
 import org.rstudio.studio.client.workbench.views.source.SourceSatellite;
 import org.rstudio.studio.client.workbench.views.source.SourceWindow;
 import org.rstudio.studio.client.workbench.views.source.SourceWindowManager;
+import org.rstudio.studio.client.workbench.views.source.model.DocPropertyWriteQueue;
 import org.rstudio.studio.client.workbench.views.source.editors.EditingTargetCodeExecution;
 import org.rstudio.studio.client.workbench.views.source.editors.EditingTargetInlineChunkExecution;
 import org.rstudio.studio.client.workbench.views.source.editors.explorer.view.ObjectExplorerDataGrid;
@@ -266,6 +267,7 @@ public interface RStudioGinjector extends Ginjector
    Satellite getSatellite();
    SatelliteManager getSatelliteManager();
    SourceWindowManager getSourceWindowManager();
+   DocPropertyWriteQueue getDocPropertyWriteQueue();
    SourceWindow getSourceWindow();
    Server getServer();
    ChunkWindowManager getChunkWindowManager();
@@ -44,12 +44,13 @@ public class RequestLogDetail extends Composite
 
       HTML html = new HTML();
       html.setText("Request ID: " + entry.getRequestId() + "\n\n"
-                   + "== REQUEST ======\n"
+                   + "== REQUEST (" + entry.getRequestSize() + " chars) ======\n"
                    + tryPrettyJson(req)
                    + "\n\n"
-                   + "== RESPONSE ======\n"
+                   + "== RESPONSE (" + entry.getResponseSize() + " chars) ======\n"
                    + tryPrettyJson(resp)
-                   + "\n");
+                   + "\n"
+                   + (entry.isTruncated() ? "\n[payloads truncated]\n" : ""));
       html.getElement().getStyle().setProperty("whiteSpace", "pre-wrap");
 
       panel.add(html);
@@ -35,6 +35,7 @@ import com.google.gwt.user.client.ui.*;
 import org.rstudio.core.client.CsvReader;
 import org.rstudio.core.client.CsvWriter;
 import org.rstudio.core.client.command.KeyboardShortcut;
+import org.rstudio.core.client.jsonrpc.RequestLatencyHistogram;
 import org.rstudio.core.client.jsonrpc.RequestLog;
 import org.rstudio.core.client.jsonrpc.RequestLogEntry;
 import org.rstudio.core.client.jsonrpc.RequestLogEntry.ResponseType;
@@ -114,6 +115,8 @@ public class RequestLogVisualization extends Composite
                             "<li>P: Play/pause</li>" +
                             "<li>E: Export</li>" +
                             "<li>I: Import</li>" +
+                            "<li>H: Show latency histograms</li>" +
+                            "<li>F: Toggle full payload capture</li>" +
                             "<li>+/-: Zoom in/out</li>" +
                             "</ul>");
       detail_.setWidget(instructions_);
@@ -290,6 +293,25 @@ public class RequestLogVisualization extends Composite
                                                      null);
             dialog.showModal();
          }
+         else if (keyCode == 'H')
+         {
+            StringBuilder text = new StringBuilder();
+            for (RequestLatencyHistogram histogram : RequestLog.getLatencyHistograms())
+               text.append(histogram.toString()).append("\n");
+
+            HTML html = new HTML();
+            html.setText(text.toString());
+            html.getElement().getStyle().setProperty("whiteSpace", "pre-wrap");
+            detail_.setWidget(html);
+         }
+         else if (keyCode == 'F')
+         {
+            RequestLog.setFullCapture(!RequestLog.isFullCapture());
+            HTML html = new HTML();
+            html.setText("Full payload capture " +
+                         (RequestLog.isFullCapture() ? "enabled" : "disabled"));
+            detail_.setWidget(html);
+         }
          else if (keyCode == 'I')
          {
             TextBoxDialog dialog = new TextBoxDialog(
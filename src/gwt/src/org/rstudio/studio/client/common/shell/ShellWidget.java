@@ -23,6 +23,7 @@ import org.rstudio.core.client.ElementIds;
 import org.rstudio.core.client.StringUtil;
 import org.rstudio.core.client.TimeBufferedCommand;
 import org.rstudio.core.client.VirtualConsole;
+import org.rstudio.core.client.VirtualizedConsoleOutputWriter;
 import org.rstudio.core.client.dom.DomUtils;
 import org.rstudio.core.client.jsonrpc.RpcObjectList;
 import org.rstudio.core.client.widget.BottomScrollPanel;
@@ -78,7 +79,16 @@ public class ShellWidget extends Composite implements ShellDisplay,
       
       SelectInputClickHandler secondaryInputHandler = new SelectInputClickHandler();
 
-      output_ = new ConsoleOutputWriter();
+      if (RStudioGinjector.INSTANCE.getUIPrefs().virtualizeConsoleOutput().getValue())
+      {
+         virtualizedOutput_ = new VirtualizedConsoleOutputWriter();
+         output_ = virtualizedOutput_;
+      }
+      else
+      {
+         virtualizedOutput_ = null;
+         output_ = new ConsoleOutputWriter();
+      }
       output_.getWidget().setStylePrimaryName(styles_.output());
       output_.getWidget().addClickHandler(secondaryInputHandler);
       ElementIds.assignElementId(output_.getElement(), 
@@ -187,6 +197,8 @@ public class ShellWidget extends Composite implements ShellDisplay,
       scrollPanel_.addStyleName("ace_scroller");
       scrollPanel_.addClickHandler(secondaryInputHandler);
       scrollPanel_.addKeyDownHandler(secondaryInputHandler);
+      if (virtualizedOutput_ != null)
+         virtualizedOutput_.setViewport(scrollPanel_);
 
       secondaryInputHandler.setInput(editor);
 
@@ -275,7 +287,10 @@ public class ShellWidget extends Composite implements ShellDisplay,
             errorNodes_.clear();
             clearErrors_ = false;
          }
+         if (errorNodes_.containsKey(error))
+            output_.releaseElements(errorNodes_.get(error));
          errorNodes_.put(error, newElements);
+         output_.retainElements(newElements);
       }
    }
    
@@ -299,6 +314,10 @@ public class ShellWidget extends Composite implements ShellDisplay,
          boolean replacedFirst = false;
          for (Element element: errorNodes)
          {
+            // may have been moved out of the DOM by virtualized output
+            if (element.getParentNode() == null)
+               continue;
+            
             if (!replacedFirst)
             {
                // swap widget for first element
@@ -312,6 +331,7 @@ public class ShellWidget extends Composite implements ShellDisplay,
             }
          }
          scrollPanel_.onContentSizeChanged();
+         output_.releaseElements(errorNodes);
          errorNodes_.remove(error);
       }
    }
@@ -352,6 +372,7 @@ public class ShellWidget extends Composite implements ShellDisplay,
       output(prompt, styles_.prompt() + KEYWORD_CLASS_NAME, false /*isError*/,
             false /*ignoreLineCount*/);
       clearErrors_ = true;
+      releaseErrorNodes();
    }
 
    public void consolePrompt(String prompt, boolean showInput)
@@ -370,9 +391,18 @@ public class ShellWidget extends Composite implements ShellDisplay,
       
       input_.setPasswordMode(!showInput);
       clearErrors_ = true;
+      releaseErrorNodes();
       output_.ensureStartingOnNewLine();
    }
 
+   // Extended errors arrive before the next prompt, so the output they'd
+   // replace no longer needs to stay in place
+   private void releaseErrorNodes()
+   {
+      for (List<Element> errorNodes : errorNodes_.values())
+         output_.releaseElements(errorNodes);
+   }
+
    public void ensureInputVisible()
    {
       scrollPanel_.scrollToBottom();
@@ -734,6 +764,7 @@ public class ShellWidget extends Composite implements ShellDisplay,
    
    private boolean cleared_ = false;
    private final ConsoleOutputWriter output_;
+   private final VirtualizedConsoleOutputWriter virtualizedOutput_;
    private PreWidget pendingInput_ ;
    private final HTML prompt_ ;
    protected final AceEditor input_ ;
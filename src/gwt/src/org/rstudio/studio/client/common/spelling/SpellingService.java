@@ -16,8 +16,9 @@
 package org.rstudio.studio.client.common.spelling;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.rstudio.core.client.js.JsUtil;
 import org.rstudio.studio.client.common.spelling.model.SpellCheckerResult;
@@ -112,15 +113,15 @@ public class SpellingService implements HasChangeHandlers
          public void onResponseReceived(JsArrayInteger result)
          {
             // get misspelled indexes
-            ArrayList<Integer> misspelledIndexes = new ArrayList<Integer>();
+            boolean[] misspelled = new boolean[wordsToCheck.size()];
             for (int i=0; i<result.length(); i++)
-               misspelledIndexes.add(result.get(i));
+               misspelled[result.get(i)] = true;
             
             // determine correct/incorrect status and populate result & cache
             for (int i=0; i<wordsToCheck.size(); i++)
             {
                String word = wordsToCheck.get(i);
-               if (misspelledIndexes.contains(i))
+               if (misspelled[i])
                {
                   spellCheckerResult.getIncorrect().add(word);
                   previousResults_.put(word, false);
@@ -225,8 +226,19 @@ public class SpellingService implements HasChangeHandlers
    private final SpellingServerOperations server_;
    private final UIPrefs uiPrefs_;
    
-   private HashMap<String,Boolean> previousResults_ = 
-                                             new HashMap<String,Boolean>();
+   // least recently used words are evicted once the cache is full, so that
+   // checking as you type doesn't grow it without bound
+   @SuppressWarnings("serial")
+   private LinkedHashMap<String,Boolean> previousResults_ = 
+                        new LinkedHashMap<String,Boolean>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String,Boolean> eldest)
+      {
+         return size() > MAX_CACHED_RESULTS;
+      }
+   };
+   
+   private static final int MAX_CACHED_RESULTS = 20000;
    
    HandlerManager handlerManager_ = new HandlerManager(this);
    
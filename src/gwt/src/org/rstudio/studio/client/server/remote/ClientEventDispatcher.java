@@ -15,12 +15,15 @@
 package org.rstudio.studio.client.server.remote;
 
 
+import com.google.gwt.animation.client.AnimationScheduler;
+import com.google.gwt.animation.client.AnimationScheduler.AnimationCallback;
 import com.google.gwt.core.client.GWT;
 import com.google.gwt.core.client.JavaScriptObject;
 import com.google.gwt.core.client.JsArray;
 import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.core.client.Scheduler.RepeatingCommand;
 
+import org.rstudio.core.client.StringUtil;
 import org.rstudio.core.client.files.FileSystemItem;
 import org.rstudio.core.client.files.filedialog.events.OpenFileDialogEvent;
 import org.rstudio.core.client.js.JsObject;
@@ -179,13 +182,15 @@ import org.rstudio.studio.client.workbench.views.vcs.common.events.VcsRefreshEve
 import org.rstudio.studio.client.workbench.views.vcs.common.events.VcsRefreshEvent.Reason;
 import org.rstudio.studio.client.workbench.views.viewer.events.ViewerNavigateEvent;
 
-import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.HashMap;
 
 public class ClientEventDispatcher 
 {
    public ClientEventDispatcher(EventBus eventBus)
    {
       eventBus_ = eventBus;
+      registerDispatchers();
    }
    
    public void enqueEventAsJso(JavaScriptObject event)
@@ -203,761 +208,1450 @@ public class ClientEventDispatcher
          {
             public boolean execute()
             {
-               final int MAX_EVENTS_AT_ONCE = 200;
-               for (int i = 0;
-                    i < MAX_EVENTS_AT_ONCE && pendingEvents_.size() > 0;
-                    i++)
+               // dispatch as many events as fit in our time budget, then
+               // yield so the UI stays responsive during event floods
+               long startTime = System.currentTimeMillis();
+               while (!pendingEvents_.isEmpty())
                {
-                  ClientEvent currentEvent = pendingEvents_.remove(0);
-                  dispatchEvent(currentEvent);
+                  dispatchEvent(pendingEvents_.poll());
+                  if (System.currentTimeMillis() - startTime >= MAX_DISPATCH_MILLIS)
+                     break;
                }
-               return pendingEvents_.size() > 0;
+               return !pendingEvents_.isEmpty();
             }
          });
       }
    }
    
+   /**
+    * @return Number of console output events received from the server
+    */
+   public int getConsoleEventsReceived()
+   {
+      return consoleCoalescer_.eventsReceived_;
+   }
+
+   /**
+    * @return Number of console write events fired after coalescing runs of
+    * console output events
+    */
+   public int getConsoleWritesIssued()
+   {
+      return consoleCoalescer_.writesIssued_;
+   }
+   
    private void dispatchEvent(ClientEvent event) 
    { 
       String type = event.getType();
       try
       {
-         if (type == ClientEvent.Busy)
+         // console output is held back so that runs of it can be written
+         // at once; write it before anything that might depend on it
+         if (type != ClientEvent.ConsoleOutput)
+            consoleCoalescer_.flush();
+
+         Dispatcher dispatcher = dispatchers_.get(type);
+         if (dispatcher != null)
+         {
+            dispatcher.dispatch(event);
+         }
+         else
+         {
+            GWT.log("WARNING: Server event not dispatched: " + type, null);
+         }
+      }
+      catch(Throwable e)
+      {
+         GWT.log("WARNING: Exception occured dispatching event: " + type, e);
+      }
+   }
+   
+   private void registerDispatchers()
+   {
+      register(ClientEvent.Busy, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             boolean busy = event.<Bool>getData().getValue();
             eventBus_.fireEvent(new BusyEvent(busy));
          }
-         else if (type == ClientEvent.ConsoleOutput)
+      });
+
+      register(ClientEvent.ConsoleOutput, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             ConsoleText output = event.getData();
-            eventBus_.fireEvent(new ConsoleWriteOutputEvent(output));
+            consoleCoalescer_.add(output);
          }
-         else if (type == ClientEvent.ConsoleError)
+      });
+
+      register(ClientEvent.ConsoleError, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             ConsoleText error = event.getData();
             eventBus_.fireEvent(new ConsoleWriteErrorEvent(error));
          }
-         else if (type == ClientEvent.ConsoleWritePrompt)
+      });
+
+      register(ClientEvent.ConsoleWritePrompt, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             String prompt = event.getData();
             eventBus_.fireEvent(new ConsoleWritePromptEvent(prompt));
          }
-         else if (type == ClientEvent.ConsoleWriteInput)
+      });
+
+      register(ClientEvent.ConsoleWriteInput, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             ConsoleText input = event.getData();
             eventBus_.fireEvent(new ConsoleWriteInputEvent(input));
          }
-         else if (type == ClientEvent.ConsolePrompt)
+      });
+
+      register(ClientEvent.ConsolePrompt, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             ConsolePrompt prompt = event.getData();
             eventBus_.fireEvent(new ConsolePromptEvent(prompt));
          }
-         else if (type == ClientEvent.ShowEditor)
+      });
+
+      register(ClientEvent.ShowEditor, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             ShowEditorData data = event.getData();
             eventBus_.fireEvent(new ShowEditorEvent(data));
          }
-         else if (type == ClientEvent.FileChanged)
+      });
+
+      register(ClientEvent.FileChanged, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             FileChange fileChange = event.getData();
             eventBus_.fireEvent(new FileChangeEvent(fileChange));
          }
-         else if (type == ClientEvent.WorkingDirChanged)
+      });
+
+      register(ClientEvent.WorkingDirChanged, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             String path = event.getData();
             eventBus_.fireEvent(new WorkingDirChangedEvent(path));
          }
-         else if (type == ClientEvent.ShowHelp)
+      });
+
+      register(ClientEvent.ShowHelp, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             String helpUrl = event.getData();
             eventBus_.fireEvent(new ShowHelpEvent(helpUrl));
          }
-         else if (type == ClientEvent.ShowErrorMessage)
+      });
+
+      register(ClientEvent.ShowErrorMessage, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             ErrorMessage errorMessage = event.getData();
             eventBus_.fireEvent(new ShowErrorMessageEvent(errorMessage));
          }
-         else if (type == ClientEvent.ChooseFile)
+      });
+
+      register(ClientEvent.ChooseFile, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             boolean newFile = event.<Bool>getData().getValue();
             eventBus_.fireEvent(new ChooseFileEvent(newFile));
          }
-         else if (type == ClientEvent.BrowseUrl)
+      });
+
+      register(ClientEvent.BrowseUrl, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             BrowseUrlInfo urlInfo = event.getData();
             eventBus_.fireEvent(new BrowseUrlEvent(urlInfo));
          }
-         else if (type == ClientEvent.PlotsStateChanged)
+      });
+
+      register(ClientEvent.PlotsStateChanged, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             PlotsState plotsState = event.getData();
             eventBus_.fireEvent(new PlotsChangedEvent(plotsState));
          }
-         else if (type == ClientEvent.ViewData)
+      });
+
+      register(ClientEvent.ViewData, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             DataView dataView = event.getData();
             eventBus_.fireEvent(new ViewDataEvent(dataView));
          }
-         else if (type == ClientEvent.PackageStateChanged)
+      });
+
+      register(ClientEvent.PackageStateChanged, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             PackageState newState = event.getData();
             eventBus_.fireEvent(new PackageStateChangedEvent(newState));
          }
-         else if (type == ClientEvent.PackageStatusChanged)
+      });
+
+      register(ClientEvent.PackageStatusChanged, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             PackageStatus status = event.getData();
             eventBus_.fireEvent(new PackageStatusChangedEvent(status));
          }
-         else if (type == ClientEvent.Locator)
+      });
+
+      register(ClientEvent.Locator, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             eventBus_.fireEvent(new LocatorEvent());
          }
-         else if (type == ClientEvent.ConsoleResetHistory)
+      });
+
+      register(ClientEvent.ConsoleResetHistory, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             ConsoleResetHistory reset = event.getData();
             eventBus_.fireEvent(new ConsoleResetHistoryEvent(reset));
          }
-         else if (type == ClientEvent.SessionSerialization)
+      });
+
+      register(ClientEvent.SessionSerialization, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             SessionSerializationAction action = event.getData();
             eventBus_.fireEvent(new SessionSerializationEvent(action));
          }
-         else if (type == ClientEvent.HistoryEntriesAdded)
+      });
+
+      register(ClientEvent.HistoryEntriesAdded, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             RpcObjectList<HistoryEntry> entries = event.getData();
             eventBus_.fireEvent(new HistoryEntriesAddedEvent(entries));
          }
-         else if (type == ClientEvent.QuotaStatus)
+      });
+
+      register(ClientEvent.QuotaStatus, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             QuotaStatus quotaStatus = event.getData();
             eventBus_.fireEvent(new QuotaStatusEvent(quotaStatus));
          }
-         else if (type == ClientEvent.FileEdit)
+      });
+
+      register(ClientEvent.FileEdit, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             FileSystemItem file = event.getData();
             eventBus_.fireEvent(new FileEditEvent(file));
          }
-         else if (type == ClientEvent.ShowContent)
+      });
+
+      register(ClientEvent.ShowContent, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             ContentItem content = event.getData();
             eventBus_.fireEvent(new ShowContentEvent(content));
          }
-         else if (type == ClientEvent.ShowData)
+      });
+
+      register(ClientEvent.ShowData, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             DataItem data = event.getData();
             eventBus_.fireEvent(new ShowDataEvent(data));
          }
-         else if (type == ClientEvent.AbendWarning)
-         {            
+      });
+
+      register(ClientEvent.AbendWarning, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
+         {
             eventBus_.fireEvent(new SessionAbendWarningEvent());
          }
-         else if (type == ClientEvent.ShowWarningBar)
+      });
+
+      register(ClientEvent.ShowWarningBar, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             WarningBarMessage message = event.getData();
             eventBus_.fireEvent(new ShowWarningBarEvent(message));
          }
-         else if (type == ClientEvent.OpenProjectError)
+      });
+
+      register(ClientEvent.OpenProjectError, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             OpenProjectError error = event.getData();
             eventBus_.fireEvent(new OpenProjectErrorEvent(error));
          }
-         else if (type == ClientEvent.VcsRefresh)
+      });
+
+      register(ClientEvent.VcsRefresh, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             JsObject data = event.getData();
             eventBus_.fireEvent(new VcsRefreshEvent(Reason.NA,
                                                     data.getInteger("delay")));
          }
-         else if (type == ClientEvent.AskPass)
+      });
+
+      register(ClientEvent.AskPass, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             AskPassEvent.Data data = event.getData();
             eventBus_.fireEvent(new AskPassEvent(data));
          }
-         else if (type == ClientEvent.ConsoleProcessOutput)
+      });
+
+      register(ClientEvent.ConsoleProcessOutput, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             ServerConsoleOutputEvent.Data data = event.getData();
             eventBus_.fireEvent(new ServerConsoleOutputEvent(data.getHandle(),
                                                             data.getOutput()));
          }
-         else if (type == ClientEvent.ConsoleProcessPrompt)
+      });
+
+      register(ClientEvent.ConsoleProcessPrompt, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             ServerConsolePromptEvent.Data data = event.getData();
             eventBus_.fireEvent(new ServerConsolePromptEvent(data.getHandle(),
                                                              data.getPrompt()));
          }
-         else if (type == ClientEvent.ConsoleProcessCreated)
+      });
+
+      register(ClientEvent.ConsoleProcessCreated, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             ConsoleProcessCreatedEvent.Data data = event.getData();
             eventBus_.fireEvent(new ConsoleProcessCreatedEvent(data));
          }
-         else if (type == ClientEvent.ConsoleProcessExit)
+      });
+
+      register(ClientEvent.ConsoleProcessExit, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             ServerProcessExitEvent.Data data = event.getData();
             eventBus_.fireEvent(new ServerProcessExitEvent(data.getHandle(),
                                                           data.getExitCode()));
          }
-         else if (type == ClientEvent.HTMLPreviewStartedEvent)
+      });
+
+      register(ClientEvent.HTMLPreviewStartedEvent, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             HTMLPreviewStartedEvent.Data data = event.getData();
             eventBus_.fireEvent(new HTMLPreviewStartedEvent(data));
          }
-         else if (type == ClientEvent.HTMLPreviewOutputEvent)
+      });
+
+      register(ClientEvent.HTMLPreviewOutputEvent, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             String output = event.getData();
             eventBus_.fireEvent(new HTMLPreviewOutputEvent(output));
          }
-         else if (type == ClientEvent.HTMLPreviewCompletedEvent)
+      });
+
+      register(ClientEvent.HTMLPreviewCompletedEvent, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             HTMLPreviewResult result = event.getData();
             eventBus_.fireEvent(new HTMLPreviewCompletedEvent(result));
          }
-         else if (type == ClientEvent.CompilePdfStartedEvent)
+      });
+
+      register(ClientEvent.CompilePdfStartedEvent, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             CompilePdfStartedEvent.Data data = event.getData();
             eventBus_.fireEvent(new CompilePdfStartedEvent(data));
          }
-         else if (type == ClientEvent.CompilePdfOutputEvent)
+      });
+
+      register(ClientEvent.CompilePdfOutputEvent, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             CompileOutput output = event.getData();
             eventBus_.fireEvent(new CompilePdfOutputEvent(output));
          }
-         else if (type == ClientEvent.CompilePdfErrorsEvent)
+      });
+
+      register(ClientEvent.CompilePdfErrorsEvent, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             JsArray<SourceMarker> data = event.getData();
             eventBus_.fireEvent(new CompilePdfErrorsEvent(data));
          }
-         else if (type == ClientEvent.CompilePdfCompletedEvent)
+      });
+
+      register(ClientEvent.CompilePdfCompletedEvent, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             CompilePdfResult result = event.getData();
             eventBus_.fireEvent(new CompilePdfCompletedEvent(result));
          }
-         else if (type == ClientEvent.SynctexEditFile)
+      });
+
+      register(ClientEvent.SynctexEditFile, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             SourceLocation sourceLocation = event.getData();
             eventBus_.fireEvent(new SynctexEditFileEvent(sourceLocation));
          }
-         else if (type == ClientEvent.FindResult)
+      });
+
+      register(ClientEvent.FindResult, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             FindResultEvent.Data data = event.getData();
             eventBus_.fireEvent(new FindResultEvent(
                   data.getHandle(), data.getResults().toArrayList()));
          }
-         else if (type == ClientEvent.FindOperationEnded)
+      });
+
+      register(ClientEvent.FindOperationEnded, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             String data = event.getData();
             eventBus_.fireEvent(new FindOperationEndedEvent(data));
          }
-         else if (type == ClientEvent.RPubsUploadStatus)
+      });
+
+      register(ClientEvent.RPubsUploadStatus, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             RPubsUploadStatusEvent.Status status = event.getData();
             eventBus_.fireEvent(new RPubsUploadStatusEvent(status));
          }
-         else if (type == ClientEvent.BuildStarted)
+      });
+
+      register(ClientEvent.BuildStarted, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             eventBus_.fireEvent(new BuildStartedEvent());
          }
-         else if (type == ClientEvent.BuildOutput)
+      });
+
+      register(ClientEvent.BuildOutput, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             CompileOutput data = event.getData();
             eventBus_.fireEvent(new BuildOutputEvent(data));
          }
-         else if (type == ClientEvent.BuildCompleted)
+      });
+
+      register(ClientEvent.BuildCompleted, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             BuildCompletedEvent.Data data = event.getData();
             eventBus_.fireEvent(new BuildCompletedEvent(data));
          }
-         else if (type == ClientEvent.BuildErrors)
+      });
+
+      register(ClientEvent.BuildErrors, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             BuildErrorsEvent.Data data = event.getData();
             eventBus_.fireEvent(new BuildErrorsEvent(data));
          }
-         else if (type == ClientEvent.DirectoryNavigate)
+      });
+
+      register(ClientEvent.DirectoryNavigate, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             DirectoryNavigateEvent.Data data = event.getData();
             eventBus_.fireEvent(new DirectoryNavigateEvent(data));
          }
-         else if (type == ClientEvent.DeferredInitCompleted)
+      });
+
+      register(ClientEvent.DeferredInitCompleted, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             eventBus_.fireEvent(new DeferredInitCompletedEvent());
          }
-         else if (type == ClientEvent.PlotsZoomSizeChanged)
+      });
+
+      register(ClientEvent.PlotsZoomSizeChanged, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             PlotsZoomSizeChangedEvent.Data data = event.getData();
             eventBus_.fireEvent(new PlotsZoomSizeChangedEvent(data));
          }
-         else if (type == ClientEvent.SourceCppStarted)
+      });
+
+      register(ClientEvent.SourceCppStarted, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             eventBus_.fireEvent(new SourceCppStartedEvent());
          }
-         else if (type == ClientEvent.SourceCppCompleted)
+      });
+
+      register(ClientEvent.SourceCppCompleted, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             SourceCppState state = event.getData();
             eventBus_.fireEvent(new SourceCppCompletedEvent(state));
          }
-         else if (type == ClientEvent.LoadedPackageUpdates)
+      });
+
+      register(ClientEvent.LoadedPackageUpdates, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             String installCmd = event.getData();
             eventBus_.fireEvent(new LoadedPackageUpdatesEvent(installCmd));
          }
-         else if (type == ClientEvent.ActivatePane)
+      });
+
+      register(ClientEvent.ActivatePane, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             String pane = event.getData();
             eventBus_.fireEvent(new ActivatePaneEvent(pane));
          }
-         else if (type == ClientEvent.ShowPresentationPane)
+      });
+
+      register(ClientEvent.ShowPresentationPane, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             PresentationState state = event.getData();
             eventBus_.fireEvent(new ShowPresentationPaneEvent(state));
          }
-         else if (type == ClientEvent.EnvironmentRefresh)
+      });
+
+      register(ClientEvent.EnvironmentRefresh, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             eventBus_.fireEvent(new EnvironmentRefreshEvent());
          }
-         else if (type == ClientEvent.ListChanged)
+      });
+
+      register(ClientEvent.ListChanged, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             eventBus_.fireEvent(new ListChangedEvent(event.<JsObject>getData()));
          }
-         else if (type == ClientEvent.UiPrefsChanged)
+      });
+
+      register(ClientEvent.UiPrefsChanged, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             UiPrefsChangedEvent.Data data = event.getData();
             eventBus_.fireEvent(new UiPrefsChangedEvent(data));
          }
-         else if (type == ClientEvent.ContextDepthChanged) {
+      });
+
+      register(ClientEvent.ContextDepthChanged, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
+         {
             EnvironmentContextData data = event.getData();
             eventBus_.fireEvent(new ContextDepthChangedEvent(data, true));
          }
-         else if (type == ClientEvent.HandleUnsavedChanges)
+      });
+
+      register(ClientEvent.HandleUnsavedChanges, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             eventBus_.fireEvent(new HandleUnsavedChangesEvent());
          }
-         else if (type == ClientEvent.Quit)
+      });
+
+      register(ClientEvent.Quit, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             QuitEvent.Data data = event.getData();
             eventBus_.fireEvent(new QuitEvent(data));
          }
-         else if (type == ClientEvent.Suicide)
+      });
+
+      register(ClientEvent.Suicide, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             // NOTE: we don't explicitly stop listening for events here
             // for the reasons cited above in ClientEvent.Quit
-            
+
             // fire event
             String message = event.getData();
             eventBus_.fireEvent(new SuicideEvent(message));
          }
-         else if (type == ClientEvent.SaveActionChanged)
+      });
+
+      register(ClientEvent.SaveActionChanged, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             SaveAction action = event.getData();
             eventBus_.fireEvent(new SaveActionChangedEvent(action));
          }
-         else if (type == ClientEvent.EnvironmentAssigned)
+      });
+
+      register(ClientEvent.EnvironmentAssigned, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             RObject objectInfo = event.getData();
             eventBus_.fireEvent(new EnvironmentObjectAssignedEvent(objectInfo));
          }
-         else if (type == ClientEvent.EnvironmentRemoved)
+      });
+
+      register(ClientEvent.EnvironmentRemoved, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             String objectName = event.getData();
             eventBus_.fireEvent(new EnvironmentObjectRemovedEvent(objectName));
          }
-         else if (type == ClientEvent.BrowserLineChanged)
+      });
+
+      register(ClientEvent.BrowserLineChanged, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             LineData lineData = event.getData();
             eventBus_.fireEvent(new BrowserLineChangedEvent(lineData));
          }
-         else if (type == ClientEvent.PackageLoaded)
+      });
+
+      register(ClientEvent.PackageLoaded, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             eventBus_.fireEvent(new PackageLoadedEvent(
                   (String)event.getData()));
          }
-         else if (type == ClientEvent.PackageUnloaded)
+      });
+
+      register(ClientEvent.PackageUnloaded, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             eventBus_.fireEvent(new PackageUnloadedEvent(
                   (String)event.getData()));
          }
-         else if (type == ClientEvent.PresentationPaneRequestCompleted)
+      });
+
+      register(ClientEvent.PresentationPaneRequestCompleted, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             eventBus_.fireEvent(new PresentationPaneRequestCompletedEvent());
          }
-         else if (type == ClientEvent.UnhandledError)
+      });
+
+      register(ClientEvent.UnhandledError, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             UnhandledError err = event.getData();
             eventBus_.fireEvent(new UnhandledErrorEvent(err));
          }
-         else if (type == ClientEvent.ErrorHandlerChanged)
+      });
+
+      register(ClientEvent.ErrorHandlerChanged, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             ErrorHandlerType handlerType = event.getData();
             eventBus_.fireEvent(new ErrorHandlerChangedEvent(handlerType));
          }
-         else if (type == ClientEvent.ViewerNavigate)
+      });
+
+      register(ClientEvent.ViewerNavigate, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             ViewerNavigateEvent.Data data = event.getData();
             eventBus_.fireEvent(new ViewerNavigateEvent(data));
          }
-         else if (type == ClientEvent.SourceExtendedTypeDetected)
+      });
+
+      register(ClientEvent.SourceExtendedTypeDetected, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             SourceExtendedTypeDetectedEvent.Data data = event.getData();
             eventBus_.fireEvent(new SourceExtendedTypeDetectedEvent(data));
          }
-         else if (type == ClientEvent.ShinyViewer)
+      });
+
+      register(ClientEvent.ShinyViewer, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             ShinyApplicationParams data = event.getData();
             eventBus_.fireEvent(new ShinyApplicationStatusEvent(data, true));
          }
-         else if (type == ClientEvent.DebugSourceCompleted)
+      });
+
+      register(ClientEvent.DebugSourceCompleted, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             DebugSourceResult result = (DebugSourceResult)event.getData();
             eventBus_.fireEvent(new DebugSourceCompletedEvent(result));
          }
-         else if (type == ClientEvent.RmdRenderStarted)
+      });
+
+      register(ClientEvent.RmdRenderStarted, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             RmdRenderStartedEvent.Data data = event.getData();
             eventBus_.fireEvent(new RmdRenderStartedEvent(data));
          }
-         else if (type == ClientEvent.RmdRenderOutput)
+      });
+
+      register(ClientEvent.RmdRenderOutput, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             CompileOutput data = event.getData();
             eventBus_.fireEvent(new RmdRenderOutputEvent(data));
          }
-         else if (type == ClientEvent.RmdRenderCompleted)
+      });
+
+      register(ClientEvent.RmdRenderCompleted, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             RmdRenderResult result = event.getData();
             eventBus_.fireEvent(new RmdRenderCompletedEvent(result));
          }
-         else if (type == ClientEvent.RmdShinyDocStarted)
+      });
+
+      register(ClientEvent.RmdShinyDocStarted, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             RmdShinyDocInfo docInfo = event.getData();
             eventBus_.fireEvent(new RmdShinyDocStartedEvent(docInfo));
          }
-         else if (type == ClientEvent.RSConnectDeploymentOutput)
+      });
+
+      register(ClientEvent.RSConnectDeploymentOutput, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             CompileOutput output = event.getData();
             eventBus_.fireEvent(new RSConnectDeploymentOutputEvent(output));
          }
-         else if (type == ClientEvent.RSConnectDeploymentCompleted)
+      });
+
+      register(ClientEvent.RSConnectDeploymentCompleted, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             String url = event.getData();
             eventBus_.fireEvent(new RSConnectDeploymentCompletedEvent(url));
          }
-         else if (type == ClientEvent.RSConnectDeploymentFailed)
+      });
+
+      register(ClientEvent.RSConnectDeploymentFailed, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             RSConnectDeploymentFailedEvent.Data data = event.getData();
             eventBus_.fireEvent(new RSConnectDeploymentFailedEvent(data));
          }
-         else if (type == ClientEvent.UserPrompt)
+      });
+
+      register(ClientEvent.UserPrompt, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             UserPrompt prompt = event.getData();
             eventBus_.fireEvent(new UserPromptEvent(prompt));
          }
-         else if (type == ClientEvent.InstallRtools)
+      });
+
+      register(ClientEvent.InstallRtools, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             InstallRtoolsEvent.Data data = event.getData();
             eventBus_.fireEvent(new InstallRtoolsEvent(data));
          }
-         else if (type == ClientEvent.InstallShiny)
+      });
+
+      register(ClientEvent.InstallShiny, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             String userAction = event.getData();
             eventBus_.fireEvent(new InstallShinyEvent(userAction));
          }
-         else if (type == ClientEvent.SuspendAndRestart)
+      });
+
+      register(ClientEvent.SuspendAndRestart, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             SuspendAndRestartEvent.Data data = event.getData();
             eventBus_.fireEvent(new SuspendAndRestartEvent(data));
          }
-         else if (type == ClientEvent.DataViewChanged)
+      });
+
+      register(ClientEvent.DataViewChanged, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             DataViewChangedEvent.Data data = event.getData();
             eventBus_.fireEvent(new DataViewChangedEvent(data));
          }
-         else if (type == ClientEvent.ViewFunction)
+      });
+
+      register(ClientEvent.ViewFunction, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             SearchPathFunctionDefinition data = event.getData();
             eventBus_.fireEvent(new CodeBrowserNavigationEvent(
                   data, null, false, true));
          }
-         else if (type == ClientEvent.MarkersChanged)
+      });
+
+      register(ClientEvent.MarkersChanged, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             MarkersChangedEvent.Data data = event.getData();
             eventBus_.fireEvent(new MarkersChangedEvent(data));
          }
-         else if (type == ClientEvent.EnableRStudioConnect)
+      });
+
+      register(ClientEvent.EnableRStudioConnect, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             EnableRStudioConnectUIEvent.Data data = event.getData();
             eventBus_.fireEvent(new EnableRStudioConnectUIEvent(data));
          }
-         else if (type == ClientEvent.UpdateGutterMarkers)
+      });
+
+      register(ClientEvent.UpdateGutterMarkers, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             LintEvent.Data data = event.getData();
             eventBus_.fireEvent(new LintEvent(data));
          }
-         else if (type == ClientEvent.SnippetsChanged)
+      });
+
+      register(ClientEvent.SnippetsChanged, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             SnippetsChangedEvent.Data data = event.getData();
             eventBus_.fireEvent(new SnippetsChangedEvent(data));
          }
-         else if (type == ClientEvent.JumpToFunction)
+      });
+
+      register(ClientEvent.JumpToFunction, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             JumpToFunctionEvent.Data data = event.getData();
             eventBus_.fireEvent(new JumpToFunctionEvent(data));
          }
-         else if (type == ClientEvent.CollabEditStarted)
+      });
+
+      register(ClientEvent.CollabEditStarted, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             CollabEditStartParams params = event.getData();
             eventBus_.fireEvent(new CollabEditStartedEvent(params));
          }
-         else if (type == ClientEvent.SessionCountChanged)
+      });
+
+      register(ClientEvent.SessionCountChanged, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             SessionCountChangedEvent.Data data = event.getData();
             eventBus_.fireEvent(new SessionCountChangedEvent(data));
          }
-         else if (type == ClientEvent.CollabEditEnded)
+      });
+
+      register(ClientEvent.CollabEditEnded, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             CollabEditEndedEvent.Data data = event.getData();
             eventBus_.fireEvent(new CollabEditEndedEvent(data));
          }
-         else if (type == ClientEvent.ProjectUsersChanged)
+      });
+
+      register(ClientEvent.ProjectUsersChanged, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             ProjectUserChangedEvent.Data data = event.getData();
             eventBus_.fireEvent(new ProjectUserChangedEvent(data));
          }
-         else if (type == ClientEvent.RVersionsChanged)
+      });
+
+      register(ClientEvent.RVersionsChanged, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             RVersionsInfo versions = event.getData();
             eventBus_.fireEvent(new RVersionsChangedEvent(versions));
          }
-         else if (type == ClientEvent.ShinyGadgetDialog)
+      });
+
+      register(ClientEvent.ShinyGadgetDialog, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             ShinyGadgetDialogEvent.Data data = event.getData();
             eventBus_.fireEvent(new ShinyGadgetDialogEvent(data));
          }
-         else if (type == ClientEvent.RmdParamsReady)
+      });
+
+      register(ClientEvent.RmdParamsReady, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             String paramsFile = event.getData();
             eventBus_.fireEvent(new RmdParamsReadyEvent(paramsFile));
          }
-         else if (type == ClientEvent.RegisterUserCommand)
+      });
+
+      register(ClientEvent.RegisterUserCommand, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             RegisterUserCommandEvent.Data data = event.getData();
             eventBus_.fireEvent(new RegisterUserCommandEvent(data));
          }
-         else if (type == ClientEvent.SendToConsole)
+      });
+
+      register(ClientEvent.SendToConsole, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             SendToConsoleEvent.Data data = event.getData();
             eventBus_.fireEvent(new SendToConsoleEvent(data));
          }
-         else if (type == ClientEvent.UserFollowStarted)
+      });
+
+      register(ClientEvent.UserFollowStarted, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             ProjectUser user = event.getData();
             eventBus_.fireEvent(new FollowUserEvent(user, true));
          }
-         else if (type == ClientEvent.UserFollowEnded)
+      });
+
+      register(ClientEvent.UserFollowEnded, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             ProjectUser user = event.getData();
             eventBus_.fireEvent(new FollowUserEvent(user, false));
          }
-         else if (type == ClientEvent.ProjectAccessRevoked)
+      });
+
+      register(ClientEvent.ProjectAccessRevoked, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             eventBus_.fireEvent(new ProjectAccessRevokedEvent());
          }
-         else if (type == ClientEvent.CollabEditSaved)
+      });
+
+      register(ClientEvent.CollabEditSaved, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             CollabEditSavedEvent.Data data = event.getData();
             eventBus_.fireEvent(new CollabEditSavedEvent(data));
          }
-         else if (type == ClientEvent.AddinRegistryUpdated)
+      });
+
+      register(ClientEvent.AddinRegistryUpdated, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             RAddins data = event.getData();
             eventBus_.fireEvent(new AddinRegistryUpdatedEvent(data));
          }
-         else if (type == ClientEvent.ChunkOutput)
+      });
+
+      register(ClientEvent.ChunkOutput, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             RmdChunkOutput data = event.getData();
             eventBus_.fireEvent(new RmdChunkOutputEvent(data));
          }
-         else if (type == ClientEvent.ChunkOutputFinished)
+      });
+
+      register(ClientEvent.ChunkOutputFinished, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             RmdChunkOutputFinishedEvent.Data data = event.getData();
             eventBus_.fireEvent(new RmdChunkOutputFinishedEvent(data));
          }
-         else if (type == ClientEvent.RprofStarted)
+      });
+
+      register(ClientEvent.RprofStarted, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             eventBus_.fireEvent(new RprofEvent(RprofEvent.RprofEventType.START, null));
          }
-         else if (type == ClientEvent.RprofStopped)
+      });
+
+      register(ClientEvent.RprofStopped, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             eventBus_.fireEvent(new RprofEvent(RprofEvent.RprofEventType.STOP, null));
          }
-         else if (type == ClientEvent.RprofCreated)
+      });
+
+      register(ClientEvent.RprofCreated, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             RprofEvent.Data data = event.getData();
             eventBus_.fireEvent(new RprofEvent(RprofEvent.RprofEventType.CREATE, data));
          }
-         else if (type == ClientEvent.EditorCommand)
+      });
+
+      register(ClientEvent.EditorCommand, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             EditorCommandEvent.Data data = event.getData();
             EditorCommandEvent payload = new EditorCommandEvent(data);
             eventBus_.fireEvent(new EditorCommandDispatchEvent(payload));
          }
-         else if (type == ClientEvent.PreviewRmd)
+      });
+
+      register(ClientEvent.PreviewRmd, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             PreviewRmdEvent.Data data = event.getData();
             eventBus_.fireEvent(new PreviewRmdEvent(data));
          }
-         else if (type == ClientEvent.WebsiteFileSaved)
+      });
+
+      register(ClientEvent.WebsiteFileSaved, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             FileSystemItem fsi = event.getData();
             eventBus_.fireEvent(new WebsiteFileSavedEvent(fsi));
          }
-         else if (type == ClientEvent.ChunkPlotRefreshed)
+      });
+
+      register(ClientEvent.ChunkPlotRefreshed, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             ChunkPlotRefreshedEvent.Data data = event.getData();
             eventBus_.fireEvent(new ChunkPlotRefreshedEvent(data));
          }
-         else if (type == ClientEvent.ChunkPlotRefreshFinished)
+      });
+
+      register(ClientEvent.ChunkPlotRefreshFinished, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             ChunkPlotRefreshFinishedEvent.Data data = event.getData();
             eventBus_.fireEvent(new ChunkPlotRefreshFinishedEvent(data));
          }
-         else if (type == ClientEvent.ReloadWithLastChanceSave)
+      });
+
+      register(ClientEvent.ReloadWithLastChanceSave, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             eventBus_.fireEvent(new ReloadWithLastChanceSaveEvent());
          }
-         else if (type == ClientEvent.ConnectionUpdated)
+      });
+
+      register(ClientEvent.ConnectionUpdated, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             ConnectionUpdatedEvent.Data data = event.getData();
             eventBus_.fireEvent(new ConnectionUpdatedEvent(data));
          }
-         else if (type == ClientEvent.EnableConnections)
+      });
+
+      register(ClientEvent.EnableConnections, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             eventBus_.fireEvent(new EnableConnectionsEvent());
          }
-         else if (type == ClientEvent.ConnectionListChanged)
+      });
+
+      register(ClientEvent.ConnectionListChanged, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             JsArray<Connection> connections = event.getData();
             eventBus_.fireEvent(new ConnectionListChangedEvent(connections));
          }
-         else if (type == ClientEvent.ActiveConnectionsChanged)
+      });
+
+      register(ClientEvent.ActiveConnectionsChanged, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             JsArray<ConnectionId> connections = event.getData();
             eventBus_.fireEvent(new ActiveConnectionsChangedEvent(connections));
          }
-         else if (type == ClientEvent.ConnectionOpened)
+      });
+
+      register(ClientEvent.ConnectionOpened, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             Connection connection = event.getData();
             eventBus_.fireEvent(new ConnectionOpenedEvent(connection));
          }
-         else if (type == ClientEvent.NotebookRangeExecuted)
+      });
+
+      register(ClientEvent.NotebookRangeExecuted, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             NotebookRangeExecutedEvent.Data data = event.getData();
             eventBus_.fireEvent(new NotebookRangeExecutedEvent(data));
          }
-         else if (type == ClientEvent.ChunkExecStateChanged)
+      });
+
+      register(ClientEvent.ChunkExecStateChanged, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             ChunkExecStateChangedEvent.Data data = event.getData();
             eventBus_.fireEvent(new ChunkExecStateChangedEvent(data));
          }
-         else if (type == ClientEvent.NavigateShinyFrame)
+      });
+
+      register(ClientEvent.NavigateShinyFrame, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             ShinyFrameNavigatedEvent.Data data = event.getData();
             eventBus_.fireEvent(new ShinyFrameNavigatedEvent(data));
          }
-         else if (type == ClientEvent.UpdateNewConnectionDialog)
+      });
+
+      register(ClientEvent.UpdateNewConnectionDialog, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             NewConnectionDialogUpdatedEvent.Data data = event.getData();
             eventBus_.fireEvent(new NewConnectionDialogUpdatedEvent(data));
          }
-         else if (type == ClientEvent.ProjectTemplateRegistryUpdated)
+      });
+
+      register(ClientEvent.ProjectTemplateRegistryUpdated, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             ProjectTemplateRegistry data = event.getData();
             eventBus_.fireEvent(new ProjectTemplateRegistryUpdatedEvent(data));
          }
-         else if (type == ClientEvent.TerminalSubProcs)
+      });
+
+      register(ClientEvent.TerminalSubProcs, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             TerminalSubprocEvent.Data data = event.getData();
             eventBus_.fireEvent(new TerminalSubprocEvent(data));
          }
-         else if (type == ClientEvent.PackageExtensionIndexingCompleted)
+      });
+
+      register(ClientEvent.PackageExtensionIndexingCompleted, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             PackageProvidedExtensions.Data data = event.getData();
             eventBus_.fireEvent(new PackageExtensionIndexingCompletedEvent(data));
          }
-         else if (type == ClientEvent.RStudioAPIShowDialog)
+      });
+
+      register(ClientEvent.RStudioAPIShowDialog, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             RStudioAPIShowDialogEvent.Data data = event.getData();
             eventBus_.fireEvent(new RStudioAPIShowDialogEvent(data));
          }
-         else if (type == ClientEvent.ObjectExplorerEvent)
+      });
+
+      register(ClientEvent.ObjectExplorerEvent, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             ObjectExplorerEvent.Data data = event.getData();
             eventBus_.fireEvent(new ObjectExplorerEvent(data));
          }
-         else if (type == ClientEvent.SendToTerminal)
+      });
+
+      register(ClientEvent.SendToTerminal, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             SendToTerminalEvent.Data data = event.getData();
             eventBus_.fireEvent(new SendToTerminalEvent(data));
          }
-         else if (type == ClientEvent.ClearTerminal)
+      });
+
+      register(ClientEvent.ClearTerminal, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             ClearTerminalEvent.Data data = event.getData();
             eventBus_.fireEvent(new ClearTerminalEvent(data));
          }
-         else if (type == ClientEvent.AddTerminal)
+      });
+
+      register(ClientEvent.AddTerminal, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             AddTerminalEvent.Data data = event.getData();
             eventBus_.fireEvent(new AddTerminalEvent(data));
          }
-         else if (type == ClientEvent.RemoveTerminal)
+      });
+
+      register(ClientEvent.RemoveTerminal, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             RemoveTerminalEvent.Data data = event.getData();
             eventBus_.fireEvent(new RemoveTerminalEvent(data));
          }
-         else if (type == ClientEvent.ActivateTerminal)
+      });
+
+      register(ClientEvent.ActivateTerminal, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             ActivateNamedTerminalEvent.Data data = event.getData();
             eventBus_.fireEvent(new ActivateNamedTerminalEvent(data));
          }
-         else if (type == ClientEvent.TerminalCwd)
+      });
+
+      register(ClientEvent.TerminalCwd, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             TerminalCwdEvent.Data data = event.getData();
             eventBus_.fireEvent(new TerminalCwdEvent(data));
          }
-         else if (type == ClientEvent.AdminNotification)
+      });
+
+      register(ClientEvent.AdminNotification, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             AdminNotification notification = event.getData();
             eventBus_.fireEvent(new AdminNotificationEvent(notification));
          }
-         else if (type == ClientEvent.RequestDocumentSave)
+      });
+
+      register(ClientEvent.RequestDocumentSave, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             RequestDocumentSaveEvent.Data data = event.getData();
             eventBus_.fireEvent(new RequestDocumentSaveEvent(data));
          }
-         else if (type == ClientEvent.RequestOpenProject)
+      });
+
+      register(ClientEvent.RequestOpenProject, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             RequestOpenProjectEvent.Data data = event.getData();
             eventBus_.fireEvent(new RequestOpenProjectEvent(data));
          }
-         else if (type == ClientEvent.OpenFileDialog)
+      });
+
+      register(ClientEvent.OpenFileDialog, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             OpenFileDialogEvent.Data data = event.getData();
             eventBus_.fireEvent(new OpenFileDialogEvent(data));
          }
-         else if (type == ClientEvent.ShowPageViewer)
+      });
+
+      register(ClientEvent.ShowPageViewer, new Dispatcher()
+      {
+         public void dispatch(ClientEvent event)
          {
             HTMLPreviewParams params = event.getData();
             eventBus_.fireEvent(new ShowPageViewerEvent(params));
          }
-         else
+      });
+   }
+
+   private void register(String type, Dispatcher dispatcher)
+   {
+      dispatchers_.put(type, dispatcher);
+   }
+
+   private interface Dispatcher
+   {
+      void dispatch(ClientEvent event);
+   }
+
+   /**
+    * Merges consecutive console output events for the same console into a
+    * single write, issued at most once per animation frame or when an event
+    * of another type needs to be dispatched. Error output isn't merged since
+    * extended error information is matched against the text of individual
+    * error events.
+    */
+   private class ConsoleOutputCoalescer
+   {
+      public void add(ConsoleText output)
+      {
+         eventsReceived_++;
+
+         if (pendingText_ != null &&
+             !StringUtil.notNull(output.console).equals(
+                 StringUtil.notNull(pendingConsole_)))
          {
-            GWT.log("WARNING: Server event not dispatched: " + type, null);
+            flush();
+         }
+
+         if (pendingText_ == null)
+         {
+            pendingText_ = new StringBuilder();
+            pendingConsole_ = output.console;
+         }
+         pendingText_.append(output.text);
+
+         if (!flushScheduled_)
+         {
+            flushScheduled_ = true;
+            AnimationScheduler.get().requestAnimationFrame(new AnimationCallback()
+            {
+               @Override
+               public void execute(double timestamp)
+               {
+                  flushScheduled_ = false;
+                  flush();
+               }
+            });
          }
       }
-      catch(Throwable e)
+
+      public void flush()
       {
-         GWT.log("WARNING: Exception occured dispatching event: " + type, e);
+         if (pendingText_ == null)
+            return;
+
+         ConsoleText output = new ConsoleText();
+         output.text = pendingText_.toString();
+         output.console = pendingConsole_;
+         pendingText_ = null;
+
+         writesIssued_++;
+         eventBus_.fireEvent(new ConsoleWriteOutputEvent(output));
       }
+
+      private StringBuilder pendingText_;
+      private String pendingConsole_;
+      private boolean flushScheduled_;
+
+      private int eventsReceived_;
+      private int writesIssued_;
    }
-   
+
+   // maximum time to spend dispatching events before yielding to the browser
+   private static final int MAX_DISPATCH_MILLIS = 20;
 
    private final EventBus eventBus_;
 
-   private final ArrayList<ClientEvent> pendingEvents_ = new ArrayList<ClientEvent>();
-   
+   private final ArrayDeque<ClientEvent> pendingEvents_ = new ArrayDeque<ClientEvent>();
+   private final HashMap<String, Dispatcher> dispatchers_ = new HashMap<String, Dispatcher>();
+   private final ConsoleOutputCoalescer consoleCoalescer_ = new ConsoleOutputCoalescer();
 
 }
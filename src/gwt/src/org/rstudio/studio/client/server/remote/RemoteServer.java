@@ -1996,6 +1996,30 @@ public class RemoteServer implements Server
       sendRequest(RPC_SCOPE, MODIFY_DOCUMENT_PROPERTIES, params, requestCallback);
    }
 
+   public void modifyDocumentsProperties(
+         HashMap<String, HashMap<String, String>> properties,
+         ServerRequestCallback<Void> requestCallback)
+   {
+      JSONObject documents = new JSONObject();
+      for (Map.Entry<String, HashMap<String, String>> document :
+              properties.entrySet())
+      {
+         JSONObject obj = new JSONObject();
+         for (Map.Entry<String, String> entry : document.getValue().entrySet())
+         {
+            obj.put(entry.getKey(), entry.getValue() == null 
+                                    ? JSONNull.getInstance()
+                                    : new JSONString(entry.getValue()));
+         }
+         documents.put(document.getKey(), obj);
+      }
+
+      JSONArray params = new JSONArray();
+      params.set(0, documents);
+
+      sendRequest(RPC_SCOPE, MODIFY_DOCUMENTS_PROPERTIES, params, requestCallback);
+   }
+
    public void getDocumentProperties(
          String path,
          ServerRequestCallback<JsObject> requestCallback)
@@ -5364,6 +5388,7 @@ public class RemoteServer implements Server
    private static final String SAVE_ACTIVE_DOCUMENT = "save_active_document";
    private static final String REQUEST_DOCUMENT_SAVE_COMPLETED = "request_document_save_completed";
    private static final String MODIFY_DOCUMENT_PROPERTIES = "modify_document_properties";
+   private static final String MODIFY_DOCUMENTS_PROPERTIES = "modify_documents_properties";
    private static final String GET_DOCUMENT_PROPERTIES = "get_document_properties";
    private static final String REVERT_DOCUMENT = "revert_document";
    private static final String REOPEN_WITH_ENCODING = "reopen_with_encoding";
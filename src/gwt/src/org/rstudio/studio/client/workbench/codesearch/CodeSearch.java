@@ -24,6 +24,7 @@ import org.rstudio.studio.client.common.filetypes.FileTypeRegistry;
 import org.rstudio.core.client.CodeNavigationTarget;
 import org.rstudio.studio.client.workbench.views.files.events.FileChangeEvent;
 import org.rstudio.studio.client.workbench.views.files.events.FileChangeHandler;
+import org.rstudio.studio.client.workbench.views.files.model.FileChange;
 
 import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.core.client.Scheduler.ScheduledCommand;
@@ -122,7 +123,9 @@ public class CodeSearch
          }
       });
      
-     // various conditions invalidate the search oracle's cache
+     // various conditions invalidate the search oracle's cache (the server
+     // also indexes C++, R Markdown and unsaved source documents, none of
+     // which we track here, so each search session starts afresh)
       
      searchDisplay.addBlurHandler(new BlurHandler() {
          @Override
@@ -146,12 +149,15 @@ public class CodeSearch
         @Override
         public void onFileChange(FileChangeEvent event)
         {           
-           // if this was an R file then invalide the cache
+           // if a file was added or removed, or an R file was changed,
+           // then invalidate the cache
            CodeSearchOracle oracle = display_.getSearchOracle();
            if (oracle.hasCachedResults())
            {
-              FileSystemItem fsi = event.getFileChange().getFile();
-              if (fsi.getExtension().toLowerCase().equals(".r"))
+              FileChange change = event.getFileChange();
+              FileSystemItem fsi = change.getFile();
+              if (change.getType() != FileChange.MODIFIED ||
+                  fsi.getExtension().toLowerCase().equals(".r"))
                  oracle.clear();
            }
         } 
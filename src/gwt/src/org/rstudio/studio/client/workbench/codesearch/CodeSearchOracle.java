@@ -16,7 +16,8 @@ package org.rstudio.studio.client.workbench.codesearch;
 
 import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.rstudio.core.client.CodeNavigationTarget;
 import org.rstudio.core.client.DuplicateHelper;
@@ -49,72 +50,14 @@ public class CodeSearchOracle extends SuggestOracle
       workbenchContext_ = workbenchContext;
    }
    
-   private static int scoreMatch(CodeSearchSuggestion suggestion, String query)
-   {
-      return scoreMatch(suggestion.getMatchedString(), query, suggestion.isFileTarget());
-   }
-   
-   // NOTE: When modifying this function, you should ensure that the associated
-   // code on the server side is modified to include the same logic as well!
-   // (see: SessionCodeSearch.cpp)
+   /**
+    * Scores a single suggestion against a query; see FuzzyMatcher. When
+    * scoring many suggestions against the same query, create a FuzzyMatcher
+    * once and reuse it instead.
+    */
    public static int scoreMatch(String suggestion, String query, boolean isFile)
    {
-      String suggestionLower = suggestion.toLowerCase();
-      String queryLower = query.toLowerCase();
-      
-      // No penalty for identical results
-      if (suggestion == query)
-         return 0;
-      
-      int totalPenalty = 0;
-      
-      // Get query matches in string (ordered)
-      List<Integer> matches = StringUtil.subsequenceIndices(suggestionLower, queryLower);
-      
-      // Loop over the matches and assign a score
-      for (int j = 0, n = matches.size(); j < n; j++)
-      {
-         int matchPos = matches.get(j);
-         
-         // The initial penalty is equal to the match position
-         int penalty = matchPos;
-         
-         // Less penalty if character follows special delim
-         if (matchPos >= 1)
-         {
-            char prevChar = suggestionLower.charAt(matchPos - 1);
-            if (prevChar == '_' || prevChar == '-' ||
-                  (!isFile && prevChar == '.'))
-            {
-               penalty = j + 1;
-            }
-         }
-         
-         // Less penalty for case-sensitive matches
-         if (suggestion.charAt(matchPos) == query.charAt(j))
-            penalty--;
-         
-         // More penalty for 'uninteresting' files
-         if (suggestion == "RcppExports.R" ||
-             suggestion == "RcppExports.cpp")
-            penalty += 6;
-         
-         // More penalty for 'uninteresting' extensions (e.g. .Rd)
-         String extension = StringUtil.getExtension(suggestionLower);
-         if (extension.toLowerCase() == "rd")
-            penalty += 6;
-         
-         totalPenalty += penalty;
-      }
-      
-      // Penalize file targets
-      if (isFile)
-         totalPenalty++;
-      
-      // Penalize unmatched characters
-      totalPenalty += (query.length() - matches.size()) * query.length();
-      
-      return totalPenalty;
+      return new FuzzyMatcher(query).score(suggestion, isFile);
    }
    
    @Override
@@ -125,11 +68,9 @@ public class CodeSearchOracle extends SuggestOracle
       searchInvalidation_.invalidate();
       
       // first see if we can serve the request from the cache
-      for (int i=resultCache_.size() - 1; i >= 0; i--)
+      SearchResult res = findCachedResult(request.getQuery());
+      if (res != null)
       {
-         // get the previous result
-         SearchResult res = resultCache_.get(i);
-         
          // exact match of previous query
          if (request.getQuery() == res.getQuery())
          {
@@ -138,55 +79,49 @@ public class CodeSearchOracle extends SuggestOracle
             return;
          }
          
-         // if this query is a further refinement of a non-overflowed 
-         // previous query then satisfy it by filtering the previous results
-         if (!res.getMoreAvailable() && 
-             request.getQuery().startsWith(res.getQuery()))
+         // this query is a further refinement of a non-overflowed 
+         // previous query so satisfy it by filtering the previous results
+         Pattern pattern = null;
+         String query = request.getQuery();
+         String queryLower = query.toLowerCase();
+         
+         if (queryLower.indexOf('*') != -1)
+            pattern = patternForTerm(queryLower);
+         
+         ArrayList<CodeSearchSuggestion> suggestions =
+                                    new ArrayList<CodeSearchSuggestion>();
+         for (int s=0; s<res.getSuggestions().size(); s++)
          {
-            Pattern pattern = null;
-            String query = request.getQuery();
-            String queryLower = query.toLowerCase();
+            CodeSearchSuggestion sugg = res.getSuggestions().get(s);
             
-            if (queryLower.indexOf('*') != -1)
-               pattern = patternForTerm(queryLower);
-            
-            ArrayList<CodeSearchSuggestion> suggestions =
-                                       new ArrayList<CodeSearchSuggestion>();
-            for (int s=0; s<res.getSuggestions().size(); s++)
+            String name = sugg.getMatchedString().toLowerCase();
+            if (pattern != null)
             {
-               CodeSearchSuggestion sugg = res.getSuggestions().get(s);
+               Match match = pattern.match(name, 0);
+               if (match != null && match.getIndex() == 0)
+                  suggestions.add(sugg);
+            }
+            else
+            {
+               int colonIndex = query.indexOf(":");
+               if (colonIndex == -1)
+                  colonIndex = query.length();
                
-               String name = sugg.getMatchedString().toLowerCase();
-               if (pattern != null)
-               {
-                  Match match = pattern.match(name, 0);
-                  if (match != null && match.getIndex() == 0)
-                     suggestions.add(sugg);
-               }
-               else
-               {
-                  int colonIndex = query.indexOf(":");
-                  if (colonIndex == -1)
-                     colonIndex = query.length();
-                  
-                  if (StringUtil.isSubsequence(name, query.substring(0, colonIndex), true))
-                     suggestions.add(sugg);
-               }
+               if (StringUtil.isSubsequence(name, query.substring(0, colonIndex), true))
+                  suggestions.add(sugg);
             }
-            
-            // process and cache suggestions. note that this adds an item to
-            // the end of the resultCache_ (which we are currently iterating
-            // over) no biggie because we are about to return from the loop
-            suggestions = processSuggestions(request, suggestions, false);
-            
-            // sort suggestions
-            sortSuggestions(suggestions, query);
-            
-            // return suggestions
-            callback.onSuggestionsReady(request, new Response(suggestions));
-            
-            return;
-         } 
+         }
+         
+         // process and cache suggestions
+         suggestions = processSuggestions(request, suggestions, false);
+         
+         // sort suggestions
+         sortSuggestions(suggestions, query);
+         
+         // return suggestions
+         callback.onSuggestionsReady(request, new Response(suggestions));
+         
+         return;
       }
       
       // failed to short-circuit via the cache, hit the server
@@ -256,6 +191,22 @@ public class CodeSearchOracle extends SuggestOracle
       resultCache_.clear();
    }
    
+   /**
+    * Finds the cached result for the query itself or, failing that, for the
+    * longest prefix of the query whose results weren't truncated (and from
+    * which the query's results can therefore be derived locally).
+    */
+   private SearchResult findCachedResult(String query)
+   {
+      for (int n = query.length(); n >= 0; n--)
+      {
+         SearchResult res = resultCache_.get(query.substring(0, n));
+         if (res != null && (n == query.length() || !res.getMoreAvailable()))
+            return res;
+      }
+      return null;
+   }
+   
    @Override
    public boolean isDisplayStringHTML()
    {
@@ -371,9 +322,10 @@ public class CodeSearchOracle extends SuggestOracle
       // sort the suggestions -- we want suggestions for which
       // the query matches the start to come first
       int colonIndex = query.indexOf(":");
-      final String localQuery = colonIndex > 0 ?
+      String localQuery = colonIndex > 0 ?
             query.substring(0, colonIndex) :
             query;
+      final FuzzyMatcher matcher = new FuzzyMatcher(localQuery);
       
       java.util.Collections.sort(suggestions,
             new Comparator<CodeSearchSuggestion>() {
@@ -382,8 +334,10 @@ public class CodeSearchOracle extends SuggestOracle
          public int compare(CodeSearchSuggestion lhs,
                             CodeSearchSuggestion rhs)
          {
-            int lhsScore = scoreMatch(lhs, localQuery);
-            int rhsScore = scoreMatch(rhs, localQuery);
+            int lhsScore = matcher.score(lhs.getMatchedString(),
+                                         lhs.isFileTarget());
+            int rhsScore = matcher.score(rhs.getMatchedString(),
+                                         rhs.isFileTarget());
 
             if (lhsScore == rhsScore)
             {
@@ -426,12 +380,12 @@ public class CodeSearchOracle extends SuggestOracle
                                                     displayLabels.get(i));
       
       
-      // cache the suggestions (up to 15 active result sets cached)
-      // NOTE: the cache is cleared on gain focus, lost focus, and 
-      // the search term reverting back to empty)
-      if (resultCache_.size() > 15)
-         resultCache_.remove(0);
-      resultCache_.add(new SearchResult(request.getQuery(), 
+      // cache the suggestions (the least recently used result sets are
+      // evicted once the cache is full)
+      // NOTE: the cache is cleared on gain focus, lost focus, and when
+      // files are added, removed, or R files are changed
+      resultCache_.put(request.getQuery(),
+                       new SearchResult(request.getQuery(), 
                                         newSuggestions, 
                                         moreAvailable));
       
@@ -444,8 +398,20 @@ public class CodeSearchOracle extends SuggestOracle
    private final WorkbenchContext workbenchContext_;
    private final CodeSearchCommand codeSearch_ = new CodeSearchCommand();
    
-   private final ArrayList<SearchResult> resultCache_ = 
-                                             new ArrayList<SearchResult>();
+   private static final int MAX_CACHED_RESULTS = 50;
+   
+   // keyed by query, in access order
+   @SuppressWarnings("serial")
+   private final LinkedHashMap<String, SearchResult> resultCache_ = 
+         new LinkedHashMap<String, SearchResult>(16, 0.75f, true)
+         {
+            @Override
+            protected boolean removeEldestEntry(
+                  Map.Entry<String, SearchResult> eldest)
+            {
+               return size() > MAX_CACHED_RESULTS;
+            }
+         };
    
    private class SearchResult
    {
@@ -0,0 +1,198 @@
+/*
+ * FuzzyMatcher.java
+ *
+ * Copyright (C) 2009-17 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.codesearch;
+
+import java.util.List;
+
+import org.rstudio.core.client.StringUtil;
+
+/**
+ * Scores suggestions against a query for Go to File/Function and code
+ * completion; lower scores are better matches. The query is compiled once,
+ * so that scoring many suggestions (e.g. from within a sort comparator)
+ * doesn't allocate.
+ *
+ * NOTE: When modifying the scoring, you should ensure that the associated
+ * code on the server side is modified to include the same logic as well!
+ * (see: SessionCodeSearch.cpp)
+ */
+public class FuzzyMatcher
+{
+   public FuzzyMatcher(String query)
+   {
+      query_ = query;
+
+      int n = query.length();
+      queryLower_ = new char[n];
+      boolean isAscii = true;
+      for (int i = 0; i < n; i++)
+      {
+         char ch = query.charAt(i);
+         if (ch >= 128)
+            isAscii = false;
+         queryLower_[i] = toLowerAscii(ch);
+      }
+      isAsciiQuery_ = isAscii;
+   }
+
+   public String getQuery()
+   {
+      return query_;
+   }
+
+   public int score(String suggestion, boolean isFile)
+   {
+      // No penalty for identical results
+      if (suggestion.equals(query_))
+         return 0;
+
+      // Lowercasing outside of ASCII can change string lengths, so leave
+      // those to the (allocating) general implementation
+      int n = suggestion.length();
+      if (!isAsciiQuery_)
+         return scoreGeneral(suggestion, query_, isFile);
+      for (int i = 0; i < n; i++)
+         if (suggestion.charAt(i) >= 128)
+            return scoreGeneral(suggestion, query_, isFile);
+
+      // More penalty for 'uninteresting' files and extensions (e.g. .Rd);
+      // these are applied for each matched character
+      int extraPenalty = 0;
+      if (suggestion.equals("RcppExports.R") ||
+          suggestion.equals("RcppExports.cpp"))
+         extraPenalty += 6;
+      int lastDot = suggestion.lastIndexOf('.');
+      if (lastDot != -1 && lastDot == n - 3 &&
+          toLowerAscii(suggestion.charAt(n - 2)) == 'r' &&
+          toLowerAscii(suggestion.charAt(n - 1)) == 'd')
+         extraPenalty += 6;
+
+      int totalPenalty = 0;
+      int matches = 0;
+      int prevMatchPos = -1;
+      for (int i = 0; i < queryLower_.length; i++)
+      {
+         // Find the next (ordered) match of this query character
+         char queryChar = queryLower_[i];
+         int matchPos = -1;
+         for (int j = prevMatchPos + 1; j < n; j++)
+         {
+            if (toLowerAscii(suggestion.charAt(j)) == queryChar)
+            {
+               matchPos = j;
+               break;
+            }
+         }
+         if (matchPos == -1)
+            continue;
+
+         // The initial penalty is equal to the match position
+         int penalty = matchPos;
+
+         // Less penalty if character follows special delim
+         if (matchPos >= 1)
+         {
+            char prevChar = toLowerAscii(suggestion.charAt(matchPos - 1));
+            if (prevChar == '_' || prevChar == '-' ||
+                  (!isFile && prevChar == '.'))
+            {
+               penalty = matches + 1;
+            }
+         }
+
+         // Less penalty for case-sensitive matches
+         if (suggestion.charAt(matchPos) == query_.charAt(matches))
+            penalty--;
+
+         totalPenalty += penalty + extraPenalty;
+         matches++;
+         prevMatchPos = matchPos;
+      }
+
+      // Penalize file targets
+      if (isFile)
+         totalPenalty++;
+
+      // Penalize unmatched characters
+      totalPenalty += (query_.length() - matches) * query_.length();
+
+      return totalPenalty;
+   }
+
+   private static int scoreGeneral(String suggestion, String query, boolean isFile)
+   {
+      String suggestionLower = suggestion.toLowerCase();
+      String queryLower = query.toLowerCase();
+
+      int totalPenalty = 0;
+
+      // Get query matches in string (ordered)
+      List<Integer> matches = StringUtil.subsequenceIndices(suggestionLower, queryLower);
+
+      // Loop over the matches and assign a score
+      for (int j = 0, n = matches.size(); j < n; j++)
+      {
+         int matchPos = matches.get(j);
+
+         // The initial penalty is equal to the match position
+         int penalty = matchPos;
+
+         // Less penalty if character follows special delim
+         if (matchPos >= 1)
+         {
+            char prevChar = suggestionLower.charAt(matchPos - 1);
+            if (prevChar == '_' || prevChar == '-' ||
+                  (!isFile && prevChar == '.'))
+            {
+               penalty = j + 1;
+            }
+         }
+
+         // Less penalty for case-sensitive matches
+         if (suggestion.charAt(matchPos) == query.charAt(j))
+            penalty--;
+
+         // More penalty for 'uninteresting' files
+         if (suggestion.equals("RcppExports.R") ||
+             suggestion.equals("RcppExports.cpp"))
+            penalty += 6;
+
+         // More penalty for 'uninteresting' extensions (e.g. .Rd)
+         String extension = StringUtil.getExtension(suggestionLower);
+         if (extension.toLowerCase().equals("rd"))
+            penalty += 6;
+
+         totalPenalty += penalty;
+      }
+
+      // Penalize file targets
+      if (isFile)
+         totalPenalty++;
+
+      // Penalize unmatched characters
+      totalPenalty += (query.length() - matches.size()) * query.length();
+
+      return totalPenalty;
+   }
+
+   private static char toLowerAscii(char ch)
+   {
+      return ch >= 'A' && ch <= 'Z' ? (char) (ch + ('a' - 'A')) : ch;
+   }
+
+   private final String query_;
+   private final char[] queryLower_;
+   private final boolean isAsciiQuery_;
+}
@@ -297,6 +297,10 @@ public class UIPrefs extends UIPrefsAccessor implements UiPrefsChangedHandler
          truncateLongLinesInConsoleHistory().setGlobalValue(
                              newUiPrefs.truncateLongLinesInConsoleHistory().getGlobalValue());
          
+         // render only visible console output
+         virtualizeConsoleOutput().setGlobalValue(
+               newUiPrefs.virtualizeConsoleOutput().getGlobalValue());
+         
          // console handling of ANSI escape codes
          consoleAnsiMode().setGlobalValue(
                newUiPrefs.consoleAnsiMode().getGlobalValue());
@@ -436,6 +440,10 @@ public class UIPrefs extends UIPrefsAccessor implements UiPrefsChangedHandler
          ignoreWordsWithNumbers().setGlobalValue(
                     newUiPrefs.ignoreWordsWithNumbers().getGlobalValue());
          
+         // check spelling as you type
+         realtimeSpellChecking().setGlobalValue(
+                    newUiPrefs.realtimeSpellChecking().getGlobalValue());
+         
          // navigate to build error
          navigateToBuildError().setGlobalValue(
                     newUiPrefs.navigateToBuildError().getGlobalValue());
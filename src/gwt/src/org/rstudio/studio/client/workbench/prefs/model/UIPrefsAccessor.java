@@ -310,6 +310,11 @@ public class UIPrefsAccessor extends Prefs
       return integer("truncate_long_lines_in_console", 1000);
    }
    
+   public PrefValue<Boolean> virtualizeConsoleOutput()
+   {
+      return bool("virtualize_console_output", false);
+   }
+   
    public PrefValue<Integer> consoleAnsiMode()
    {
       return integer("ansi_console_mode", VirtualConsole.ANSI_COLOR_ON);
@@ -480,6 +485,11 @@ public class UIPrefsAccessor extends Prefs
       return bool("ignore_words_with_numbers", true);
    }  
    
+   public PrefValue<Boolean> realtimeSpellChecking()
+   {
+      return bool("realtime_spellchecking", false);
+   }
+   
    public PrefValue<Boolean> navigateToBuildError()
    {
       return bool("navigate_to_build_error", true);
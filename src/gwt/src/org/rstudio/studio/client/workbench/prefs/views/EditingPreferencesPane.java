@@ -235,6 +235,9 @@ public class EditingPreferencesPane extends PreferencesPane
             true,
             false);
       displayPanel.add(consoleColorMode_);
+      displayPanel.add(checkboxPref(
+            "Render only visible console output (requires restart)",
+            prefs_.virtualizeConsoleOutput()));
       
       VerticalPanel savePanel = new VerticalPanel();
       
@@ -31,11 +31,10 @@ import org.rstudio.studio.client.RStudioGinjector;
 import org.rstudio.studio.client.common.codetools.CodeToolsServerOperations;
 import org.rstudio.studio.client.common.codetools.Completions;
 import org.rstudio.studio.client.common.codetools.RCompletionType;
-import org.rstudio.studio.client.common.filetypes.FileTypeRegistry;
 import org.rstudio.studio.client.common.icons.code.CodeIcons;
 import org.rstudio.studio.client.server.ServerError;
 import org.rstudio.studio.client.server.ServerRequestCallback;
-import org.rstudio.studio.client.workbench.codesearch.CodeSearchOracle;
+import org.rstudio.studio.client.workbench.codesearch.FuzzyMatcher;
 import org.rstudio.studio.client.workbench.prefs.model.UIPrefs;
 import org.rstudio.studio.client.workbench.snippets.SnippetHelper;
 import org.rstudio.studio.client.workbench.views.console.shell.assist.RCompletionManager.AutocompletionContext;
@@ -125,6 +124,24 @@ public class CompletionRequester
          // otherwise, produce a new completion list
          if (diff.length() > 0 && !diff.endsWith("::"))
          {
+            // narrow from the longest cached prefix of the diff, whose
+            // completions are a superset of the ones we're looking for
+            // (unless a '/' has been typed since, as files are narrowed by
+            // the part of the token after the last '/')
+            for (int i = diff.length() - 1; i > 0; i--)
+            {
+               if (diff.charAt(i) == '/')
+                  break;
+               
+               CompletionResult prefixResult =
+                     cachedCompletions_.get(diff.substring(0, i));
+               if (prefixResult != null)
+               {
+                  cachedResult = prefixResult;
+                  break;
+               }
+            }
+            
             callback.onResponseReceived(narrow(token, diff, cachedResult)) ;
             return true;
          }
@@ -134,12 +151,12 @@ public class CompletionRequester
       
    }
    
-   private String basename(String absolutePath)
+   private static String basename(String absolutePath)
    {
       return absolutePath.substring(absolutePath.lastIndexOf('/') + 1);
    }
    
-   private boolean filterStartsWithDot(String item,
+   private static boolean filterStartsWithDot(String item,
                                        String token)
    {
       return !(!token.startsWith(".") && item.startsWith("."));
@@ -153,9 +170,21 @@ public class CompletionRequester
                                    final String diff,
                                    CompletionResult cachedResult)
    {
-      ArrayList<QualifiedName> newCompletions = new ArrayList<QualifiedName>();
-      newCompletions.ensureCapacity(cachedResult.completions.size());
+      CompletionResult result = new CompletionResult(
+            token,
+            narrowCompletions(token, cachedResult.completions),
+            cachedResult.guessedFunctionName,
+            cachedResult.suggestOnAccept,
+            cachedResult.dontInsertParens) ;
       
+      cachedCompletions_.put(diff, result);
+      return result;
+   }
+   
+   static ArrayList<QualifiedName> narrowCompletions(
+         String token,
+         ArrayList<QualifiedName> completions)
+   {
       // For completions that are files or directories, we need to post-process
       // the token and the qualified name to strip out just the basename (filename).
       // Note that we normalize the paths such that files will have no trailing slash,
@@ -163,58 +192,66 @@ public class CompletionRequester
       // trailing slashes)
       
       // Transform the token once beforehand for completions.
-      final String tokenSub   = token.substring(token.lastIndexOf('/') + 1);
-      final String tokenFuzzy = fuzzy(tokenSub);
+      String tokenSub   = token.substring(token.lastIndexOf('/') + 1);
+      String tokenFuzzy = fuzzy(tokenSub).toLowerCase();
+      FuzzyMatcher fileMatcher = new FuzzyMatcher(tokenSub);
+      FuzzyMatcher matcher = new FuzzyMatcher(token);
       
-      for (QualifiedName qname : cachedResult.completions)
+      // Score each matching completion once, up front, rather than on each
+      // comparison made while sorting
+      ArrayList<ScoredName> scored = new ArrayList<ScoredName>();
+      for (QualifiedName qname : completions)
       {
          // File types are narrowed only by the file name
          if (RCompletionType.isFileType(qname.type))
          {
-            if (StringUtil.isSubsequence(basename(qname.name), tokenFuzzy, true))
-               newCompletions.add(qname);
+            String basename = basename(qname.name);
+            if (StringUtil.isSubsequence(basename.toLowerCase(), tokenFuzzy))
+            {
+               scored.add(new ScoredName(qname,
+                     fileMatcher.score(basename, true)));
+            }
          }
          else
          {
-            if (StringUtil.isSubsequence(qname.name, tokenFuzzy, true) &&
+            if (StringUtil.isSubsequence(qname.name.toLowerCase(), tokenFuzzy) &&
                 filterStartsWithDot(qname.name, token))
-               newCompletions.add(qname) ;
+            {
+               scored.add(new ScoredName(qname,
+                     matcher.score(qname.name, false)));
+            }
          }
       }
       
-      java.util.Collections.sort(newCompletions, new Comparator<QualifiedName>() {
+      Collections.sort(scored);
+      
+      ArrayList<QualifiedName> newCompletions =
+            new ArrayList<QualifiedName>(scored.size());
+      for (ScoredName name : scored)
+         newCompletions.add(name.qname);
+      return newCompletions;
+   }
+   
+   private static class ScoredName implements Comparable<ScoredName>
+   {
+      public ScoredName(QualifiedName qname, int score)
+      {
+         this.qname = qname;
          
-         @Override
-         public int compare(QualifiedName lhs, QualifiedName rhs)
-         {
-            int lhsScore = RCompletionType.isFileType(lhs.type)
-                  ? CodeSearchOracle.scoreMatch(basename(lhs.name), tokenSub, true)
-                  : CodeSearchOracle.scoreMatch(lhs.name, token, false);
-            
-            int rhsScore = RCompletionType.isFileType(rhs.type)
-               ? CodeSearchOracle.scoreMatch(basename(rhs.name), tokenSub, true)
-               : CodeSearchOracle.scoreMatch(rhs.name, token, false);
-            
-            // Place arguments higher (give less penalty)
-            if (lhs.type == RCompletionType.ARGUMENT) lhsScore -= 3;
-            if (rhs.type == RCompletionType.ARGUMENT) rhsScore -= 3;
-            
-            if (lhsScore == rhsScore)
-               return lhs.compareTo(rhs);
-            
-            return lhsScore < rhsScore ? -1 : 1;
-         }
-      });
+         // Place arguments higher (give less penalty)
+         this.score = qname.type == RCompletionType.ARGUMENT ? score - 3 : score;
+      }
       
-      CompletionResult result = new CompletionResult(
-            token,
-            newCompletions,
-            cachedResult.guessedFunctionName,
-            cachedResult.suggestOnAccept,
-            cachedResult.dontInsertParens) ;
+      public int compareTo(ScoredName other)
+      {
+         if (score == other.score)
+            return qname.compareTo(other.qname);
+         
+         return score < other.score ? -1 : 1;
+      }
       
-      cachedCompletions_.put(diff, result);
-      return result;
+      public final QualifiedName qname;
+      public final int score;
    }
    
    public void getDplyrJoinCompletionsString(
@@ -930,7 +967,8 @@ public class CompletionRequester
       
       private ImageResource getIconForFilename(String name)
       {
-         return FILE_TYPE_REGISTRY.getIconForFilename(name);
+         return RStudioGinjector.INSTANCE.getFileTypeRegistry()
+               .getIconForFilename(name);
       }
 
       public static QualifiedName parseFromText(String val)
@@ -989,8 +1027,6 @@ public class CompletionRequester
       public final boolean shouldQuote ;
       public final int type ;
       public final String helpHandler;
-      private static final FileTypeRegistry FILE_TYPE_REGISTRY =
-            RStudioGinjector.INSTANCE.getFileTypeRegistry();
    }
    
    private static final CompletionRequesterResources RES =
@@ -210,7 +210,7 @@ public class EnvironmentPane extends WorkbenchPane
    @Override
    public void addObject(RObject object)
    {
-      objects_.addObject(object);
+      objects_.queueAddObject(object);
    }
 
    @Override
@@ -222,7 +222,7 @@ public class EnvironmentPane extends WorkbenchPane
    @Override
    public void removeObject(String objectName)
    {
-      objects_.removeObject(objectName);
+      objects_.queueRemoveObject(objectName);
    }
    
    @Override
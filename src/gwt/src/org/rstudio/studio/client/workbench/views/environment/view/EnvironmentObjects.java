@@ -17,8 +17,13 @@ package org.rstudio.studio.client.workbench.views.environment.view;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+import com.google.gwt.animation.client.AnimationScheduler;
+import com.google.gwt.animation.client.AnimationScheduler.AnimationCallback;
 import com.google.gwt.core.client.GWT;
 import com.google.gwt.core.client.JsArray;
 import com.google.gwt.core.client.JsArrayString;
@@ -106,6 +111,7 @@ public class EnvironmentObjects extends ResizeComposite
 
    public void addObject(RObject obj)
    {
+      List<RObjectEntry> objects = objectDataProvider_.getList();
       int idx = indexOfExistingObject(obj.getName());
       final RObjectEntry newEntry = entryFromRObject(obj);
       boolean added = false;
@@ -113,11 +119,21 @@ public class EnvironmentObjects extends ResizeComposite
       // if the object is already in the environment, just update the value
       if (idx >= 0)
       {
-         final RObjectEntry oldEntry = objectDataProvider_.getList().get(idx);
+         final RObjectEntry oldEntry = objects.get(idx);
 
          if (oldEntry.rObject.getType() == obj.getType())
          {
-            // type hasn't changed
+            // type hasn't changed; replace the entry, moving it if its new
+            // value sorts differently (e.g. when sorting by size)
+            objects.set(idx, newEntry);
+            if (!isInSortOrder(idx))
+            {
+               objects.remove(idx);
+               updateCategoryLeaders(idx);
+               idx = indexOfNewObject(newEntry);
+               objects.add(idx, newEntry);
+            }
+
             if (oldEntry.expanded && 
                 newEntry.contentsAreDeferred)
             {
@@ -132,23 +148,23 @@ public class EnvironmentObjects extends ResizeComposite
                // contents aren't deferred, just use the expanded state directly
                newEntry.expanded = oldEntry.expanded;
             }
-            objectDataProvider_.getList().set(idx, newEntry);
             added = true;
          }
          else
          {
             // types did change, do a full add/remove
-            objectDataProvider_.getList().remove(idx);
+            objects.remove(idx);
+            updateCategoryLeaders(idx);
          }
          
       }
       if (!added)
       {
-         RObjectEntry entry = entryFromRObject(obj);
-         idx = indexOfNewObject(entry);
-         objectDataProvider_.getList().add(idx, entry);
+         idx = indexOfNewObject(newEntry);
+         objects.add(idx, newEntry);
       }
-      updateCategoryLeaders(true);
+      objectsByName_.put(obj.getName(), newEntry);
+      updateCategoryLeaders(idx);
       objectDisplay_.getRowElement(idx).scrollIntoView();
    }
 
@@ -158,14 +174,38 @@ public class EnvironmentObjects extends ResizeComposite
       if (idx >= 0)
       {
          objectDataProvider_.getList().remove(idx);
+         objectsByName_.remove(objName);
+         updateCategoryLeaders(idx);
       }
-
-      updateCategoryLeaders(true);
    }
    
+   // queues an assignment to be applied along with any other changes that
+   // arrive before the next frame (e.g. while source()-ing a script)
+   public void queueAddObject(RObject obj)
+   {
+      queueObjectChange(obj.getName(), obj);
+   }
+
+   public void queueRemoveObject(String objName)
+   {
+      queueObjectChange(objName, null);
+   }
+
+   // the number of queued changes which didn't need their own update of the
+   // object list, for diagnostics
+   public int getCoalescedEventCount()
+   {
+      return coalescedEventCount_;
+   }
+
    public void clearObjects()
    {
       objectDataProvider_.getList().clear();
+      objectsByName_.clear();
+
+      // anything queued was for the objects we just cleared
+      pendingChanges_.clear();
+      pendingEventCount_ = 0;
    }
    
    public void clearSelection()
@@ -183,6 +223,7 @@ public class EnvironmentObjects extends ResizeComposite
       {
          RObjectEntry entry = entryFromRObject(objects.get(i));
          objectEntryList.add(entry);
+         objectsByName_.put(entry.rObject.getName(), entry);
       }
       Collections.sort(objectEntryList, objectSort_);
 
@@ -507,41 +548,237 @@ public class EnvironmentObjects extends ResizeComposite
    // Private methods: object management --------------------------------------
 
    private int indexOfExistingObject(String objectName)
+   {
+      RObjectEntry entry = objectsByName_.get(objectName);
+      if (entry == null)
+         return -1;
+
+      // the list is kept in sort order, so binary search for the first
+      // entry that sorts alongside this one, then look for the entry itself
+      // among those that compare equal (e.g. objects of the same size)
+      List<RObjectEntry> objects = objectDataProvider_.getList();
+      int lo = 0;
+      int hi = objects.size();
+      while (lo < hi)
+      {
+         int mid = (lo + hi) >>> 1;
+         if (objectSort_.compare(objects.get(mid), entry) < 0)
+            lo = mid + 1;
+         else
+            hi = mid;
+      }
+      for (int idx = lo; idx < objects.size(); idx++)
+      {
+         if (objects.get(idx) == entry)
+            return idx;
+         if (objectSort_.compare(objects.get(idx), entry) != 0)
+            break;
+      }
+
+      // shouldn't happen, but fall back on a scan if the list is out of order
+      Debug.logWarning("Environment object '" + objectName + "' out of order");
+      return objects.indexOf(entry);
+   }
+
+   // returns the position a new object entry should occupy in the table (after
+   // any entries it compares equal to)
+   private int indexOfNewObject(RObjectEntry obj)
    {
       List<RObjectEntry> objects = objectDataProvider_.getList();
+      int lo = 0;
+      int hi = objects.size();
+      while (lo < hi)
+      {
+         int mid = (lo + hi) >>> 1;
+         if (objectSort_.compare(obj, objects.get(mid)) < 0)
+            hi = mid;
+         else
+            lo = mid + 1;
+      }
+      return lo;
+   }
+
+   private void queueObjectChange(String objName, RObject obj)
+   {
+      // a later change to the same object supersedes an earlier one (and
+      // moves it to the end, so we scroll to the last object assigned)
+      pendingChanges_.remove(objName);
+      pendingChanges_.put(objName, obj);
+      pendingEventCount_++;
 
-      // find the position of the object in the list--we can't use binary
-      // search here since we're matching on names and the list isn't sorted
-      // by name (it's sorted by type, then name)
-      int index;
-      boolean foundObject = false;
-      for (index = 0; index < objects.size(); index++)
+      if (changesScheduled_)
+         return;
+
+      changesScheduled_ = true;
+      AnimationScheduler.get().requestAnimationFrame(new AnimationCallback()
       {
-         if (objects.get(index).rObject.getName() == objectName)
+         @Override
+         public void execute(double timestamp)
          {
-            foundObject = true;
-            break;
+            changesScheduled_ = false;
+            applyPendingChanges();
          }
+      });
+   }
+
+   private void applyPendingChanges()
+   {
+      if (pendingChanges_.isEmpty())
+         return;
+
+      LinkedHashMap<String, RObject> changes = pendingChanges_;
+      pendingChanges_ = new LinkedHashMap<String, RObject>();
+      coalescedEventCount_ += pendingEventCount_ - 1;
+      pendingEventCount_ = 0;
+
+      if (changes.size() == 1)
+      {
+         Map.Entry<String, RObject> change = changes.entrySet().iterator().next();
+         if (change.getValue() == null)
+            removeObject(change.getKey());
+         else
+            addObject(change.getValue());
+         return;
       }
 
-      return foundObject ? index : -1;
+      mergeObjectChanges(changes);
    }
 
-   // returns the position a new object entry should occupy in the table
-   private int indexOfNewObject(RObjectEntry obj)
+   // applies a batch of assignments and removals (null objects) to the list
+   // as a single sorted merge, so the list is redrawn once
+   private void mergeObjectChanges(LinkedHashMap<String, RObject> changes)
+   {
+      List<RObjectEntry> objects = objectDataProvider_.getList();
+
+      // the entries the batch doesn't touch, still in sorted order
+      ArrayList<RObjectEntry> kept = new ArrayList<RObjectEntry>(objects.size());
+      HashMap<String, RObjectEntry> oldEntries = new HashMap<String, RObjectEntry>();
+      for (RObjectEntry entry : objects)
+      {
+         String name = entry.rObject.getName();
+         if (changes.containsKey(name))
+            oldEntries.put(name, entry);
+         else
+            kept.add(entry);
+      }
+
+      ArrayList<RObjectEntry> added = new ArrayList<RObjectEntry>();
+      ArrayList<RObjectEntry> needContents = new ArrayList<RObjectEntry>();
+      RObjectEntry lastAdded = null;
+      for (Map.Entry<String, RObject> change : changes.entrySet())
+      {
+         String name = change.getKey();
+         RObject obj = change.getValue();
+         if (obj == null)
+         {
+            objectsByName_.remove(name);
+            continue;
+         }
+
+         // carry over the expanded state as addObject does
+         RObjectEntry newEntry = entryFromRObject(obj);
+         RObjectEntry oldEntry = oldEntries.get(name);
+         if (oldEntry != null && oldEntry.rObject.getType() == obj.getType())
+         {
+            if (oldEntry.expanded && newEntry.contentsAreDeferred)
+               needContents.add(newEntry);
+            else
+               newEntry.expanded = oldEntry.expanded;
+         }
+
+         added.add(newEntry);
+         objectsByName_.put(name, newEntry);
+         lastAdded = newEntry;
+      }
+      Collections.sort(added, objectSort_);
+
+      // new entries go after any existing entries they compare equal to
+      ArrayList<RObjectEntry> merged =
+            new ArrayList<RObjectEntry>(kept.size() + added.size());
+      int i = 0, j = 0;
+      while (i < kept.size() || j < added.size())
+      {
+         if (j == added.size() ||
+             (i < kept.size() &&
+              objectSort_.compare(added.get(j), kept.get(i)) >= 0))
+         {
+            merged.add(kept.get(i++));
+         }
+         else
+         {
+            merged.add(added.get(j++));
+         }
+      }
+
+      objects.clear();
+      objects.addAll(merged);
+      updateCategoryLeaders(false);
+      objectDataProvider_.flush();
+
+      for (RObjectEntry entry : needContents)
+         fillEntryContents(entry, indexOfExistingObject(entry.rObject.getName()), false);
+
+      if (lastAdded != null)
+      {
+         int idx = indexOfExistingObject(lastAdded.rObject.getName());
+         if (idx >= 0 && idx < MAX_ENVIRONMENT_OBJECTS)
+            objectDisplay_.getRowElement(idx).scrollIntoView();
+      }
+   }
+
+   // whether the entry at the given index sorts between its neighbors
+   private boolean isInSortOrder(int idx)
    {
       List<RObjectEntry> objects = objectDataProvider_.getList();
-      int numObjects = objects.size();
-      int idx;
-      // consider: can we use binary search here?
-      for (idx = 0; idx < numObjects; idx++)
+      RObjectEntry entry = objects.get(idx);
+      return (idx == 0 ||
+              objectSort_.compare(objects.get(idx - 1), entry) <= 0) &&
+             (idx == objects.size() - 1 ||
+              objectSort_.compare(entry, objects.get(idx + 1)) <= 0);
+   }
+
+   // after an object is added at or removed from the given index, update the
+   // category-leading tags of the rows there. An entry leads its category
+   // (and is the first object) based only on the nearest visible entry above
+   // it, so only the first two visible entries from the index can change.
+   private void updateCategoryLeaders(int idx)
+   {
+      if (objectDisplayType_ != OBJECT_LIST_VIEW)
+         return;
+
+      List<RObjectEntry> objects = objectDataProvider_.getList();
+
+      RObjectEntry prev = null;
+      for (int i = Math.min(idx, objects.size()) - 1; i >= 0; i--)
       {
-         if (objectSort_.compare(obj, objects.get(idx)) < 0)
+         if (objects.get(i).visible)
          {
+            prev = objects.get(i);
             break;
          }
       }
-      return idx;
+
+      int updated = 0;
+      for (int i = idx; i < objects.size() && updated < 2; i++)
+      {
+         RObjectEntry entry = objects.get(i);
+         if (!entry.visible)
+            continue;
+
+         boolean leader = prev == null ||
+                          prev.getCategory() != entry.getCategory();
+         boolean first = prev == null;
+         if (leader != entry.isCategoryLeader ||
+             first != entry.isFirstObject)
+         {
+            entry.isCategoryLeader = leader;
+            entry.isFirstObject = first;
+            redrawRowSafely(i);
+         }
+
+         prev = entry;
+         updated++;
+      }
    }
 
    // after adds or removes, we need to tag the new category-leading objects
@@ -718,6 +955,16 @@ public class EnvironmentObjects extends ResizeComposite
    Label environmentEmptyMessage_;
 
    private ListDataProvider<RObjectEntry> objectDataProvider_;
+   private final HashMap<String, RObjectEntry> objectsByName_ =
+         new HashMap<String, RObjectEntry>();
+
+   // changes queued for the next frame, keyed by object name (null objects
+   // are removals)
+   private LinkedHashMap<String, RObject> pendingChanges_ =
+         new LinkedHashMap<String, RObject>();
+   private int pendingEventCount_ = 0;
+   private boolean changesScheduled_ = false;
+   private int coalescedEventCount_ = 0;
    private RObjectEntrySort objectSort_;
 
    private EnvironmentObjectsObserver observer_;
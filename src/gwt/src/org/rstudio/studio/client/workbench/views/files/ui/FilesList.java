@@ -15,7 +15,10 @@
 package org.rstudio.studio.client.workbench.views.files.ui;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Set;
 
@@ -23,6 +26,7 @@ import org.rstudio.core.client.Debug;
 import org.rstudio.core.client.StringUtil;
 import org.rstudio.core.client.cellview.ColumnSortInfo;
 import org.rstudio.core.client.cellview.LinkColumn;
+import org.rstudio.core.client.cellview.ScrollingDataGrid;
 import org.rstudio.core.client.files.FileSystemItem;
 import org.rstudio.core.client.resources.ImageResource2x;
 import org.rstudio.core.client.widget.OperationWithInput;
@@ -39,12 +43,13 @@ import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.core.client.Scheduler.ScheduledCommand;
 import com.google.gwt.dom.client.Style.Unit;
 import com.google.gwt.dom.client.Style.WhiteSpace;
+import com.google.gwt.event.dom.client.ScrollEvent;
+import com.google.gwt.event.dom.client.ScrollHandler;
 import com.google.gwt.event.logical.shared.ResizeEvent;
 import com.google.gwt.event.logical.shared.ResizeHandler;
 import com.google.gwt.resources.client.ImageResource;
 import com.google.gwt.safehtml.shared.SafeHtmlBuilder;
 import com.google.gwt.safehtml.shared.SafeHtmlUtils;
-import com.google.gwt.user.cellview.client.DataGrid;
 import com.google.gwt.user.cellview.client.Column;
 import com.google.gwt.user.cellview.client.ColumnSortEvent;
 import com.google.gwt.user.cellview.client.ColumnSortList;
@@ -53,6 +58,7 @@ import com.google.gwt.user.cellview.client.ColumnSortEvent.Handler;
 import com.google.gwt.user.client.ui.Composite;
 import com.google.gwt.user.client.ui.HasVerticalAlignment;
 import com.google.gwt.user.client.ui.ResizeLayoutPanel;
+import com.google.gwt.user.client.ui.ScrollPanel;
 import com.google.gwt.view.client.DefaultSelectionEventManager;
 import com.google.gwt.view.client.ListDataProvider;
 import com.google.gwt.view.client.MultiSelectionModel;
@@ -71,7 +77,7 @@ public class FilesList extends Composite
                                                       dataProvider_.getList());
       
       // create cell table
-      filesDataGrid_ = new DataGrid<FileSystemItem>(
+      filesDataGrid_ = new ScrollingDataGrid<FileSystemItem>(
                                           15,
                                           FilesListDataGridResources.INSTANCE,
                                           KEY_PROVIDER);
@@ -86,6 +92,24 @@ public class FilesList extends Composite
       // hook-up data provider 
       dataProvider_.addDataDisplay(filesDataGrid_);
       
+      // render more rows of large directories as they're scrolled into view
+      filesDataGrid_.getScrollPanel().addScrollHandler(new ScrollHandler()
+      {
+         @Override
+         public void onScroll(ScrollEvent event)
+         {
+            ScrollPanel scrollPanel = filesDataGrid_.getScrollPanel();
+            if (renderedRowLimit_ < getFiles().size() + 1 &&
+                scrollPanel.getVerticalScrollPosition() >= 
+                scrollPanel.getMaximumVerticalScrollPosition() - 
+                   RENDER_MORE_THRESHOLD_PIXELS)
+            {
+               renderedRowLimit_ += RENDERED_ROW_PAGE_SIZE;
+               updatePageSize();
+            }
+         }
+      });
+      
       // add columns
       addSelectionColumn();
       addIconColumn(fileTypeRegistry);
@@ -330,6 +354,7 @@ public class FilesList extends Composite
             
             // delegate the sort
             sortHandler_.onColumnSort(event);
+            rowsByKeyValid_ = false;
          }
          
          private native final JsArray<ColumnSortInfo> newSortOrderArray()
@@ -364,16 +389,17 @@ public class FilesList extends Composite
       // clear the selection
       selectNone();
       
+      // changes queued against the previous listing are superseded
+      pendingChanges_.clear();
+      
       // set containing path
       containingPath_ = containingPath;
       parentPath_ = containingPath_.getParentPath();
       
-      // set page size (+1 for parent path)
-      filesDataGrid_.setPageSize(files.length() + 1);
-      
       // get underlying list
       List<FileSystemItem> fileList = dataProvider_.getList();
       fileList.clear();
+      rowsByKeyValid_ = false;
             
       // add entry for parent path if we have one
       if (parentPath_ != null)
@@ -382,6 +408,10 @@ public class FilesList extends Composite
       // add files to table
       for (int i=0; i<files.length(); i++)
          fileList.add(files.get(i));
+      
+      // set page size
+      renderedRowLimit_ = RENDERED_ROW_PAGE_SIZE;
+      updatePageSize();
            
       // apply sort list
       applyColumnSortList();
@@ -415,78 +445,188 @@ public class FilesList extends Composite
    }
    
    public void updateWithAction(FileChange viewAction)
-   {        
-      final FileSystemItem file = viewAction.getFile();
-      final List<FileSystemItem> files = getFiles();
-      switch(viewAction.getType())
+   {
+      int type = viewAction.getType();
+      if (type != FileChange.ADD &&
+          type != FileChange.MODIFIED &&
+          type != FileChange.DELETE)
+      {
+         Debug.log("Unexpected file change type: " + type);
+         return;
+      }
+      
+      // changes tend to arrive in bursts (e.g. a checkout or an unzip can
+      // touch thousands of files), so queue them up and apply everything 
+      // received in this event loop at once. only the last change to each 
+      // file matters, except that a file added and then modified is still 
+      // an addition
+      String key = keyForFile(viewAction.getFile());
+      FileChange previous = pendingChanges_.get(key);
+      if (previous != null && 
+          previous.getType() == FileChange.ADD &&
+          type == FileChange.MODIFIED)
       {
-      case FileChange.ADD:
-         if (file.getParentPath().equalTo(containingPath_))
+         viewAction = FileChange.createAdd(viewAction.getFile());
+      }
+      pendingChanges_.put(key, viewAction);
+      
+      if (!changesScheduled_)
+      {
+         changesScheduled_ = true;
+         Scheduler.get().scheduleDeferred(new ScheduledCommand()
          {
-            int row = rowForFile(file);
-            if (row == -1)
+            @Override
+            public void execute()
             {
-               files.add(file);
-               filesDataGrid_.setPageSize(files.size() + 1);
+               changesScheduled_ = false;
+               applyPendingChanges();
             }
-            else
+         });
+      }
+   }
+   
+   public void renameFile(FileSystemItem from, FileSystemItem to)
+   {
+      int index = rowForFile(from);
+      if (index != -1 && getFiles().get(index) == from)
+      {
+         selectNone();
+         getFiles().set(index, to);
+         rowsByKey_.remove(keyForFile(from));
+         rowsByKey_.put(keyForFile(to), index);
+      }
+   }
+   
+   private void applyPendingChanges()
+   {
+      if (pendingChanges_.isEmpty())
+         return;
+      
+      final List<FileSystemItem> files = getFiles();
+      ArrayList<FileSystemItem> added = new ArrayList<FileSystemItem>();
+      boolean[] deleted = null;
+      
+      for (FileChange change : pendingChanges_.values())
+      {
+         FileSystemItem file = change.getFile();
+         int row = rowForFile(file);
+         switch(change.getType())
+         {
+         case FileChange.ADD:
+            if (file.getParentPath().equalTo(containingPath_))
             {
-               // since we eagerly perform renames at the client UI
-               // layer then sometimes an "added" file is really just
-               // a rename. in this case the file already exists due
-               // to the eager rename in the client but still needs its
-               // metadata updated
-               files.set(row, file);
+               if (row == -1)
+               {
+                  added.add(file);
+               }
+               else
+               {
+                  // since we eagerly perform renames at the client UI
+                  // layer then sometimes an "added" file is really just
+                  // a rename. in this case the file already exists due
+                  // to the eager rename in the client but still needs its
+                  // metadata updated
+                  files.set(row, file);
+               }
             }
-         }
-         break;
-         
-      case FileChange.MODIFIED:
-         {
-            int row = rowForFile(file);
+            break;
+            
+         case FileChange.MODIFIED:
             if (row != -1)
             {
-               // the selection model loses the selection state when we update
-               // the row, so save and restore it manually.
+               // the selection model loses the selection state when we 
+               // update the row, so save and restore it manually.
                boolean selected = selectionModel_.isSelected(file);
                files.set(row, file);
                selectionModel_.setSelected(file, selected);
             }
-         }
-         break;
- 
-      case FileChange.DELETE:
-         {
-            int row = rowForFile(file);
+            break;
+    
+         case FileChange.DELETE:
             if (row != -1)
             {
-               files.remove(row);
-               
-               // if a file is deleted and then re-added within the same
-               // event loop (as occurs when gedit saves a text file) the
-               // table doesn't always update correctly (it has a duplicate
-               // of the item deleted / re-added). the call to flush overcomes
-               // this issue
-               dataProvider_.flush();
+               if (deleted == null)
+                  deleted = new boolean[files.size()];
+               deleted[row] = true;
             }
+            break;
          }
-         break;
+      }
+      pendingChanges_.clear();
+      
+      // no rows added or removed, so the rows we have are still in place
+      if (added.isEmpty() && deleted == null)
+         return;
+      
+      // merge the additions into the surviving rows in sort order
+      Comparator<FileSystemItem> comparator = getSortComparator();
+      if (comparator != null)
+         Collections.sort(added, comparator);
       
-      default:
-         Debug.log("Unexpected file change type: " + viewAction.getType());
+      ArrayList<FileSystemItem> merged = new ArrayList<FileSystemItem>(
+            files.size() + added.size());
+      int next = 0;
+      for (int i = 0; i < files.size(); i++)
+      {
+         if (deleted != null && deleted[i])
+            continue;
          
-         break;
+         FileSystemItem file = files.get(i);
+         while (comparator != null && 
+                next < added.size() &&
+                comparator.compare(added.get(next), file) < 0)
+         {
+            merged.add(added.get(next++));
+         }
+         merged.add(file);
       }
+      while (next < added.size())
+         merged.add(added.get(next++));
+      
+      files.clear();
+      files.addAll(merged);
+      rowsByKeyValid_ = false;
+      updatePageSize();
+      
+      // if a file is deleted and then re-added within the same event loop 
+      // (as occurs when gedit saves a text file) the table doesn't always 
+      // update correctly (it has a duplicate of the item deleted / 
+      // re-added). the call to flush overcomes this issue
+      dataProvider_.flush();
    }
    
-   public void renameFile(FileSystemItem from, FileSystemItem to)
+   // returns the comparator the list is currently sorted with, or null if it
+   // isn't sorted
+   @SuppressWarnings("unchecked")
+   private Comparator<FileSystemItem> getSortComparator()
    {
-      int index = getFiles().indexOf(from);
-      if (index != -1)
+      ColumnSortList sortList = filesDataGrid_.getColumnSortList();
+      if (sortList.size() == 0)
+         return null;
+      
+      com.google.gwt.user.cellview.client.ColumnSortList.ColumnSortInfo sortInfo = sortList.get(0);
+      final Comparator<FileSystemItem> comparator = sortHandler_.getComparator(
+            (Column<FileSystemItem, ?>) sortInfo.getColumn());
+      if (comparator == null)
+         return null;
+      
+      final boolean ascending = sortInfo.isAscending();
+      return new Comparator<FileSystemItem>()
       {
-         selectNone();
-         getFiles().set(index, to);
-      }
+         @Override
+         public int compare(FileSystemItem arg0, FileSystemItem arg1)
+         {
+            int result = comparator.compare(arg0, arg1);
+            return ascending ? result : -result;
+         }
+      };
+   }
+   
+   private void updatePageSize()
+   {
+      // +1 for parent path; large directories are rendered a page at a time
+      filesDataGrid_.setPageSize(
+            Math.min(getFiles().size() + 1, renderedRowLimit_));
    }
    
    private List<FileSystemItem> getFiles()
@@ -496,12 +636,24 @@ public class FilesList extends Composite
    
    private int rowForFile(FileSystemItem file)
    {
-      List<FileSystemItem> files = getFiles();
-      for (int i=0; i<files.size(); i++)
-         if (files.get(i).equalTo(file))
-            return i ;
+      if (!rowsByKeyValid_)
+      {
+         rowsByKey_.clear();
+         List<FileSystemItem> files = getFiles();
+         for (int i=0; i<files.size(); i++)
+            rowsByKey_.put(keyForFile(files.get(i)), i);
+         rowsByKeyValid_ = true;
+      }
       
-      return -1;
+      Integer row = rowsByKey_.get(keyForFile(file));
+      return row == null ? -1 : row;
+   }
+   
+   // files compare equal (see FileSystemItem.equalTo) when they are both
+   // files or both directories and their paths differ only in case
+   private static String keyForFile(FileSystemItem file)
+   {
+      return (file.isDirectory() ? "d:" : "f:") + file.getPath().toLowerCase();
    }
    
    private void applyColumnSortList()
@@ -665,7 +817,7 @@ public class FilesList extends Composite
    private FileSystemItem containingPath_ = null;
    private FileSystemItem parentPath_ = null;
   
-   private final DataGrid<FileSystemItem> filesDataGrid_; 
+   private final ScrollingDataGrid<FileSystemItem> filesDataGrid_; 
    private final LinkColumn<FileSystemItem> nameColumn_;
    private final TextColumn<FileSystemItem> sizeColumn_;
    private final TextColumn<FileSystemItem> modifiedColumn_;
@@ -676,6 +828,17 @@ public class FilesList extends Composite
    private final MultiSelectionModel<FileSystemItem> selectionModel_;
    private final ListDataProvider<FileSystemItem> dataProvider_;
    private final ColumnSortEvent.ListHandler<FileSystemItem> sortHandler_;
+   
+   // row of each file in the list, keyed by keyForFile
+   private final HashMap<String, Integer> rowsByKey_ = 
+         new HashMap<String, Integer>();
+   private boolean rowsByKeyValid_ = false;
+   
+   private final LinkedHashMap<String, FileChange> pendingChanges_ =
+         new LinkedHashMap<String, FileChange>();
+   private boolean changesScheduled_ = false;
+   
+   private int renderedRowLimit_ = RENDERED_ROW_PAGE_SIZE;
 
    private final Files.Display.Observer observer_ ;
    private final ResizeLayoutPanel layoutPanel_ ;  
@@ -685,6 +848,9 @@ public class FilesList extends Composite
    private static final int SIZE_COLUMN_WIDTH_PIXELS = 80;
    private static final int MODIFIED_COLUMN_WIDTH_PIXELS = 160;
    
+   private static final int RENDERED_ROW_PAGE_SIZE = 1000;
+   private static final int RENDER_MORE_THRESHOLD_PIXELS = 500;
+   
    private static final int BOUNDARY_WIDTH_PIXELS = 500;
    private static final int MINIMUM_NAME_COLUMN_WIDTH_PIXELS = 
          BOUNDARY_WIDTH_PIXELS -
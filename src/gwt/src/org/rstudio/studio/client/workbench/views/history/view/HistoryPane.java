@@ -428,7 +428,8 @@ public class HistoryPane extends WorkbenchPane
          if (topRow == null)
             recentScrollPanel_.scrollToBottom();
          else
-            recentScrollPanel_.setVerticalScrollPosition(topRow.getOffsetTop());
+            recentScrollPanel_.setVerticalScrollPosition(
+                  commandList_.getRowTop(topRow));
       }
       else
          recentScrollPanel_.onContentSizeChanged();
@@ -52,7 +52,11 @@ public class HistoryTable extends FastSelectTable<HistoryEntry, String, Long>
             true);
 
       searchResult_ = timestampMode == TimestampMode.ITEM;
-      
+
+      // history can run to many thousands of entries; only render the
+      // ones in view
+      setVirtualized(true);
+
       applyWidthConstraints();
 
       final Resources res = GWT.create(Resources.class);
@@ -16,7 +16,6 @@ package org.rstudio.studio.client.workbench.views.output.find;
 
 import com.google.gwt.core.client.GWT;
 import com.google.gwt.dom.client.NativeEvent;
-import com.google.gwt.dom.client.TableRowElement;
 import com.google.gwt.event.dom.client.*;
 import com.google.gwt.event.shared.HandlerRegistration;
 import com.google.gwt.safehtml.shared.SafeHtmlBuilder;
@@ -26,7 +25,6 @@ import com.google.gwt.user.client.ui.SimplePanel;
 import com.google.gwt.user.client.ui.Widget;
 import com.google.inject.Inject;
 import org.rstudio.core.client.CodeNavigationTarget;
-import org.rstudio.core.client.dom.DomUtils;
 import org.rstudio.core.client.events.EnsureVisibleEvent;
 import org.rstudio.core.client.events.HasSelectionCommitHandlers;
 import org.rstudio.core.client.events.SelectionCommitEvent;
@@ -84,6 +82,7 @@ public class FindOutputPane extends WorkbenchPane
             resources.styles().selectedRow(),
             true,
             false);
+      table_.setVirtualized(true);
       FontSizer.applyNormalFontSize(table_);
       table_.addStyleName(resources.styles().findOutput());
       table_.addClickHandler(new ClickHandler()
@@ -120,6 +119,7 @@ public class FindOutputPane extends WorkbenchPane
       statusPanel_.setSize("100%", "100%");
       scrollPanel_ = new ScrollPanel(table_);
       scrollPanel_.setSize("100%", "100%");
+      table_.setOwningScrollPanel(scrollPanel_);
       container_.setWidget(scrollPanel_);
       return container_;
    }
@@ -200,13 +200,9 @@ public class FindOutputPane extends WorkbenchPane
    @Override
    public void ensureSelectedRowIsVisible()
    {
-      ArrayList<TableRowElement> rows = table_.getSelectedRows();
-      if (rows.size() > 0)
-      {
-         DomUtils.ensureVisibleVert(scrollPanel_.getElement(),
-                                    rows.get(0),
-                                    20);
-      }
+      ArrayList<Integer> indices = table_.getSelectedRowIndexes();
+      if (indices.size() > 0)
+         table_.ensureItemVisible(indices.get(0), 20);
    }
 
    @Override
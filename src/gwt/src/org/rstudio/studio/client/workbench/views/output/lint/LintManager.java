@@ -16,6 +16,8 @@ package org.rstudio.studio.client.workbench.views.output.lint;
 
 import org.rstudio.core.client.Debug;
 import org.rstudio.core.client.Invalidation;
+import org.rstudio.core.client.Stopwatch;
+import org.rstudio.core.client.jsonrpc.RequestLog;
 import org.rstudio.studio.client.RStudioGinjector;
 import org.rstudio.studio.client.application.events.EventBus;
 import org.rstudio.studio.client.common.RetinaStyleInjector;
@@ -61,6 +63,7 @@ public class LintManager
          this.showMarkers = showMarkers;
          this.explicit = explicit;
          this.excludeCurrentStatement = excludeCurrentStatement;
+         this.stopwatch = new Stopwatch(false);
       }
       
       public final Invalidation.Token token;
@@ -68,6 +71,49 @@ public class LintManager
       public final boolean showMarkers;
       public final boolean explicit;
       public final boolean excludeCurrentStatement;
+      public final Stopwatch stopwatch;
+   }
+   
+   // Collects the results of the C++ diagnostics and R lint requests, which
+   // are issued together, and shows them once both have returned
+   private class CppLintResults
+   {
+      public CppLintResults(LintContext context)
+      {
+         context_ = context;
+      }
+      
+      public void onCppLint(JsArray<LintItem> lint)
+      {
+         cppLint_ = lint;
+         maybeShowLint();
+      }
+      
+      public void onRLint(JsArray<LintItem> lint)
+      {
+         rLint_ = lint;
+         maybeShowLint();
+      }
+      
+      private void maybeShowLint()
+      {
+         if (cppLint_ == null || rLint_ == null)
+            return;
+         
+         if (context_.token.isInvalid())
+            return;
+         
+         JsArray<LintItem> allLint = JsArray.createArray().cast();
+         for (int i = 0; i < cppLint_.length(); i++)
+            allLint.push(cppLint_.get(i));
+         for (int i = 0; i < rLint_.length(); i++)
+            allLint.push(rLint_.get(i));
+         showLint(context_, allLint);
+      }
+      
+      private final LintContext context_;
+      private JsArray<LintItem> cppLint_;
+      private JsArray<LintItem> rLint_;
    }
    
    private void reset()
@@ -221,6 +267,10 @@ public class LintManager
 
    private void performCppLintServerRequest(final LintContext context)
    {
+      // the C++ diagnostics and R lint are independent, so request both
+      // at once rather than waiting on one before starting the other
+      final CppLintResults results = new CppLintResults(context);
+      
       cppCompletionContext_.cppCompletionOperation(new CppCompletionOperation(){
 
          @Override
@@ -237,36 +287,7 @@ public class LintManager
                   if (context.token.isInvalid())
                      return;
                   
-                  final JsArray<LintItem> cppLint =
-                        CppCompletionRequest.asLintArray(diag);
-                  
-                  server_.lintRSourceDocument(
-                        target_.getId(),
-                        target_.getPath(),
-                        context.showMarkers,
-                        context.explicit,
-                        new ServerRequestCallback<JsArray<LintItem>>()
-                        {
-                           @Override
-                           public void onResponseReceived(JsArray<LintItem> rLint)
-                           {
-                              if (context.token.isInvalid())
-                                 return;
-                              
-                              JsArray<LintItem> allLint = JsArray.createArray().cast();
-                              for (int i = 0; i < cppLint.length(); i++)
-                                 allLint.push(cppLint.get(i));
-                              for (int i = 0; i < rLint.length(); i++)
-                                 allLint.push(rLint.get(i));
-                              showLint(context, allLint);
-                           }
-
-                           @Override
-                           public void onError(ServerError error)
-                           {
-                              Debug.logError(error);
-                           }
-                        });
+                  results.onCppLint(CppCompletionRequest.asLintArray(diag));
                }
                
                @Override
@@ -277,6 +298,29 @@ public class LintManager
             });
          } 
       });
+      
+      server_.lintRSourceDocument(
+            target_.getId(),
+            target_.getPath(),
+            context.showMarkers,
+            context.explicit,
+            new ServerRequestCallback<JsArray<LintItem>>()
+            {
+               @Override
+               public void onResponseReceived(JsArray<LintItem> rLint)
+               {
+                  if (context.token.isInvalid())
+                     return;
+                  
+                  results.onRLint(rLint);
+               }
+
+               @Override
+               public void onError(ServerError error)
+               {
+                  Debug.logError(error);
+               }
+            });
    }
 
    private void performRLintServerRequest(final LintContext context)
@@ -309,6 +353,12 @@ public class LintManager
    private void showLint(LintContext context,
                          JsArray<LintItem> lint)
    {
+      RequestLog.recordLatency(
+            target_.getTextFileType().isCpp() || target_.getTextFileType().isC()
+               ? LINT_PASS_CPP
+               : LINT_PASS_R,
+            context.stopwatch.mark("lint"));
+      
       if (docDisplay_.isPopupVisible() || !docDisplay_.isFocused())
          return;
       
@@ -372,6 +422,11 @@ public class LintManager
       $wnd.setTimeout(callback, 100);
    }-*/;
    
+   // labels for lint pass timings (from scheduling to results) in the
+   // request log's latency histograms
+   private static final String LINT_PASS_CPP = "[lint pass] C/C++";
+   private static final String LINT_PASS_R = "[lint pass] R";
+   
    private final Timer timer_;
    private final TextEditingTarget target_;
    private final DocDisplay docDisplay_;
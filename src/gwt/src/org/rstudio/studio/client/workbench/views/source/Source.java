@@ -126,6 +126,7 @@ import org.rstudio.studio.client.workbench.views.source.NewShinyWebApplication.R
 import org.rstudio.studio.client.workbench.views.source.SourceWindowManager.NavigationResult;
 import org.rstudio.studio.client.workbench.views.source.editors.EditingTarget;
 import org.rstudio.studio.client.workbench.views.source.editors.EditingTargetSource;
+import org.rstudio.studio.client.workbench.views.source.editors.PlaceholderEditingTarget;
 import org.rstudio.studio.client.workbench.views.source.editors.codebrowser.CodeBrowserEditingTarget;
 import org.rstudio.studio.client.workbench.views.source.editors.data.DataEditingTarget;
 import org.rstudio.studio.client.workbench.views.source.editors.explorer.ObjectExplorerEditingTarget;
@@ -791,7 +792,7 @@ public class Source implements InsertSourceHandler,
                                       Command continuation)
                   {
                      view_.closeTab(
-                           editingTarget.asWidget(),
+                           getTabWidget(editingTarget),
                            false,
                            continuation);
                   }
@@ -878,7 +879,13 @@ public class Source implements InsertSourceHandler,
             EditingTarget sourceEditor = null;
             try
             {
-               sourceEditor = addTab(doc, true, OPEN_REPLAY);
+               // saved, unmodified text documents get a placeholder tab;
+               // their editors are built when first activated
+               FileType type = fileTypeRegistry_.getTypeByTypeName(doc.getType());
+               if (PlaceholderEditingTarget.canDefer(doc, type))
+                  sourceEditor = addPlaceholderTab(doc, type);
+               else
+                  sourceEditor = addTab(doc, true, OPEN_REPLAY);
             }
             catch (Exception e)
             {
@@ -1343,7 +1350,7 @@ public class Source implements InsertSourceHandler,
             {
                if (firstTarget_ != null)
                {
-                  view_.selectTab(firstTarget_.asWidget());
+                  view_.selectTab(getTabWidget(firstTarget_));
                   firstTarget_.setCursorPosition(Position.create(0, 0));
                }
                
@@ -2206,7 +2213,7 @@ public class Source implements InsertSourceHandler,
    {
       for (EditingTarget target : editors_)
          if (id == target.getId())
-            return target;
+            return ensureEditor(target);
 
       return null;
    }
@@ -2280,7 +2287,7 @@ public class Source implements InsertSourceHandler,
                   }
                   else
                   {
-                     view_.closeTab(target.asWidget(), false, continuation);
+                     view_.closeTab(getTabWidget(target), false, continuation);
                   }
                }
             });
@@ -2461,7 +2468,7 @@ public class Source implements InsertSourceHandler,
                else
                {
                   // untitled document -- just close the tab non-interactively
-                  view_.closeTab(saveTarget.asWidget(), false, continuation);
+                  view_.closeTab(getTabWidget(saveTarget), false, continuation);
                }
             }
          },
@@ -2767,7 +2774,7 @@ public class Source implements InsertSourceHandler,
                else
                {
                   view_.selectTab(i);
-                  editingTargetAction.execute(target);
+                  editingTargetAction.execute(ensureEditor(target));
                }
                return;
             }
@@ -3027,7 +3034,7 @@ public class Source implements InsertSourceHandler,
             view_.selectTab(i);
             pMruList_.get().add(thisPath);
             if (resultCallback != null)
-               resultCallback.onSuccess(target);
+               resultCallback.onSuccess(ensureEditor(target));
             return true;
          }
       }
@@ -3221,6 +3228,24 @@ public class Source implements InsertSourceHandler,
                    true);
       fireDocTabsChanged();
 
+      wireTab(target, widget);
+      
+      events_.fireEvent(new SourceDocAddedEvent(doc, mode));
+      
+      // adding a tab may enable commands that are only available when 
+      // multiple documents are open; if this is the second document, go check
+      if (editors_.size() == 2)
+         manageMultiTabCommands();
+      
+      // if the target had an editing session active, attempt to resume it
+      if (doc.getCollabParams() != null)
+         target.beginCollabSession(doc.getCollabParams());
+      
+      return target;
+   }
+
+   private void wireTab(final EditingTarget target, final Widget widget)
+   {
       target.getName().addValueChangeHandler(new ValueChangeHandler<String>()
       {
          public void onValueChange(ValueChangeEvent<String> event)
@@ -3258,20 +3283,83 @@ public class Source implements InsertSourceHandler,
             view_.closeTab(widget, false);
          }
       });
+   }
+   
+   private EditingTarget addPlaceholderTab(SourceDocument doc, FileType type)
+   {
+      PlaceholderEditingTarget placeholder = new PlaceholderEditingTarget(
+            doc, type, new PlaceholderEditingTarget.Materializer()
+            {
+               @Override
+               public EditingTarget materialize(
+                     PlaceholderEditingTarget placeholder)
+               {
+                  return materializeTab(placeholder);
+               }
+            });
       
-      events_.fireEvent(new SourceDocAddedEvent(doc, mode));
+      // don't switch to the tab; that would build its editor
+      editors_.add(placeholder);
+      view_.addTab(placeholder.asWidget(),
+                   placeholder.getIcon(),
+                   placeholder.getId(),
+                   placeholder.getName().getValue(),
+                   placeholder.getTabTooltip(),
+                   null,
+                   false);
+      fireDocTabsChanged();
+      
+      events_.fireEvent(new SourceDocAddedEvent(doc, OPEN_REPLAY));
       
-      // adding a tab may enable commands that are only available when 
-      // multiple documents are open; if this is the second document, go check
       if (editors_.size() == 2)
          manageMultiTabCommands();
       
-      // if the target had an editing session active, attempt to resume it
-      if (doc.getCollabParams() != null)
-         target.beginCollabSession(doc.getCollabParams());
+      return placeholder;
+   }
+   
+   private EditingTarget materializeTab(PlaceholderEditingTarget placeholder)
+   {
+      final String defaultNamePrefix = editingTargetSource_.getDefaultNamePrefix(
+            placeholder.getDocument());
+      final EditingTarget target = editingTargetSource_.getEditingTarget(
+            placeholder.getDocument(), fileContext_, new Provider<String>()
+            {
+               public String get()
+               {
+                  return getNextDefaultName(defaultNamePrefix);
+               }
+            });
       
+      // the placeholder's container stays the tab's widget
+      Widget widget = placeholder.asWidget();
+      ((PlaceholderEditingTarget.TabContainer) widget).setWidget(
+            createWidget(target));
+      
+      int idx = editors_.indexOf(placeholder);
+      if (idx != -1)
+         editors_.set(idx, target);
+      if (activeEditor_ == placeholder)
+         activeEditor_ = target;
+      
+      wireTab(target, widget);
       return target;
    }
+   
+   private EditingTarget ensureEditor(EditingTarget target)
+   {
+      if (target instanceof PlaceholderEditingTarget)
+         return ((PlaceholderEditingTarget) target).getTarget();
+      return target;
+   }
+   
+   private Widget getTabWidget(EditingTarget target)
+   {
+      // editors built from a placeholder live inside its container
+      Widget widget = target.asWidget();
+      if (widget.getParent() instanceof PlaceholderEditingTarget.TabContainer)
+         return widget.getParent();
+      return widget;
+   }
 
    private String getNextDefaultName(String defaultNamePrefix)
    {
@@ -3496,7 +3584,7 @@ public class Source implements InsertSourceHandler,
 
       if (event.getSelectedItem() >= 0)
       {
-         activeEditor_ = editors_.get(event.getSelectedItem());
+         activeEditor_ = ensureEditor(editors_.get(event.getSelectedItem()));
          activeEditor_.onActivate();
          
          // let any listeners know this tab was activated
@@ -3993,7 +4081,7 @@ public class Source implements InsertSourceHandler,
             suspendSourceNavigationAdding_ = true;
             try
             {
-               view_.selectTab(target.asWidget());
+               view_.selectTab(getTabWidget(target));
                target.restorePosition(navigation.getPosition());
             }
             finally
@@ -4415,7 +4503,7 @@ public class Source implements InsertSourceHandler,
          String editorPath = editors_.get(i).getPath();
          if (editorPath != null && editorPath.equals(path))
          {
-            onEditorLocated.execute(editors_.get(i));
+            onEditorLocated.execute(ensureEditor(editors_.get(i)));
             break;
          }
       }
@@ -4429,7 +4517,7 @@ public class Source implements InsertSourceHandler,
          String editorId = editors_.get(i).getId();
          if (editorId != null && editorId.equals(id))
          {
-            onEditorLocated.execute(editors_.get(i));
+            onEditorLocated.execute(ensureEditor(editors_.get(i)));
             break;
          }
       }
@@ -0,0 +1,453 @@
+/*
+ * PlaceholderEditingTarget.java
+ *
+ * Copyright (C) 2009-17 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.editors;
+
+import java.util.HashSet;
+
+import org.rstudio.core.client.command.AppCommand;
+import org.rstudio.core.client.events.EnsureHeightHandler;
+import org.rstudio.core.client.events.EnsureVisibleHandler;
+import org.rstudio.core.client.files.FileSystemContext;
+import org.rstudio.core.client.files.FileSystemItem;
+import org.rstudio.studio.client.common.ReadOnlyValue;
+import org.rstudio.studio.client.common.Value;
+import org.rstudio.studio.client.common.filetypes.FileType;
+import org.rstudio.studio.client.common.filetypes.TextFileType;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Position;
+import org.rstudio.studio.client.workbench.views.source.events.CollabEditStartParams;
+import org.rstudio.studio.client.workbench.views.source.model.SourceDocument;
+import org.rstudio.studio.client.workbench.views.source.model.SourcePosition;
+
+import com.google.gwt.event.logical.shared.CloseHandler;
+import com.google.gwt.event.shared.GwtEvent;
+import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.resources.client.ImageResource;
+import com.google.gwt.user.client.Command;
+import com.google.gwt.user.client.ui.HasValue;
+import com.google.gwt.user.client.ui.SimpleLayoutPanel;
+import com.google.gwt.user.client.ui.Widget;
+import com.google.inject.Provider;
+
+/**
+ * Stands in for the editing target of a restored (saved, unmodified) text
+ * document until it's first needed, so that a session with many open tabs
+ * doesn't build an editor for each of them at startup. Only the document's
+ * metadata is answered from here; anything else asks the Materializer to
+ * build the real target, which then fills this tab's container and handles
+ * all further calls.
+ */
+public class PlaceholderEditingTarget implements EditingTarget
+{
+   public interface Materializer
+   {
+      EditingTarget materialize(PlaceholderEditingTarget placeholder);
+   }
+
+   // The tab's widget; the real target's widget is placed inside it
+   public static class TabContainer extends SimpleLayoutPanel
+   {
+   }
+
+   public static boolean canDefer(SourceDocument document, FileType type)
+   {
+      return type instanceof TextFileType &&
+             document.getPath() != null &&
+             !document.isDirty() &&
+             document.getCollabParams() == null;
+   }
+
+   public PlaceholderEditingTarget(SourceDocument document,
+                                   FileType type,
+                                   Materializer materializer)
+   {
+      materializer_ = materializer;
+      initialize(document, null, type, null);
+   }
+
+   public SourceDocument getDocument()
+   {
+      return document_;
+   }
+
+   public boolean isMaterialized()
+   {
+      return target_ != null;
+   }
+
+   public EditingTarget getTarget()
+   {
+      if (target_ == null)
+         target_ = materializer_.materialize(this);
+      return target_;
+   }
+
+   @Override
+   public void initialize(SourceDocument document,
+                          FileSystemContext fileContext,
+                          FileType type,
+                          Provider<String> defaultNameProvider)
+   {
+      document_ = document;
+      fileType_ = (TextFileType) type;
+      name_ = new Value<String>(
+            FileSystemItem.getNameFromPath(document.getPath()));
+   }
+
+   @Override
+   public Widget asWidget()
+   {
+      return container_;
+   }
+
+   // Metadata ----
+
+   @Override
+   public String getId()
+   {
+      return document_.getId();
+   }
+
+   @Override
+   public HasValue<String> getName()
+   {
+      return target_ != null ? target_.getName() : name_;
+   }
+
+   @Override
+   public String getTitle()
+   {
+      return getName().getValue();
+   }
+
+   @Override
+   public String getPath()
+   {
+      return target_ != null ? target_.getPath() : document_.getPath();
+   }
+
+   @Override
+   public String getContext()
+   {
+      return target_ != null ? target_.getContext() : null;
+   }
+
+   @Override
+   public ImageResource getIcon()
+   {
+      return target_ != null ? target_.getIcon() : fileType_.getDefaultIcon();
+   }
+
+   @Override
+   public String getTabTooltip()
+   {
+      return getPath();
+   }
+
+   @Override
+   public FileType getFileType()
+   {
+      return target_ != null ? target_.getFileType() : fileType_;
+   }
+
+   @Override
+   public TextFileType getTextFileType()
+   {
+      return target_ != null ? target_.getTextFileType() : fileType_;
+   }
+
+   @Override
+   public void adaptToExtendedFileType(String extendedType)
+   {
+      if (target_ != null)
+         target_.adaptToExtendedFileType(extendedType);
+      else
+         document_.setExtendedType(extendedType);
+   }
+
+   @Override
+   public String getExtendedFileType()
+   {
+      return target_ != null ? target_.getExtendedFileType() :
+                               document_.getExtendedType();
+   }
+
+   // Restored documents are unmodified, and can't become dirty without
+   // being edited (which materializes them)
+
+   @Override
+   public ReadOnlyValue<Boolean> dirtyState()
+   {
+      return target_ != null ? target_.dirtyState() : dirtyState_;
+   }
+
+   @Override
+   public boolean isSaveCommandActive()
+   {
+      return target_ != null && target_.isSaveCommandActive();
+   }
+
+   @Override
+   public void save(Command onCompleted)
+   {
+      if (target_ != null)
+         target_.save(onCompleted);
+      else if (onCompleted != null)
+         onCompleted.execute();
+   }
+
+   @Override
+   public void saveWithPrompt(Command onCompleted, Command onCancelled)
+   {
+      if (target_ != null)
+         target_.saveWithPrompt(onCompleted, onCancelled);
+      else if (onCompleted != null)
+         onCompleted.execute();
+   }
+
+   @Override
+   public boolean onBeforeDismiss()
+   {
+      return target_ == null || target_.onBeforeDismiss();
+   }
+
+   @Override
+   public void onDismiss(int dismissType)
+   {
+      if (target_ != null)
+         target_.onDismiss(dismissType);
+   }
+
+   @Override
+   public void onDeactivate()
+   {
+      if (target_ != null)
+         target_.onDeactivate();
+   }
+
+   @Override
+   public void recordCurrentNavigationPosition()
+   {
+      if (target_ != null)
+         target_.recordCurrentNavigationPosition();
+   }
+
+   @Override
+   public void endDebugHighlighting()
+   {
+      if (target_ != null)
+         target_.endDebugHighlighting();
+   }
+
+   @Override
+   public void endCollabSession()
+   {
+      if (target_ != null)
+         target_.endCollabSession();
+   }
+
+   // Everything else needs the real target ----
+
+   @Override
+   public HashSet<AppCommand> getSupportedCommands()
+   {
+      return getTarget().getSupportedCommands();
+   }
+
+   @Override
+   public void manageCommands()
+   {
+      getTarget().manageCommands();
+   }
+
+   @Override
+   public boolean canCompilePdf()
+   {
+      return getTarget().canCompilePdf();
+   }
+
+   @Override
+   public void verifyCppPrerequisites()
+   {
+      getTarget().verifyCppPrerequisites();
+   }
+
+   @Override
+   public void focus()
+   {
+      getTarget().focus();
+   }
+
+   @Override
+   public void onActivate()
+   {
+      getTarget().onActivate();
+   }
+
+   @Override
+   public void onInitiallyLoaded()
+   {
+      getTarget().onInitiallyLoaded();
+   }
+
+   @Override
+   public void navigateToPosition(SourcePosition position,
+                                  boolean recordCurrent)
+   {
+      getTarget().navigateToPosition(position, recordCurrent);
+   }
+
+   @Override
+   public void navigateToPosition(SourcePosition position,
+                                  boolean recordCurrent,
+                                  boolean highlightLine)
+   {
+      getTarget().navigateToPosition(position, recordCurrent, highlightLine);
+   }
+
+   @Override
+   public void restorePosition(SourcePosition position)
+   {
+      getTarget().restorePosition(position);
+   }
+
+   @Override
+   public SourcePosition currentPosition()
+   {
+      return getTarget().currentPosition();
+   }
+
+   @Override
+   public boolean isAtSourceRow(SourcePosition position)
+   {
+      return getTarget().isAtSourceRow(position);
+   }
+
+   @Override
+   public void forceLineHighlighting()
+   {
+      getTarget().forceLineHighlighting();
+   }
+
+   @Override
+   public void setCursorPosition(Position position)
+   {
+      getTarget().setCursorPosition(position);
+   }
+
+   @Override
+   public void ensureCursorVisible()
+   {
+      getTarget().ensureCursorVisible();
+   }
+
+   @Override
+   public Position search(String regex)
+   {
+      return getTarget().search(regex);
+   }
+
+   @Override
+   public Position search(Position startPos, String regex)
+   {
+      return getTarget().search(startPos, regex);
+   }
+
+   @Override
+   public void highlightDebugLocation(SourcePosition startPos,
+                                      SourcePosition endPos,
+                                      boolean executing)
+   {
+      getTarget().highlightDebugLocation(startPos, endPos, executing);
+   }
+
+   @Override
+   public void beginCollabSession(CollabEditStartParams params)
+   {
+      getTarget().beginCollabSession(params);
+   }
+
+   @Override
+   public void forceSaveCommandActive()
+   {
+      getTarget().forceSaveCommandActive();
+   }
+
+   @Override
+   public void revertChanges(Command onCompleted)
+   {
+      getTarget().revertChanges(onCompleted);
+   }
+
+   @Override
+   public long getFileSizeLimit()
+   {
+      return getTarget().getFileSizeLimit();
+   }
+
+   @Override
+   public long getLargeFileSize()
+   {
+      return getTarget().getLargeFileSize();
+   }
+
+   @Override
+   public String getDefaultNamePrefix()
+   {
+      return getTarget().getDefaultNamePrefix();
+   }
+
+   // Events are wired to the real target when it's materialized ----
+
+   @Override
+   public HandlerRegistration addEnsureVisibleHandler(EnsureVisibleHandler handler)
+   {
+      return NO_OP_REGISTRATION;
+   }
+
+   @Override
+   public HandlerRegistration addEnsureHeightHandler(EnsureHeightHandler handler)
+   {
+      return NO_OP_REGISTRATION;
+   }
+
+   @Override
+   public HandlerRegistration addCloseHandler(CloseHandler<Void> handler)
+   {
+      return NO_OP_REGISTRATION;
+   }
+
+   @Override
+   public void fireEvent(GwtEvent<?> event)
+   {
+      getTarget().fireEvent(event);
+   }
+
+   private static final HandlerRegistration NO_OP_REGISTRATION =
+         new HandlerRegistration()
+   {
+      public void removeHandler()
+      {
+      }
+   };
+
+   private final Materializer materializer_;
+   private final TabContainer container_ = new TabContainer();
+   private final Value<Boolean> dirtyState_ = new Value<Boolean>(false);
+
+   private SourceDocument document_;
+   private TextFileType fileType_;
+   private Value<String> name_;
+   private EditingTarget target_;
+}
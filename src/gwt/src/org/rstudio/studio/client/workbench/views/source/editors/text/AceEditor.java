@@ -1266,6 +1266,12 @@ public class AceEditor implements DocDisplay,
       return getSession().getDocument().getLength();
    }
 
+   @Override
+   public int positionToIndex(Position position)
+   {
+      return getSession().getDocument().positionToIndex(position, 0);
+   }
+
    @Override
    public int getPixelWidth()
    {
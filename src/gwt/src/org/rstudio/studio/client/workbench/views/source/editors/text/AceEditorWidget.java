@@ -15,6 +15,7 @@
 package org.rstudio.studio.client.workbench.views.source.editors.text;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 
 import com.google.gwt.core.client.JsArray;
@@ -959,6 +960,12 @@ public class AceEditorWidget extends Composite
       
       public int getMarkerId() { return markerId_; }
       
+      // identifies the lint at its current (anchored) location
+      public String getKey()
+      {
+         return lintKey(annotation_, range_.getStart(), range_.getEnd());
+      }
+      
       public void detach()
       {
          if (range_ != null)
@@ -1005,17 +1012,49 @@ public class AceEditorWidget extends Composite
    
    public void showLint(JsArray<LintItem> lint)
    {
-      clearAnnotations();
       JsArray<AceAnnotation> annotations = LintItem.asAceAnnotations(lint);
       editor_.getSession().setAnnotations(annotations);
       
+      // Lint for code that hasn't changed since the last pass comes back
+      // identical, at the positions our anchors have tracked; keep those
+      // annotations (and their markers) rather than rebuilding them.
+      HashMap<String, ArrayList<AnchoredAceAnnotation>> previous =
+            new HashMap<String, ArrayList<AnchoredAceAnnotation>>();
+      for (int i = 0; i < annotations_.size(); i++)
+      {
+         AnchoredAceAnnotation annotation = annotations_.get(i);
+         
+         // The marker may have been removed (e.g. on the cursor line)
+         if (editor_.getSession().getMarker(annotation.getMarkerId()) == null)
+         {
+            annotation.detach();
+            continue;
+         }
+         
+         String key = annotation.getKey();
+         if (!previous.containsKey(key))
+            previous.put(key, new ArrayList<AnchoredAceAnnotation>());
+         previous.get(key).add(annotation);
+      }
+      
       // Now, set (and cache) inline markers.
+      ArrayList<AnchoredAceAnnotation> newAnnotations =
+            new ArrayList<AnchoredAceAnnotation>();
       for (int i = 0; i < lint.length(); i++)
       {
          LintItem item = lint.get(i);
-         AnchoredRange range = createAnchoredRange(
-               Position.create(item.getStartRow(), item.getStartColumn()),
-               Position.create(item.getEndRow(), item.getEndColumn()));
+         Position start = Position.create(item.getStartRow(), item.getStartColumn());
+         Position end = Position.create(item.getEndRow(), item.getEndColumn());
+         
+         ArrayList<AnchoredAceAnnotation> matches =
+               previous.get(lintKey(annotations.get(i), start, end));
+         if (matches != null && !matches.isEmpty())
+         {
+            newAnnotations.add(matches.remove(matches.size() - 1));
+            continue;
+         }
+         
+         AnchoredRange range = createAnchoredRange(start, end);
          
          String clazz = "unknown";
          if (item.getType() == "error")
@@ -1029,11 +1068,27 @@ public class AceEditorWidget extends Composite
          
          int id = editor_.getSession().addMarker(range, clazz, "text", true);
          
-         annotations_.add(new AnchoredAceAnnotation(
+         newAnnotations.add(new AnchoredAceAnnotation(
                annotations.get(i),
                range,
                id));
       }
+      
+      // Remove lint which is no longer reported
+      for (ArrayList<AnchoredAceAnnotation> stale : previous.values())
+         for (int i = 0; i < stale.size(); i++)
+            stale.get(i).detach();
+      
+      annotations_ = newAnnotations;
+   }
+   
+   private static String lintKey(AceAnnotation annotation,
+                                 Position start,
+                                 Position end)
+   {
+      return start.getRow() + ":" + start.getColumn() + "-" +
+             end.getRow() + ":" + end.getColumn() + " " +
+             annotation.type() + " " + annotation.text();
    }
    
    public void clearLint()
@@ -416,6 +416,22 @@ public class ChunkOutputWidget extends Composite
       showBusyState();
    }
    
+   // discards the rendered output so that it can be replayed again later;
+   // the widget's size is left to the host. returns false if output is still
+   // arriving, in which case nothing is released.
+   public boolean releaseOutput()
+   {
+      if (state_ != CHUNK_READY)
+         return false;
+
+      presenter_.clearOutput();
+      attachPresenter(new ChunkOutputStream(this, chunkOutputSize_));
+      hasErrors_ = false;
+      renderedHeight_ = 0;
+      state_ = CHUNK_EMPTY;
+      return true;
+   }
+
    public static void cacheEditorStyle(
       String foregroundColor,
       String backgroundColor,
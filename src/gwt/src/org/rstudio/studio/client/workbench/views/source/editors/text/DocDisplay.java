@@ -76,6 +76,7 @@ import com.google.gwt.user.client.ui.Widget;
 import org.rstudio.studio.client.workbench.views.source.model.DirtyState;
 import org.rstudio.studio.client.workbench.views.source.model.RnwCompletionContext;
 import org.rstudio.studio.client.workbench.views.source.model.SourcePosition;
+import org.rstudio.studio.client.workbench.views.source.model.TrackedDocument;
 
 public interface DocDisplay extends HasValueChangeHandlers<Void>,
                                     HasFoldChangeHandlers,
@@ -86,7 +87,8 @@ public interface DocDisplay extends HasValueChangeHandlers<Void>,
                                     HasRenderFinishedHandlers,
                                     HasDocumentChangedHandlers,
                                     InputEditorDisplay,
-                                    NavigableSourceEditor
+                                    NavigableSourceEditor,
+                                    TrackedDocument
 {
    public interface AnchoredSelection
    {
@@ -309,6 +311,7 @@ public interface DocDisplay extends HasValueChangeHandlers<Void>,
    int getLength(int row);
    int getRowCount();
    String getLine(int row);
+   int positionToIndex(Position position);
    int getPixelWidth();
    
    char getCharacterAtCursor();
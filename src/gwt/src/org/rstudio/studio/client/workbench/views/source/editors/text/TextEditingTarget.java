@@ -1566,7 +1566,7 @@ public class TextEditingTarget implements
                      PROPERTY_SCROLL_LINE,
                      String.valueOf(docDisplay_.getFirstFullyVisibleRow()));
                
-               docUpdateSentinel_.modifyProperties(properties);
+               docUpdateSentinel_.queueProperties(properties);
             }
          };
          
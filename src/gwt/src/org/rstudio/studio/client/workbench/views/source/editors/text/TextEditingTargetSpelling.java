@@ -24,6 +24,7 @@ import org.rstudio.core.client.ResultCallback;
 import org.rstudio.core.client.widget.NullProgressIndicator;
 import org.rstudio.studio.client.common.spelling.SpellChecker;
 import org.rstudio.studio.client.server.Void;
+import org.rstudio.studio.client.workbench.views.source.editors.text.spelling.BackgroundSpellChecker;
 import org.rstudio.studio.client.workbench.views.source.editors.text.spelling.CheckSpelling;
 import org.rstudio.studio.client.workbench.views.source.editors.text.spelling.InitialProgressDialog;
 import org.rstudio.studio.client.workbench.views.source.editors.text.spelling.SpellingDialog;
@@ -39,7 +40,8 @@ public class TextEditingTargetSpelling implements SpellChecker.Context
       docDisplay_ = docDisplay;
       docUpdateSentinel_ = docUpdateSentinel;
       spellChecker_ = new SpellChecker(this);
-      
+      backgroundSpellChecker_ = new BackgroundSpellChecker(spellChecker_,
+                                                           docDisplay_);
    }
    
    public void checkSpelling()
@@ -75,13 +77,15 @@ public class TextEditingTargetSpelling implements SpellChecker.Context
    @Override
    public void invalidateAllWords()
    {
-      
+      if (backgroundSpellChecker_ != null)
+         backgroundSpellChecker_.invalidate();
    }
 
    @Override
    public void invalidateMisspelledWords()
    {
-      
+      if (backgroundSpellChecker_ != null)
+         backgroundSpellChecker_.invalidate();
    }  
    
    @Override
@@ -116,6 +120,7 @@ public class TextEditingTargetSpelling implements SpellChecker.Context
    
    void onDismiss()
    {
+      backgroundSpellChecker_.detach();
       while (releaseOnDismiss_.size() > 0)
          releaseOnDismiss_.remove(0).removeHandler();
    }
@@ -134,6 +139,7 @@ public class TextEditingTargetSpelling implements SpellChecker.Context
    private final DocDisplay docDisplay_;
    private final DocUpdateSentinel docUpdateSentinel_;
    private final SpellChecker spellChecker_;
+   private final BackgroundSpellChecker backgroundSpellChecker_;
  
    private ArrayList<HandlerRegistration> releaseOnDismiss_ = 
                                     new ArrayList<HandlerRegistration>();
@@ -16,17 +16,19 @@ package org.rstudio.studio.client.workbench.views.source.editors.text.ace;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map.Entry;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 import org.rstudio.core.client.BrowseCap;
 import org.rstudio.core.client.Debug;
 import org.rstudio.core.client.ListUtil;
-import org.rstudio.core.client.MapUtil;
-import org.rstudio.core.client.MapUtil.ForEachCommand;
 import org.rstudio.core.client.StringUtil;
 import org.rstudio.core.client.ListUtil.FilterPredicate;
 import org.rstudio.core.client.MouseTracker;
 import org.rstudio.core.client.command.KeyboardShortcut;
-import org.rstudio.core.client.container.SafeMap;
 import org.rstudio.core.client.dom.DomUtils;
 import org.rstudio.core.client.files.FileSystemItem;
 import org.rstudio.core.client.regex.Match;
@@ -102,7 +104,12 @@ public class AceEditorBackgroundLinkHighlighter
       RStudioGinjector.INSTANCE.injectMembers(this);
       
       editor_ = editor;
-      activeMarkers_ = new SafeMap<Integer, List<MarkerRegistration>>();
+      activeMarkers_ = new TreeMap<Integer, List<MarkerRegistration>>();
+      
+      reWebLink_ = createWebLinkPattern();
+      reWebLinkExact_ = Pattern.create("^(?:" + reWebLink() + ")$", "");
+      reMarkdownLink_ = Pattern.create("(\\[[^\\]]+\\])(\\([^\\)]+\\))");
+      reTestthatError_ = Pattern.create("\\(@[^#]+#\\d+\\)");
       
       nextHighlightStart_ = 0;
       timer_ = new Timer()
@@ -110,16 +117,7 @@ public class AceEditorBackgroundLinkHighlighter
          @Override
          public void run()
          {
-            int n = editor_.getCurrentLineCount();
-            int startRow = nextHighlightStart_;
-            int endRow   = Math.min(nextHighlightStart_ + N_HIGHLIGHT_ROWS, n);
-            
-            for (int row = startRow; row < endRow; row++)
-               highlightRow(row);
-            
-            nextHighlightStart_ = endRow;
-            if (endRow != n)
-               timer_.schedule(5);
+            highlightNextRows();
          }
       };
       
@@ -151,11 +149,47 @@ public class AceEditorBackgroundLinkHighlighter
             if (fileType != null && (fileType.isMarkdown() || fileType.isRmd()))
                highlighters_.add(markdownLinkHighlighter());
             nextHighlightStart_ = 0;
+            dirtyRows_.clear();
+            scannedAhead_.clear();
             timer_.schedule(700);
          }
       });
    }
    
+   // Highlights rows touched by edits, then the rows in view which the
+   // background scan hasn't reached yet, then the next slice of the
+   // background scan
+   private void highlightNextRows()
+   {
+      int n = editor_.getCurrentLineCount();
+      
+      for (Integer row : dirtyRows_)
+         if (row < n)
+            highlightRow(row);
+      dirtyRows_.clear();
+      
+      if (nextHighlightStart_ >= n)
+         return;
+      
+      int firstVisible = Math.max(nextHighlightStart_, editor_.getFirstVisibleRow());
+      int lastVisible  = Math.min(n - 1, editor_.getLastVisibleRow());
+      for (int row = firstVisible; row <= lastVisible; row++)
+         if (scannedAhead_.add(row))
+            highlightRow(row);
+      
+      int startRow = nextHighlightStart_;
+      int endRow   = Math.min(nextHighlightStart_ + N_HIGHLIGHT_ROWS, n);
+      for (int row = startRow; row < endRow; row++)
+         if (!scannedAhead_.remove(row))
+            highlightRow(row);
+      
+      nextHighlightStart_ = endRow;
+      if (endRow != n)
+         timer_.schedule(5);
+      else
+         scannedAhead_.clear();
+   }
+   
    private void highlightRow(int row)
    {
       for (Highlighter highlighter : highlighters_)
@@ -273,16 +307,14 @@ public class AceEditorBackgroundLinkHighlighter
    
    private void clearAllMarkers()
    {
-      MapUtil.forEach(activeMarkers_, new ForEachCommand<Integer, List<MarkerRegistration>>()
-      {
-         @Override
-         public void execute(Integer row, List<MarkerRegistration> markers)
-         {
-            for (MarkerRegistration marker : markers)
-               marker.detach();
-         }
-      });
+      for (List<MarkerRegistration> markers : activeMarkers_.values())
+         for (MarkerRegistration marker : markers)
+            marker.detach();
       activeMarkers_.clear();
+      
+      for (MarkerRegistration marker : unfiledMarkers_)
+         marker.detach();
+      unfiledMarkers_.clear();
    }
    
    private void clearMarkers(final Range range)
@@ -314,6 +346,70 @@ public class AceEditorBackgroundLinkHighlighter
          // update active markers for this row
          activeMarkers_.put(row, filtered);
       }
+      
+      for (int i = unfiledMarkers_.size() - 1; i >= 0; i--)
+      {
+         MarkerRegistration marker = unfiledMarkers_.get(i);
+         if (range.contains(marker.getRange()))
+         {
+            marker.detach();
+            unfiledMarkers_.remove(i);
+         }
+      }
+   }
+   
+   // Moves the entries of rows after 'lastRow' by 'delta' rows; entries for
+   // rows in (lastRow + delta, lastRow] (i.e. removed rows) are returned
+   // rather than moved
+   private static <T> List<T> shiftRows(TreeMap<Integer, T> rows,
+                                        int lastRow,
+                                        int delta)
+   {
+      List<T> removed = new ArrayList<T>();
+      if (delta == 0)
+         return removed;
+      
+      SortedMap<Integer, T> tail = rows.tailMap(
+            delta < 0 ? lastRow + delta + 1 : lastRow + 1);
+      List<Entry<Integer, T>> entries = new ArrayList<Entry<Integer, T>>(tail.entrySet());
+      tail.clear();
+      for (Entry<Integer, T> entry : entries)
+      {
+         int row = entry.getKey();
+         if (row <= lastRow)
+            removed.add(entry.getValue());
+         else
+            rows.put(row + delta, entry.getValue());
+      }
+      return removed;
+   }
+   
+   private static void shiftRows(TreeSet<Integer> rows, int lastRow, int delta)
+   {
+      if (delta == 0)
+         return;
+      
+      SortedSet<Integer> tail = rows.tailSet(
+            delta < 0 ? lastRow + delta + 1 : lastRow + 1);
+      List<Integer> shifted = new ArrayList<Integer>(tail);
+      tail.clear();
+      for (Integer row : shifted)
+         if (row > lastRow)
+            rows.add(row + delta);
+   }
+   
+   // Files the markers taken off changed rows under the rows their anchors
+   // now point to
+   private void fileUnfiledMarkers()
+   {
+      for (MarkerRegistration marker : unfiledMarkers_)
+      {
+         int row = marker.getRange().getStart().getRow();
+         if (!activeMarkers_.containsKey(row))
+            activeMarkers_.put(row, new ArrayList<MarkerRegistration>());
+         activeMarkers_.get(row).add(marker);
+      }
+      unfiledMarkers_.clear();
    }
    
    private void navigateToUrl(String url)
@@ -426,8 +522,7 @@ public class AceEditorBackgroundLinkHighlighter
       // use a regex that captures all non-space characters within
       // a web link, and then fix up the captured link by removing
       // trailing punctuation, etc. as required
-      Pattern reWebLink = createWebLinkPattern();
-      for (Match match = reWebLink.match(line, 0);
+      for (Match match = reWebLink_.match(line, 0);
            match != null;
            match = match.nextMatch())
       {
@@ -443,7 +538,7 @@ public class AceEditorBackgroundLinkHighlighter
          String url = match.getValue();
          
          // trim off enclosing brackets
-         if (!url.matches(reWebLink()))
+         if (!reWebLinkExact_.test(url))
          {
             startIdx++;
             endIdx--;
@@ -496,8 +591,7 @@ public class AceEditorBackgroundLinkHighlighter
                                         String line,
                                         int row)
    {
-      Pattern reMarkdownLink = Pattern.create("(\\[[^\\]]+\\])(\\([^\\)]+\\))");
-      for (Match match = reMarkdownLink.match(line, 0);
+      for (Match match = reMarkdownLink_.match(line, 0);
            match != null;
            match = match.nextMatch())
       {
@@ -522,8 +616,7 @@ public class AceEditorBackgroundLinkHighlighter
    
    private void onTestthatErrorHighlight(AceEditor editor, String line, int row)
    {
-      Pattern reTestthatError = Pattern.create("\\(@[^#]+#\\d+\\)");
-      for (Match match = reTestthatError.match(line, 0);
+      for (Match match = reTestthatError_.match(line, 0);
            match != null;
            match = match.nextMatch())
       {
@@ -576,38 +669,56 @@ public class AceEditorBackgroundLinkHighlighter
    public void onDocumentChanged(DocumentChangedEvent event)
    {
       // clear markers within the delete range
-      clearMarkers(event.getEvent().getRange());
-      
-      // prepare highlighter
-      int row = event.getEvent().getRange().getStart().getRow();
-      nextHighlightStart_ = Math.min(nextHighlightStart_, row);
-      timer_.schedule(700);
+      AceDocumentChangeEventNative change = event.getEvent();
+      Range range = change.getRange();
+      clearMarkers(range);
+      
+      // rows after the change move by the number of rows inserted or
+      // removed; rows removed by the change are dropped
+      int startRow = range.getStart().getRow();
+      int endRow = range.getEnd().getRow();
+      boolean isInsert = change.getAction().startsWith("insert");
+      int delta = isInsert ? endRow - startRow : startRow - endRow;
+      int lastRow = isInsert ? startRow : endRow;
+      
+      shiftRows(dirtyRows_, lastRow, delta);
+      shiftRows(scannedAhead_, lastRow, delta);
+      if (nextHighlightStart_ > lastRow)
+         nextHighlightStart_ += delta;
+      else if (nextHighlightStart_ > startRow)
+         nextHighlightStart_ = startRow + 1;
+      
+      // markers on the changed rows may have moved to another of these
+      // rows; they're re-filed by their anchors once those have updated
+      List<List<MarkerRegistration>> unfiled = shiftRows(activeMarkers_, lastRow, delta);
+      for (int row = startRow; row <= startRow + Math.max(delta, 0); row++)
+      {
+         List<MarkerRegistration> markers = activeMarkers_.get(row);
+         if (markers != null)
+         {
+            activeMarkers_.remove(row);
+            unfiled.add(markers);
+         }
+      }
+      for (List<MarkerRegistration> markers : unfiled)
+         unfiledMarkers_.addAll(markers);
       
-      // update marker positions (deferred so that anchors update)
-      Scheduler.get().scheduleDeferred(new ScheduledCommand()
+      if (!unfiledMarkers_.isEmpty())
       {
-         @Override
-         public void execute()
+         Scheduler.get().scheduleDeferred(new ScheduledCommand()
          {
-            final SafeMap<Integer, List<MarkerRegistration>> newMarkers =
-                  new SafeMap<Integer, List<MarkerRegistration>>();
-            MapUtil.forEach(activeMarkers_, new ForEachCommand<Integer, List<MarkerRegistration>>()
+            @Override
+            public void execute()
             {
-               @Override
-               public void execute(Integer oldRow, List<MarkerRegistration> markers)
-               {
-                  if (markers == null || markers.isEmpty())
-                     return;
-
-                  // all markers here should have same row
-                  int newRow = markers.get(0).getRange().getStart().getRow();
-                  newMarkers.put(newRow, markers);
-               }
-            });
-            activeMarkers_.clear();
-            activeMarkers_ = newMarkers;
-         }
-      });
+               fileUnfiledMarkers();
+            }
+         });
+      }
+      
+      // prepare highlighter (only the changed rows need another look)
+      for (int row = startRow; row <= startRow + Math.max(delta, 0); row++)
+         dirtyRows_.add(row);
+      timer_.schedule(700);
    }
    
    @Override
@@ -789,8 +900,19 @@ public class AceEditorBackgroundLinkHighlighter
    private final Timer timer_;
    private final List<HandlerRegistration> handlers_;
    
-   private SafeMap<Integer, List<MarkerRegistration>> activeMarkers_;
+   private final Pattern reWebLink_;
+   private final Pattern reWebLinkExact_;
+   private final Pattern reMarkdownLink_;
+   private final Pattern reTestthatError_;
+   
+   private final TreeMap<Integer, List<MarkerRegistration>> activeMarkers_;
+   private final List<MarkerRegistration> unfiledMarkers_ = new ArrayList<MarkerRegistration>();
+   
+   // the background scan has covered the rows before nextHighlightStart_,
+   // plus the rows in scannedAhead_ (highlighted early as they were in view)
    private int nextHighlightStart_;
+   private final TreeSet<Integer> scannedAhead_ = new TreeSet<Integer>();
+   private final TreeSet<Integer> dirtyRows_ = new TreeSet<Integer>();
    private static final int N_HIGHLIGHT_ROWS = 200;
    
    private HandlerRegistration previewHandler_;
@@ -49,9 +49,11 @@ public class ChunkDefinition extends JavaScriptObject
    
    public final ChunkDefinition with(int row, String chunkLabel)
    {
-      return ChunkDefinition.create(row, getRowCount(), getVisible(), 
-            getExpansionState(), getOptions(), getDocumentId(),
+      ChunkDefinition def = ChunkDefinition.create(row, getRowCount(), 
+            getVisible(), getExpansionState(), getOptions(), getDocumentId(),
             getChunkId(), chunkLabel);
+      def.setOutputHeight(getOutputHeight());
+      return def;
    }
    
    public native final int getRow()  /*-{
@@ -90,6 +92,16 @@ public class ChunkDefinition extends JavaScriptObject
       this.expansion_state = state;
    }-*/;
 
+   // the height of the chunk's output when it was last rendered, or -1 if
+   // it isn't known; used to size the output before it's been rendered
+   public native final int getOutputHeight() /*-{
+      return typeof(this.output_height) === "number" ? this.output_height : -1;
+   }-*/;
+   
+   public native final void setOutputHeight(int height) /*-{
+      this.output_height = height;
+   }-*/;
+
    public native final RmdChunkOptions getOptions() /*-{
       return this.options || {};
    }-*/;
@@ -14,10 +14,14 @@
  */
 package org.rstudio.studio.client.workbench.views.source.editors.text.rmd;
 
+import java.util.ArrayList;
+
 import org.rstudio.core.client.Rectangle;
 import org.rstudio.core.client.theme.res.ThemeStyles;
 import org.rstudio.studio.client.RStudioGinjector;
 import org.rstudio.studio.client.rmarkdown.model.RmdChunkOptions;
+import org.rstudio.studio.client.rmarkdown.model.RmdChunkOutput;
+import org.rstudio.studio.client.rmarkdown.model.RmdChunkOutputUnit;
 import org.rstudio.studio.client.workbench.views.source.editors.text.ChunkOutputSize;
 import org.rstudio.studio.client.workbench.views.source.editors.text.ChunkOutputWidget;
 import org.rstudio.studio.client.workbench.views.source.editors.text.DocDisplay;
@@ -29,6 +33,7 @@ import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Range;
 import org.rstudio.studio.client.workbench.views.source.editors.text.events.RenderFinishedEvent;
 import org.rstudio.studio.client.workbench.views.source.events.ChunkChangeEvent;
 
+import com.google.gwt.core.client.JsArray;
 import com.google.gwt.dom.client.Element;
 import com.google.gwt.dom.client.Style.Unit;
 import com.google.gwt.event.logical.shared.ValueChangeEvent;
@@ -55,6 +60,10 @@ public class ChunkOutputUi
       boolean hasOutput = widget != null;
       if (widget == null) 
       {
+         // a new widget has no output, so anything replayed into it can be
+         // replayed again
+         replayed_ = new ArrayList<ReplayedOutput>();
+
          widget = new ChunkOutputWidget(docId_, def.getChunkId(), 
                def.getOptions(), def.getExpansionState(), true, this, 
                ChunkOutputSize.Default);
@@ -122,6 +131,102 @@ public class ChunkOutputUi
       return outputWidget_;
    }
    
+   public void showChunkOutput(RmdChunkOutput output, int mode, int scope,
+         boolean complete, boolean ensureVisible)
+   {
+      if (output.isReplay() && replayed_ != null)
+      {
+         // output replayed from the cache for a chunk that isn't near the
+         // viewport doesn't need to be rendered yet; hold on to it and show
+         // a placeholder of the output's last known size instead
+         if (materialized_ && replayed_.isEmpty() && 
+             !isNearViewport(MATERIALIZE_MARGIN_ROWS))
+         {
+            materialized_ = false;
+            showPlaceholder();
+         }
+         replayed_.add(new ReplayedOutput(output, mode, scope, complete));
+         if (!materialized_)
+            return;
+      }
+      else
+      {
+         // this output can't be recovered from the cache, so the widget 
+         // must keep everything from here on
+         materialize();
+         replayed_ = null;
+      }
+
+      outputWidget_.showChunkOutput(output, mode, scope, complete, 
+            ensureVisible);
+   }
+   
+   public void setCodeExecuting(int mode, int scope)
+   {
+      materialize();
+      replayed_ = null;
+      outputWidget_.setCodeExecuting(mode, scope);
+   }
+   
+   /**
+    * Renders any output which is being held back while the chunk is away from
+    * the viewport.
+    */
+   public void materialize()
+   {
+      if (materialized_)
+         return;
+      materialized_ = true;
+      
+      for (ReplayedOutput output: replayed_)
+      {
+         outputWidget_.showChunkOutput(output.output, output.mode, 
+               output.scope, output.complete, false);
+      }
+   }
+   
+   /**
+    * Discards the rendered output, leaving a placeholder in its place. Only
+    * output which was entirely replayed from the cache can be released (it's
+    * replayed again when the chunk is materialized).
+    * 
+    * @return Whether the output was released.
+    */
+   public boolean release()
+   {
+      if (!materialized_ || replayed_ == null || replayed_.isEmpty())
+         return false;
+      
+      if (!outputWidget_.releaseOutput())
+         return false;
+      
+      materialized_ = false;
+      showPlaceholder();
+      return true;
+   }
+   
+   public boolean isMaterialized()
+   {
+      return materialized_;
+   }
+   
+   public boolean isReleasable()
+   {
+      return materialized_ && replayed_ != null && !replayed_.isEmpty() &&
+            outputWidget_.isVisible();
+   }
+   
+   /**
+    * @return Whether the output is within the given number of rows of the 
+    * editor's visible rows.
+    */
+   public boolean isNearViewport(int margin)
+   {
+      int row = getCurrentRow();
+      return row >= display_.getFirstVisibleRow() - margin &&
+             row <= display_.getLastVisibleRow() + margin;
+   }
+   
    public RmdChunkOptions getOptions()
    {
       return def_.getOptions();
@@ -197,6 +302,13 @@ public class ChunkOutputUi
       if (!attached_)
          return;
       
+      // the placeholder keeps its size until the output is rendered
+      if (!materialized_)
+      {
+         showPlaceholder();
+         return;
+      }
+      
       // if ensuring visible, also ensure that the associated code is unfolded
       if (ensureVisible)
       {
@@ -216,6 +328,11 @@ public class ChunkOutputUi
       widget.getElement().getStyle().setHeight(height, Unit.PX);
       display_.onLineWidgetChanged(lineWidget_.getLineWidget());
       
+      // remember the size so that the output can be laid out before it's 
+      // rendered next time
+      if (widget.getExpansionState() != ChunkOutputWidget.COLLAPSED)
+         def_.setOutputHeight(widget.isVisible() ? height : 0);
+      
       // if we need to ensure that this output is visible, wait for the event
       // loop to finish (so Ace gets a chance to adjust the line widgets and
       // do a render pass), then make sure the line beneath our widget is 
@@ -246,8 +363,60 @@ public class ChunkOutputUi
    {
       return outputWidget_.hasErrors();
    }
+   
+   public boolean hasPlots()
+   {
+      if (materialized_)
+         return outputWidget_.hasPlots();
+      
+      for (ReplayedOutput replayed: replayed_)
+      {
+         if (replayed.output.getType() != RmdChunkOutput.TYPE_MULTIPLE_UNIT)
+            continue;
+         JsArray<RmdChunkOutputUnit> units = replayed.output.getUnits();
+         for (int i = 0; i < units.length(); i++)
+         {
+            if (units.get(i).getType() == RmdChunkOutputUnit.TYPE_PLOT)
+               return true;
+         }
+      }
+      return false;
+   }
 
    // Private methods ---------------------------------------------------------
+   
+   private void showPlaceholder()
+   {
+      int height = def_.getOutputHeight();
+      if (height == 0)
+         return;
+      
+      if (outputWidget_.getExpansionState() == ChunkOutputWidget.COLLAPSED)
+         height = CHUNK_COLLAPSED_HEIGHT;
+      else if (height < 0)
+         height = MIN_CHUNK_HEIGHT;
+      
+      outputWidget_.setVisible(true);
+      outputWidget_.getElement().getStyle().setHeight(height, Unit.PX);
+      display_.onLineWidgetChanged(lineWidget_.getLineWidget());
+   }
+   
+   private static class ReplayedOutput
+   {
+      public ReplayedOutput(RmdChunkOutput output, int mode, int scope,
+            boolean complete)
+      {
+         this.output = output;
+         this.mode = mode;
+         this.scope = scope;
+         this.complete = complete;
+      }
+      
+      public final RmdChunkOutput output;
+      public final int mode;
+      public final int scope;
+      public final boolean complete;
+   }
 
    private final PinnedLineWidget lineWidget_;
    private final ChunkOutputWidget outputWidget_;
@@ -258,6 +427,14 @@ public class ChunkOutputUi
 
    private boolean attached_ = false;
    private HandlerRegistration renderHandlerReg_ = null;
+   
+   // the output replayed into the widget, or null if the widget has output
+   // which can't be replayed
+   private ArrayList<ReplayedOutput> replayed_ = null;
+   private boolean materialized_ = true;
+
+   // outputs within this many rows of the viewport are rendered
+   public final static int MATERIALIZE_MARGIN_ROWS = 50;
 
    public final static int MIN_CHUNK_HEIGHT = 25;
    public final static int CHUNK_COLLAPSED_HEIGHT = 15;
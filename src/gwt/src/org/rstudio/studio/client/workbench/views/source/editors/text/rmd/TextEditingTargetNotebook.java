@@ -16,6 +16,8 @@
 package org.rstudio.studio.client.workbench.views.source.editors.text.rmd;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 
@@ -226,6 +228,19 @@ public class TextEditingTargetNotebook
       // render to ensure that ace places the line widgets correctly)
       renderReg_ = docDisplay_.addRenderFinishedHandler(this);
       
+      // render (or release) chunk outputs as they're scrolled into (or out
+      // of) view
+      releaseOnDismiss_.add(docDisplay_.addRenderFinishedHandler(
+            new RenderFinishedEvent.Handler()
+      {
+         @Override
+         public void onRenderFinished(RenderFinishedEvent event)
+         {
+            if (!syncMaterializedOutputs_.isRunning())
+               syncMaterializedOutputs_.schedule(50);
+         }
+      }));
+      
       releaseOnDismiss_.add(editingTarget_.addInterruptChunkHandler(new InterruptChunkEvent.Handler()
       {
          @Override
@@ -493,6 +508,7 @@ public class TextEditingTargetNotebook
       String chunkId = getCurrentChunkId();
       if (chunkId == null || !outputs_.containsKey(chunkId))
          return;
+     outputs_.get(chunkId).materialize();
      ChunkOutputWidget widget = outputs_.get(chunkId).getOutputWidget();
      widget.setExpansionState(
            widget.getExpansionState() == ChunkOutputWidget.COLLAPSED ? 
@@ -715,11 +731,10 @@ public class TextEditingTargetNotebook
          if (ensureVisible && mode == NotebookQueueUnit.EXEC_MODE_BATCH)
             ensureVisible = false;
          
-         outputs_.get(chunkId).getOutputWidget()
-                              .showChunkOutput(event.getOutput(), mode,
-                                  NotebookQueueUnit.EXEC_SCOPE_PARTIAL,
-                                  !queue_.isChunkExecuting(chunkId),
-                                  ensureVisible);
+         outputs_.get(chunkId).showChunkOutput(event.getOutput(), mode,
+                                     NotebookQueueUnit.EXEC_SCOPE_PARTIAL,
+                                     !queue_.isChunkExecuting(chunkId),
+                                     ensureVisible);
       }
    }
 
@@ -819,8 +834,11 @@ public class TextEditingTargetNotebook
       // find chunk containing plot and push the new plot in
       String chunkId = event.getData().getChunkId();
       if (outputs_.containsKey(chunkId))
-         outputs_.get(chunkId).getOutputWidget().updatePlot(
-               event.getData().getPlotUrl());
+      {
+         ChunkOutputUi output = outputs_.get(chunkId);
+         output.materialize();
+         output.getOutputWidget().updatePlot(event.getData().getPlotUrl());
+      }
    }
 
    @Override
@@ -1023,6 +1041,9 @@ public class TextEditingTargetNotebook
             Scope scope = docDisplay_.getCurrentChunk(Position.create(
                   terminalLine, 1));
             ChunkOutputWidget outputWidget = output.getOutputWidget();
+            
+            // the widget may be re-used below, so it needs its output
+            output.materialize();
 
             // clean up old widget
             output.remove();
@@ -1227,7 +1248,7 @@ public class TextEditingTargetNotebook
                )
          );
 
-         output.getOutputWidget().setCodeExecuting(mode, execScope);
+         output.setCodeExecuting(mode, execScope);
          
          // scroll the widget into view if it's a single-shot exec
          if (mode == NotebookQueueUnit.EXEC_MODE_SINGLE)
@@ -1649,7 +1670,63 @@ public class TextEditingTargetNotebook
       {
          for (ChunkOutputUi output: outputs_.values())
          {
-            output.getOutputWidget().syncHeight(false, false);
+            // placeholders keep their size until rendered
+            if (output.isMaterialized())
+               output.getOutputWidget().syncHeight(false, false);
+         }
+      }
+   };
+   
+   private Timer syncMaterializedOutputs_ = new Timer()
+   {
+      @Override
+      public void run()
+      {
+         // render outputs which have come near the viewport
+         ArrayList<ChunkOutputUi> releasable = new ArrayList<ChunkOutputUi>();
+         int rendered = 0;
+         for (ChunkOutputUi output: outputs_.values())
+         {
+            if (!output.isMaterialized() && 
+                output.isNearViewport(ChunkOutputUi.MATERIALIZE_MARGIN_ROWS))
+            {
+               output.materialize();
+            }
+            
+            if (output.isReleasable())
+            {
+               rendered++;
+               
+               // leave some slack beyond the materialization margin so 
+               // outputs at its edge don't flip back and forth
+               if (!output.isNearViewport(
+                     ChunkOutputUi.MATERIALIZE_MARGIN_ROWS * 2))
+                  releasable.add(output);
+            }
+         }
+         
+         if (rendered <= MAX_RENDERED_REPLAYED_OUTPUTS)
+            return;
+         
+         // too many replayed outputs are rendered; release the ones furthest
+         // from the viewport (they'll be replayed if scrolled near again)
+         final int row = (docDisplay_.getFirstVisibleRow() + 
+                          docDisplay_.getLastVisibleRow()) / 2;
+         Collections.sort(releasable, new Comparator<ChunkOutputUi>()
+         {
+            @Override
+            public int compare(ChunkOutputUi a, ChunkOutputUi b)
+            {
+               return Math.abs(b.getCurrentRow() - row) - 
+                      Math.abs(a.getCurrentRow() - row);
+            }
+         });
+         for (ChunkOutputUi output: releasable)
+         {
+            if (rendered <= MAX_RENDERED_REPLAYED_OUTPUTS)
+               break;
+            if (output.release())
+               rendered--;
          }
       }
    };
@@ -1682,7 +1759,7 @@ public class TextEditingTargetNotebook
                min = delta;
                chunkId = output.getChunkId();
             }
-            hasPlots = hasPlots || output.getOutputWidget().hasPlots();
+            hasPlots = hasPlots || output.hasPlots();
          }
          
          // if no widgets have plots, don't bother with resize
@@ -1877,6 +1954,10 @@ public class TextEditingTargetNotebook
    // chunk state synchronized
    private final static int STATE_INITIALIZED = 1;
    
+   // the number of chunk outputs replayed from the cache which may stay
+   // rendered while away from the viewport
+   private final static int MAX_RENDERED_REPLAYED_OUTPUTS = 40;
+   
    private final static String LAST_SETUP_CRC32 = "last_setup_crc32";
    public final static String SETUP_CHUNK_ID = "csetup_chunk";
    
@@ -0,0 +1,465 @@
+/*
+ * BackgroundSpellChecker.java
+ *
+ * Copyright (C) 2009-17 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.editors.text.spelling;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.rstudio.core.client.Debug;
+import org.rstudio.studio.client.RStudioGinjector;
+import org.rstudio.studio.client.common.filetypes.TextFileType;
+import org.rstudio.studio.client.common.spelling.SpellChecker;
+import org.rstudio.studio.client.common.spelling.model.SpellCheckerResult;
+import org.rstudio.studio.client.server.ServerError;
+import org.rstudio.studio.client.server.ServerRequestCallback;
+import org.rstudio.studio.client.workbench.prefs.model.UIPrefs;
+import org.rstudio.studio.client.workbench.views.source.editors.text.AceEditor;
+import org.rstudio.studio.client.workbench.views.source.editors.text.DocDisplay;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.AceDocumentChangeEventNative;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.AnchoredRange;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Position;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Range;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Token;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.spelling.TokenPredicate;
+import org.rstudio.studio.client.workbench.views.source.editors.text.events.CursorChangedEvent;
+import org.rstudio.studio.client.workbench.views.source.editors.text.events.CursorChangedHandler;
+import org.rstudio.studio.client.workbench.views.source.editors.text.events.DocumentChangedEvent;
+import org.rstudio.studio.client.workbench.views.source.editors.text.events.EditorModeChangedEvent;
+import org.rstudio.studio.client.workbench.views.source.editors.text.events.RenderFinishedEvent;
+
+import com.google.gwt.core.client.GWT;
+import com.google.gwt.event.logical.shared.ValueChangeEvent;
+import com.google.gwt.event.logical.shared.ValueChangeHandler;
+import com.google.gwt.event.shared.HandlerRegistration;
+import com.google.gwt.resources.client.ClientBundle;
+import com.google.gwt.resources.client.CssResource;
+import com.google.gwt.user.client.Timer;
+import com.google.inject.Inject;
+
+/**
+ * Checks spelling as you type (when enabled), marking misspelled words in
+ * prose (Markdown and R Markdown text) and comments. Only the rows in view
+ * and the rows which have been edited are checked; the words found in them
+ * are sent to the spell checker in one batch once editing goes idle.
+ */
+public class BackgroundSpellChecker
+{
+   public BackgroundSpellChecker(SpellChecker spellChecker,
+                                 DocDisplay docDisplay)
+   {
+      RStudioGinjector.INSTANCE.injectMembers(this);
+
+      spellChecker_ = spellChecker;
+      docDisplay_ = docDisplay;
+      editor_ = (AceEditor) docDisplay;
+
+      timer_ = new Timer()
+      {
+         @Override
+         public void run()
+         {
+            checkPendingRows();
+         }
+      };
+
+      handlers_.add(docDisplay_.addDocumentChangedHandler(
+            new DocumentChangedEvent.Handler()
+      {
+         @Override
+         public void onDocumentChanged(DocumentChangedEvent event)
+         {
+            onDocumentChange(event.getEvent());
+         }
+      }));
+
+      handlers_.add(docDisplay_.addCursorChangedHandler(
+            new CursorChangedHandler()
+      {
+         @Override
+         public void onCursorChanged(CursorChangedEvent event)
+         {
+            // check the word we skipped while it was being typed, now that
+            // the cursor has left it
+            if (skippedWord_ != null &&
+                !isWithinWord(skippedWord_, event.getPosition()))
+            {
+               int row = skippedWord_.getStart().getRow();
+               skippedWord_ = null;
+               checkedRows_.remove(row);
+               dirtyRows_.add(row);
+               if (isEnabled())
+                  schedule();
+            }
+         }
+      }));
+
+      handlers_.add(docDisplay_.addRenderFinishedHandler(
+            new RenderFinishedEvent.Handler()
+      {
+         @Override
+         public void onRenderFinished(RenderFinishedEvent event)
+         {
+            // the viewport may have moved onto rows we haven't checked
+            if (isEnabled() && hasUncheckedVisibleRows())
+               schedule();
+         }
+      }));
+
+      handlers_.add(docDisplay_.addEditorModeChangedHandler(
+            new EditorModeChangedEvent.Handler()
+      {
+         @Override
+         public void onEditorModeChanged(EditorModeChangedEvent event)
+         {
+            invalidate();
+         }
+      }));
+
+      handlers_.add(uiPrefs_.realtimeSpellChecking().addValueChangeHandler(
+            new ValueChangeHandler<Boolean>()
+      {
+         @Override
+         public void onValueChange(ValueChangeEvent<Boolean> event)
+         {
+            invalidate();
+         }
+      }));
+
+      if (isEnabled())
+         schedule();
+   }
+
+   @Inject
+   private void initialize(UIPrefs uiPrefs)
+   {
+      uiPrefs_ = uiPrefs;
+   }
+
+   /**
+    * Forgets all results (e.g. when dictionaries or ignored words change)
+    * and checks the rows in view again.
+    */
+   public void invalidate()
+   {
+      clearMarkers();
+      checkedRows_.clear();
+      dirtyRows_.clear();
+      skippedWord_ = null;
+      changeCount_++;
+
+      if (isEnabled())
+         schedule();
+   }
+
+   public void detach()
+   {
+      timer_.cancel();
+      clearMarkers();
+      for (HandlerRegistration handler : handlers_)
+         handler.removeHandler();
+      handlers_.clear();
+   }
+
+   private boolean isEnabled()
+   {
+      return uiPrefs_.realtimeSpellChecking().getValue() &&
+             docDisplay_.getFileType() != null;
+   }
+
+   private void schedule()
+   {
+      timer_.schedule(IDLE_DELAY_MS);
+   }
+
+   private void onDocumentChange(AceDocumentChangeEventNative change)
+   {
+      changeCount_++;
+      if (!isEnabled())
+         return;
+
+      Range range = change.getRange();
+      int startRow = range.getStart().getRow();
+      int endRow = range.getEnd().getRow();
+
+      // rows we've checked (and rows waiting to be checked) shift when
+      // lines are inserted or removed; rather than tracking that, check
+      // them again (their words will be cached)
+      if (startRow != endRow)
+      {
+         checkedRows_.clear();
+         dirtyRows_.clear();
+         skippedWord_ = null;
+      }
+
+      if (!change.getAction().startsWith("insert"))
+         endRow = startRow;
+      for (int row = startRow; row <= endRow; row++)
+      {
+         checkedRows_.remove(row);
+         dirtyRows_.add(row);
+      }
+
+      schedule();
+   }
+
+   private boolean hasUncheckedVisibleRows()
+   {
+      int lastRow = Math.min(docDisplay_.getLastVisibleRow(),
+                             docDisplay_.getRowCount() - 1);
+      for (int row = docDisplay_.getFirstVisibleRow(); row <= lastRow; row++)
+         if (!checkedRows_.contains(row))
+            return true;
+      return false;
+   }
+
+   private void checkPendingRows()
+   {
+      if (!isEnabled())
+         return;
+
+      // wait for the outstanding request; it reschedules when done
+      if (requestPending_)
+         return;
+
+      int rowCount = docDisplay_.getRowCount();
+      final TreeSet<Integer> rows = new TreeSet<Integer>();
+      for (Integer row : dirtyRows_)
+         if (row < rowCount)
+            rows.add(row);
+      TreeSet<Integer> editedRows = new TreeSet<Integer>(rows);
+      dirtyRows_.clear();
+
+      int lastVisibleRow = Math.min(docDisplay_.getLastVisibleRow(),
+                                    rowCount - 1);
+      for (int row = docDisplay_.getFirstVisibleRow();
+           row <= lastVisibleRow;
+           row++)
+      {
+         if (!checkedRows_.contains(row))
+            rows.add(row);
+      }
+
+      if (rows.isEmpty())
+         return;
+
+      // collect the words of each run of consecutive rows; the word being
+      // typed (at the cursor, on an edited row) is skipped, and checked
+      // once the cursor leaves it
+      TextFileType fileType = docDisplay_.getFileType();
+      TokenPredicate tokenPredicate = createTokenPredicate(fileType);
+      Position cursor = docDisplay_.getCursorPosition();
+      boolean isTyping = editedRows.contains(cursor.getRow());
+      Range skipped = null;
+
+      final ArrayList<Range> wordRanges = new ArrayList<Range>();
+      final ArrayList<String> words = new ArrayList<String>();
+      LinkedHashSet<String> uniqueWords = new LinkedHashSet<String>();
+      Integer runStart = rows.first();
+      while (runStart != null)
+      {
+         int runEnd = runStart;
+         while (rows.contains(runEnd + 1))
+            runEnd++;
+
+         Iterable<Range> wordSource = docDisplay_.getWords(
+               tokenPredicate,
+               fileType.getCharPredicate(),
+               Position.create(runStart, 0),
+               Position.create(runEnd, docDisplay_.getLine(runEnd).length()));
+
+         for (Range range : wordSource)
+         {
+            // Don't worry about pathologically long words
+            if (range.getEnd().getColumn() - range.getStart().getColumn() > 250)
+               continue;
+
+            if (isTyping && isWithinWord(range, cursor))
+            {
+               skipped = range;
+               continue;
+            }
+
+            String word = docDisplay_.getTextForRange(range);
+            wordRanges.add(range);
+            words.add(word);
+            uniqueWords.add(word);
+         }
+
+         runStart = rows.higher(runEnd);
+      }
+
+      final Range skippedWord = skipped;
+      final int changeCount = changeCount_;
+      requestPending_ = true;
+      spellChecker_.checkSpelling(
+            new ArrayList<String>(uniqueWords),
+            new ServerRequestCallback<SpellCheckerResult>()
+      {
+         @Override
+         public void onResponseReceived(SpellCheckerResult result)
+         {
+            requestPending_ = false;
+
+            // the document changed while we were waiting, so the ranges may
+            // be stale; go around again (this time from the cache)
+            if (changeCount != changeCount_)
+            {
+               dirtyRows_.addAll(rows);
+               schedule();
+               return;
+            }
+
+            HashSet<String> incorrect =
+                  new HashSet<String>(result.getIncorrect());
+            removeMarkers(rows, skippedWord);
+            for (int i = 0; i < words.size(); i++)
+               if (incorrect.contains(words.get(i)))
+                  addMarker(wordRanges.get(i));
+
+            // the skipped word's row is rechecked when the cursor leaves it
+            checkedRows_.addAll(rows);
+            skippedWord_ = skippedWord;
+            if (!dirtyRows_.isEmpty() || hasUncheckedVisibleRows())
+               schedule();
+         }
+
+         @Override
+         public void onError(ServerError error)
+         {
+            requestPending_ = false;
+            Debug.logError(error);
+
+            // try these again on the next pass
+            dirtyRows_.addAll(rows);
+         }
+      });
+   }
+
+   private TokenPredicate createTokenPredicate(TextFileType fileType)
+   {
+      final TokenPredicate textPredicate = fileType.getTokenPredicate();
+      return new TokenPredicate()
+      {
+         @Override
+         public boolean test(Token token, int row, int column)
+         {
+            if (textPredicate.test(token, row, column))
+               return true;
+
+            // prose within comments, but not e.g. roxygen tags
+            return token.hasType("comment") &&
+                   !token.hasType("nospell", "tag", "keyword");
+         }
+      };
+   }
+
+   private void addMarker(Range range)
+   {
+      AnchoredRange anchoredRange = editor_.getSession().createAnchoredRange(
+            range.getStart(), range.getEnd(), true);
+      int markerId = editor_.getSession().addMarker(
+            anchoredRange, RES.styles().misspelled(), "text", true);
+      markers_.add(new MisspellingMarker(markerId, anchoredRange));
+   }
+
+   private static boolean isWithinWord(Range word, Position pos)
+   {
+      return word.getStart().getRow() == pos.getRow() &&
+             word.getStart().getColumn() <= pos.getColumn() &&
+             word.getEnd().getColumn() >= pos.getColumn();
+   }
+
+   // removes the markers on the given rows, except for one on the word
+   // which wasn't checked (if any)
+   private void removeMarkers(TreeSet<Integer> rows, Range skippedWord)
+   {
+      List<MisspellingMarker> remaining = new ArrayList<MisspellingMarker>();
+      for (MisspellingMarker marker : markers_)
+      {
+         Position start = marker.range.getStart();
+         if (rows.contains(start.getRow()) &&
+             (skippedWord == null || !isWithinWord(skippedWord, start)))
+            marker.detach();
+         else
+            remaining.add(marker);
+      }
+      markers_ = remaining;
+   }
+
+   private void clearMarkers()
+   {
+      for (MisspellingMarker marker : markers_)
+         marker.detach();
+      markers_.clear();
+   }
+
+   private class MisspellingMarker
+   {
+      public MisspellingMarker(int markerId, AnchoredRange range)
+      {
+         this.markerId = markerId;
+         this.range = range;
+      }
+
+      public void detach()
+      {
+         editor_.getSession().removeMarker(markerId);
+         range.detach();
+      }
+
+      public final int markerId;
+      public final AnchoredRange range;
+   }
+
+   // Resources ----
+
+   interface Resources extends ClientBundle
+   {
+      @Source("BackgroundSpellChecker.css")
+      Styles styles();
+   }
+
+   interface Styles extends CssResource
+   {
+      String misspelled();
+   }
+
+   public static Resources RES = GWT.create(Resources.class);
+   static {
+      RES.styles().ensureInjected();
+   }
+
+   private final SpellChecker spellChecker_;
+   private final DocDisplay docDisplay_;
+   private final AceEditor editor_;
+   private final Timer timer_;
+   private final ArrayList<HandlerRegistration> handlers_ =
+         new ArrayList<HandlerRegistration>();
+
+   private List<MisspellingMarker> markers_ = new ArrayList<MisspellingMarker>();
+   private final TreeSet<Integer> checkedRows_ = new TreeSet<Integer>();
+   private final TreeSet<Integer> dirtyRows_ = new TreeSet<Integer>();
+   private Range skippedWord_ = null;
+   private int changeCount_ = 0;
+   private boolean requestPending_ = false;
+
+   private static final int IDLE_DELAY_MS = 500;
+
+   // Injected ----
+   private UIPrefs uiPrefs_;
+}
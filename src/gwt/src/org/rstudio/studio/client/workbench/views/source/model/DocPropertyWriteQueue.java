@@ -0,0 +1,199 @@
+/*
+ * DocPropertyWriteQueue.java
+ *
+ * Copyright (C) 2009-17 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.model;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.rstudio.core.client.Barrier.Token;
+import org.rstudio.core.client.Debug;
+import org.rstudio.studio.client.application.events.EventBus;
+import org.rstudio.studio.client.server.ServerError;
+import org.rstudio.studio.client.server.ServerRequestCallback;
+import org.rstudio.studio.client.server.Void;
+import org.rstudio.studio.client.workbench.events.LastChanceSaveEvent;
+import org.rstudio.studio.client.workbench.events.LastChanceSaveHandler;
+
+import com.google.gwt.user.client.Command;
+import com.google.gwt.user.client.Timer;
+import com.google.gwt.user.client.Window;
+import com.google.gwt.user.client.Window.ClosingEvent;
+import com.google.gwt.user.client.Window.ClosingHandler;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+/**
+ * Coalesces document property writes which needn't reach the server right
+ * away (e.g. the cursor position) into one request per flush interval,
+ * across all open documents. A later write to a property replaces any
+ * queued value for it.
+ */
+@Singleton
+public class DocPropertyWriteQueue
+{
+   public interface Callback
+   {
+      void onWritten(HashMap<String, String> properties);
+   }
+
+   private static class PendingWrite
+   {
+      public final HashMap<String, String> properties =
+            new HashMap<String, String>();
+      public Callback callback;
+   }
+
+   @Inject
+   public DocPropertyWriteQueue(SourceServerOperations server,
+                                EventBus events)
+   {
+      server_ = server;
+
+      timer_ = new Timer()
+      {
+         @Override
+         public void run()
+         {
+            flush(null);
+         }
+      };
+
+      // Web only
+      Window.addWindowClosingHandler(new ClosingHandler()
+      {
+         public void onWindowClosing(ClosingEvent event)
+         {
+            flush(null);
+         }
+      });
+
+      // Desktop only
+      events.addHandler(LastChanceSaveEvent.TYPE, new LastChanceSaveHandler()
+      {
+         public void onLastChanceSave(LastChanceSaveEvent event)
+         {
+            if (pending_.isEmpty())
+               return;
+
+            // We're quitting. Write what's queued one last time.
+            final Token token = event.acquire();
+            flush(new Command()
+            {
+               @Override
+               public void execute()
+               {
+                  token.release();
+               }
+            });
+         }
+      });
+   }
+
+   /**
+    * Queues the given property changes for a document; the callback is
+    * invoked with all of the document's written changes once they've been
+    * applied on the server.
+    */
+   public void enqueue(String docId,
+                       HashMap<String, String> properties,
+                       Callback onWritten)
+   {
+      PendingWrite write = pending_.get(docId);
+      if (write == null)
+      {
+         write = new PendingWrite();
+         pending_.put(docId, write);
+      }
+      write.properties.putAll(properties);
+      write.callback = onWritten;
+
+      if (!timer_.isRunning())
+         timer_.schedule(FLUSH_INTERVAL_MS);
+   }
+
+   /**
+    * Drops any queued values for the given properties of a document (e.g.
+    * because newer values are being written directly).
+    */
+   public void cancel(String docId, Set<String> names)
+   {
+      PendingWrite write = pending_.get(docId);
+      if (write == null)
+         return;
+
+      for (String name : names)
+         write.properties.remove(name);
+      if (write.properties.isEmpty())
+         pending_.remove(docId);
+   }
+
+   public void flush()
+   {
+      flush(null);
+   }
+
+   private void flush(final Command onCompleted)
+   {
+      timer_.cancel();
+
+      if (pending_.isEmpty())
+      {
+         if (onCompleted != null)
+            onCompleted.execute();
+         return;
+      }
+
+      final HashMap<String, PendingWrite> writes = pending_;
+      pending_ = new HashMap<String, PendingWrite>();
+
+      HashMap<String, HashMap<String, String>> properties =
+            new HashMap<String, HashMap<String, String>>();
+      for (Map.Entry<String, PendingWrite> entry : writes.entrySet())
+         properties.put(entry.getKey(), entry.getValue().properties);
+
+      server_.modifyDocumentsProperties(
+            properties,
+            new ServerRequestCallback<Void>()
+            {
+               @Override
+               public void onResponseReceived(Void response)
+               {
+                  for (PendingWrite write : writes.values())
+                     if (write.callback != null)
+                        write.callback.onWritten(write.properties);
+
+                  if (onCompleted != null)
+                     onCompleted.execute();
+               }
+
+               @Override
+               public void onError(ServerError error)
+               {
+                  Debug.logError(error);
+                  if (onCompleted != null)
+                     onCompleted.execute();
+               }
+            });
+   }
+
+   private final SourceServerOperations server_;
+   private final Timer timer_;
+
+   private HashMap<String, PendingWrite> pending_ =
+         new HashMap<String, PendingWrite>();
+
+   private static final int FLUSH_INTERVAL_MS = 2000;
+}
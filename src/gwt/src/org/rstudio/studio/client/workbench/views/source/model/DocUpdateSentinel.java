@@ -33,6 +33,7 @@ import org.rstudio.core.client.js.JsObject;
 import org.rstudio.core.client.patch.SubstringDiff;
 import org.rstudio.core.client.widget.Operation;
 import org.rstudio.core.client.widget.ProgressIndicator;
+import org.rstudio.studio.client.RStudioGinjector;
 import org.rstudio.studio.client.application.events.EventBus;
 import org.rstudio.studio.client.common.SimpleRequestCallback;
 import org.rstudio.studio.client.common.ValueChangeHandlerManager;
@@ -76,6 +77,7 @@ public class DocUpdateSentinel
       {
          sourceDoc_ = response;
          docDisplay_.setCode(sourceDoc_.getContents(), true);
+         deltaTracker_.invalidate();
          dirtyState_.markClean();
 
          if (progress_ != null)
@@ -114,6 +116,8 @@ public class DocUpdateSentinel
       dirtyState_ = dirtyState;
       eventBus_ = events;
       changeTracker_ = docDisplay.getChangeTracker();
+      deltaTracker_ = new EditDeltaTracker(docDisplay);
+      propertyWriteQueue_ = RStudioGinjector.INSTANCE.getDocPropertyWriteQueue();
       propertyChangeHandlers_ = 
             new HashMap<String, ValueChangeHandlerManager<String>>();
 
@@ -340,7 +344,11 @@ public class DocUpdateSentinel
 
                String newMarksSpec = VimMarks.encode(docDisplay_.getMarks());
                if (oldMarksSpec != newMarksSpec)
-                  setProperty("marks", newMarksSpec);
+               {
+                  HashMap<String, String> props = new HashMap<String, String>();
+                  props.put("marks", newMarksSpec);
+                  queueProperties(props);
+               }
             }
          }
       });
@@ -359,8 +367,7 @@ public class DocUpdateSentinel
          actually sent to the server. */
       final ChangeTracker thisChangeTracker = changeTracker_.fork();
 
-      final String newContents = docDisplay_.getCode();
-      String oldContents = sourceDoc_.getContents();
+      final String oldContents = sourceDoc_.getContents();
       final String hash = sourceDoc_.getHash();
 
       final String foldSpec = Fold.encode(Fold.flatten(docDisplay_.getFolds()));
@@ -370,12 +377,38 @@ public class DocUpdateSentinel
       JsArray<ChunkDefinition> oldChunkDefs = 
             sourceDoc_.getNotebookDoc().getChunkDefs();
       
-      //String patch = DiffMatchPatch.diff(oldContents, newContents);
-      SubstringDiff diff = new SubstringDiff(oldContents, newContents);
+      // Only serialize the region touched by edits since the last save;
+      // if that isn't known, compare the full document instead.
+      final String replacement;
+      final int offset;
+      final int length;
+      String fullContents = null;
+      EditDeltaTracker.Delta delta = deltaTracker_.computeDelta(oldContents);
+      if (delta != null)
+      {
+         replacement = delta.getReplacement();
+         offset = delta.getOffset();
+         length = delta.getLength();
+      }
+      else
+      {
+         //String patch = DiffMatchPatch.diff(oldContents, newContents);
+         fullContents = docDisplay_.getCode();
+         SubstringDiff diff = new SubstringDiff(oldContents, fullContents);
+         replacement = diff.getReplacement();
+         offset = diff.getOffset();
+         length = diff.getLength();
+         if (diff.isEmpty())
+            deltaTracker_.markSynced();
+      }
+      final String newContents = fullContents != null ? fullContents :
+            oldContents.substring(0, offset) + replacement +
+            oldContents.substring(offset + length);
 
       // Don't auto-save when there are no changes. In addition to being
       // wasteful, it causes the server to think the document is dirty.
-      if (path == null && fileType == null && diff.isEmpty()
+      if (path == null && fileType == null
+          && length == 0 && replacement.length() == 0
           && foldSpec == oldFoldSpec 
           && (newChunkDefs == null || 
               ChunkDefinition.equalTo(newChunkDefs, oldChunkDefs)))
@@ -411,6 +444,7 @@ public class DocUpdateSentinel
          Debug.logException(e);
       }
 
+      final EditDeltaTracker.Snapshot snapshot = deltaTracker_.snapshot();
       server_.saveDocumentDiff(
             sourceDoc_.getId(),
             path,
@@ -418,9 +452,9 @@ public class DocUpdateSentinel
             encoding,
             foldSpec,
             newChunkDefs,
-            diff.getReplacement(),
-            diff.getOffset(),
-            diff.getLength(),
+            replacement,
+            offset,
+            length,
             hash,
             new ServerRequestCallback<String>()
             {
@@ -428,6 +462,7 @@ public class DocUpdateSentinel
                public void onError(ServerError error)
                {
                   Debug.logError(error);
+                  deltaTracker_.abandon(snapshot);
                   if (progress != null)
                      progress.onError(error.getUserMessage());
                   try
@@ -455,6 +490,7 @@ public class DocUpdateSentinel
                      {
                         if (!thisChangeTracker.hasChanged())
                            changeTracker_.reset();
+                        deltaTracker_.acknowledge(snapshot);
                         
                         // update the foldSpec and newChunkDefs so we 
                         // can use them for change detection the next
@@ -487,6 +523,7 @@ public class DocUpdateSentinel
                   {
                      // We just hit a race condition where two updates
                      // happened at once. Try again
+                     deltaTracker_.abandon(snapshot);
                      doSave(path, fileType, encoding, progress);
                   }
                   else
@@ -622,6 +659,9 @@ public class DocUpdateSentinel
    public void modifyProperties(final HashMap<String, String> properties,
                                 final ProgressIndicator progress)
    {
+      // these values supersede any queued for the same properties
+      propertyWriteQueue_.cancel(sourceDoc_.getId(), properties.keySet());
+      
       server_.modifyDocumentProperties(
             sourceDoc_.getId(),
             properties,
@@ -650,6 +690,26 @@ public class DocUpdateSentinel
       modifyProperties(properties, null);
    }
    
+   /**
+    * Like modifyProperties, but for properties which are written often and
+    * needn't reach the server right away (e.g. the cursor position); these
+    * are batched with other documents' writes by the DocPropertyWriteQueue.
+    */
+   public void queueProperties(HashMap<String, String> properties)
+   {
+      propertyWriteQueue_.enqueue(
+            sourceDoc_.getId(),
+            properties,
+            new DocPropertyWriteQueue.Callback()
+            {
+               @Override
+               public void onWritten(HashMap<String, String> written)
+               {
+                  applyProperties(sourceDoc_.getProperties(), written);
+               }
+            });
+   }
+   
    public HandlerRegistration addPropertyValueChangeHandler(
          final String propertyName,
          final ValueChangeHandler<String> handler)
@@ -709,6 +769,7 @@ public class DocUpdateSentinel
 
    public void stop()
    {
+      propertyWriteQueue_.flush();
       autosaver_.suspend();
       closeHandlerReg_.removeHandler();
       lastChanceSaveHandlerReg_.removeHandler();
@@ -764,6 +825,8 @@ public class DocUpdateSentinel
    
    private boolean changesPending_ = false;
    private final ChangeTracker changeTracker_;
+   private final EditDeltaTracker deltaTracker_;
+   private final DocPropertyWriteQueue propertyWriteQueue_;
    private final SourceServerOperations server_;
    private final DocDisplay docDisplay_;
    private SourceDocument sourceDoc_;
@@ -0,0 +1,278 @@
+/*
+ * EditDeltaTracker.java
+ *
+ * Copyright (C) 2009-17 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.model;
+
+import java.util.ArrayList;
+
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.AceDocumentChangeEventNative;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Position;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Range;
+import org.rstudio.studio.client.workbench.views.source.editors.text.events.DocumentChangedEvent;
+
+/**
+ * Accumulates the rows of a document which have been touched by edits since
+ * the contents were last acknowledged by the server, so that a save only
+ * needs to serialize the dirty region instead of the whole document.
+ *
+ * The dirty region is kept as the number of untouched rows at the start and
+ * at the end of the document; both are unaffected by edits elsewhere in the
+ * document, so regions from successive edits can be merged by taking the
+ * minimum of each.
+ *
+ * Saves take a Snapshot of the region accumulated so far. Edits made while
+ * a save is in flight go into a new region, so that acknowledging the save
+ * leaves exactly the edits the server hasn't seen yet.
+ */
+public class EditDeltaTracker implements DocumentChangedEvent.Handler
+{
+   public static class Delta
+   {
+      private Delta(int offset, int length, String replacement)
+      {
+         offset_ = offset;
+         length_ = length;
+         replacement_ = replacement;
+      }
+
+      public int getOffset()
+      {
+         return offset_;
+      }
+
+      public int getLength()
+      {
+         return length_;
+      }
+
+      public String getReplacement()
+      {
+         return replacement_;
+      }
+
+      public boolean isEmpty()
+      {
+         return length_ == 0 && replacement_.length() == 0;
+      }
+
+      public String apply(String contents)
+      {
+         return contents.substring(0, offset_) + replacement_ +
+                contents.substring(offset_ + length_);
+      }
+
+      private final int offset_;
+      private final int length_;
+      private final String replacement_;
+   }
+
+   /**
+    * The edits taken by a single save.
+    */
+   public static class Snapshot
+   {
+      private Snapshot(Region region)
+      {
+         region_ = region;
+      }
+
+      private Region region_;
+   }
+
+   public EditDeltaTracker(TrackedDocument document)
+   {
+      document_ = document;
+      document_.addDocumentChangedHandler(this);
+   }
+
+   @Override
+   public void onDocumentChanged(DocumentChangedEvent event)
+   {
+      // change events arrive after the edit has been applied, so the range
+      // of an insert is in the new document and that of a removal is in
+      // the old one; either way the rows after its last affected row in
+      // the new document are untouched
+      AceDocumentChangeEventNative change = event.getEvent();
+      Range range = change.getRange();
+      int startRow = range.getStart().getRow();
+      int lastRow = change.getAction().startsWith("insert") ?
+            range.getEnd().getRow() : startRow;
+
+      current_.merge(startRow, document_.getRowCount() - lastRow - 1);
+   }
+
+   /**
+    * Computes the change which turns the last acknowledged contents into
+    * the current contents of the editor.
+    *
+    * @param baseline The contents last acknowledged by the server
+    * @return The change, or null if the dirty region isn't known and the
+    * caller needs to compare the full document instead
+    */
+   public Delta computeDelta(String baseline)
+   {
+      Region region = new Region();
+      region.valid_ = true;
+      region.merge(current_);
+      for (Snapshot snapshot : pending_)
+         region.merge(snapshot.region_);
+
+      if (!region.valid_ || baseline.length() == 0)
+         return null;
+      if (region.isClean())
+         return new Delta(0, 0, "");
+
+      int rowCount = document_.getRowCount();
+      int startRow = region.prefixRows_;
+      int endRow = rowCount - region.suffixRows_;
+      if (startRow > endRow)
+         return null;
+
+      int docLength = document_.positionToIndex(endOfDocument(rowCount));
+      int offset = document_.positionToIndex(Position.create(startRow, 0));
+      Position endPos = endRow < rowCount ?
+            Position.create(endRow, 0) : endOfDocument(rowCount);
+      int suffixChars = docLength - document_.positionToIndex(endPos);
+      int length = baseline.length() - offset - suffixChars;
+      if (length < 0)
+         return null;
+
+      // make sure the rows on either side of the region really are the
+      // ones we think they are before trusting the region
+      if (startRow > 0)
+      {
+         String before = document_.getTextForRange(
+               Range.create(startRow - 1, 0, startRow, 0));
+         if (!baseline.startsWith(before, offset - before.length()))
+            return null;
+      }
+      if (endRow < rowCount)
+      {
+         String after = document_.getTextForRange(Range.fromPoints(
+               endPos,
+               endRow + 1 < rowCount ? Position.create(endRow + 1, 0)
+                                     : endOfDocument(rowCount)));
+         if (!baseline.startsWith(after, offset + length))
+            return null;
+      }
+
+      String replacement = document_.getTextForRange(
+            Range.fromPoints(Position.create(startRow, 0), endPos));
+      if (replacement.length() == length &&
+          baseline.regionMatches(offset, replacement, 0, length))
+      {
+         // edits which cancelled each other out
+         return new Delta(0, 0, "");
+      }
+
+      return new Delta(offset, length, replacement);
+   }
+
+   /**
+    * Marks the moment a save took the contents of the editor. Edits made
+    * from here on are tracked relative to those contents.
+    */
+   public Snapshot snapshot()
+   {
+      Snapshot snapshot = new Snapshot(current_);
+      pending_.add(snapshot);
+      current_ = new Region();
+      current_.valid_ = true;
+      return snapshot;
+   }
+
+   /**
+    * The server accepted the contents taken by the given snapshot (and
+    * therefore everything taken by earlier snapshots).
+    */
+   public void acknowledge(Snapshot snapshot)
+   {
+      int index = pending_.indexOf(snapshot);
+      for (int i = 0; i <= index; i++)
+         pending_.remove(0);
+   }
+
+   /**
+    * The save which took the given snapshot failed; its edits still need
+    * to be sent by a later save.
+    */
+   public void abandon(Snapshot snapshot)
+   {
+      int index = pending_.indexOf(snapshot);
+      if (index == -1)
+         return;
+
+      pending_.remove(index);
+      if (index < pending_.size())
+         pending_.get(index).region_.merge(snapshot.region_);
+      else
+         current_.merge(snapshot.region_);
+   }
+
+   /**
+    * The editor is known to match the last acknowledged contents.
+    */
+   public void markSynced()
+   {
+      if (pending_.isEmpty())
+      {
+         current_ = new Region();
+         current_.valid_ = true;
+      }
+   }
+
+   /**
+    * The editor's contents were replaced wholesale; fall back to comparing
+    * full documents until the next save is acknowledged.
+    */
+   public void invalidate()
+   {
+      pending_.clear();
+      current_ = new Region();
+   }
+
+   private Position endOfDocument(int rowCount)
+   {
+      return Position.create(rowCount - 1,
+                             document_.getLength(rowCount - 1));
+   }
+
+   private static class Region
+   {
+      public void merge(int prefixRows, int suffixRows)
+      {
+         prefixRows_ = Math.min(prefixRows_, prefixRows);
+         suffixRows_ = Math.min(suffixRows_, suffixRows);
+      }
+
+      public void merge(Region other)
+      {
+         merge(other.prefixRows_, other.suffixRows_);
+         valid_ = valid_ && other.valid_;
+      }
+
+      public boolean isClean()
+      {
+         return prefixRows_ == Integer.MAX_VALUE;
+      }
+
+      private int prefixRows_ = Integer.MAX_VALUE;
+      private int suffixRows_ = Integer.MAX_VALUE;
+      private boolean valid_ = false;
+   }
+
+   private final TrackedDocument document_;
+   private final ArrayList<Snapshot> pending_ = new ArrayList<Snapshot>();
+   private Region current_ = new Region();
+}
@@ -163,6 +163,14 @@ public interface SourceServerOperations extends FilesServerOperations,
    void modifyDocumentProperties(String id, HashMap<String, String> properties,
                                  ServerRequestCallback<Void> requestCallback);
    
+   /**
+    * Applies property changes to several documents in one request; the
+    * map is keyed by document id.
+    */
+   void modifyDocumentsProperties(
+         HashMap<String, HashMap<String, String>> properties,
+         ServerRequestCallback<Void> requestCallback);
+   
    void getDocumentProperties(String path, 
                               ServerRequestCallback<JsObject> requestCallback);
 
@@ -0,0 +1,31 @@
+/*
+ * TrackedDocument.java
+ *
+ * Copyright (C) 2009-17 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.model;
+
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Position;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Range;
+import org.rstudio.studio.client.workbench.views.source.editors.text.events.HasDocumentChangedHandlers;
+
+/**
+ * The parts of an editor's document which EditDeltaTracker needs: its
+ * contents by row and its change events.
+ */
+public interface TrackedDocument extends HasDocumentChangedHandlers
+{
+   int getRowCount();
+   int getLength(int row);
+   int positionToIndex(Position position);
+   String getTextForRange(Range range);
+}
@@ -76,6 +76,7 @@ public class TerminalInfoDialog extends ModalDialogBase
          diagnostics.append("Interactive: '" + cpi.getInteractionModeName() + "'\n");
          diagnostics.append("WebSockets:  '" + uiPrefs_.terminalUseWebsockets().getValue() + "'\n");
          diagnostics.append("Typing lag:  '" + session.getSocket().getTypingLagMsg() + "'\n");
+         diagnostics.append("Input RPC:   '" + session.getSocket().getInputRpcLagMsg() + "'\n");
 
          diagnostics.append("\nSystem Information\n------------------\n");
          diagnostics.append("Desktop:    '" + Desktop.isDesktop() + "'\n");
@@ -16,6 +16,7 @@
 package org.rstudio.studio.client.workbench.views.terminal;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 
 import org.rstudio.core.client.AnsiCode;
 import org.rstudio.core.client.BrowseCap;
@@ -228,6 +229,7 @@ public class TerminalSession extends XTermWidget
    {
       inputQueue_.setLength(0);
       inputSequence_ = ShellInput.IGNORE_SEQUENCE;
+      inputInFlight_ = false;
       socket_.disconnect(permanent);
       registrations_.removeHandler();
       consoleProcess_ = null;
@@ -289,6 +291,10 @@ public class TerminalSession extends XTermWidget
    {
       if (input != null)
       {
+         // echo as it's typed, even if it has to wait for an earlier
+         // request to complete before it's sent
+         if (connected_)
+            socket_.echoInput(input, doLocalEcho());
          inputQueue_.append(input);
       }
 
@@ -324,14 +330,16 @@ public class TerminalSession extends XTermWidget
     * Send user input to the server, breaking down into chunks. We do this
     * for when a large amount of text is pasted into the terminal; we don't
     * want to overwhelm the RPC.
-    * @param userInput string to send
+    * 
+    * Only one request is sent at a time; input that arrives while it is in
+    * flight is queued and sent together once it completes.
     */
    private void sendUserInput()
    {
       final int MAXCHUNK = 128;
       String userInput;
 
-      if (inputQueue_.length() == 0)
+      if (inputQueue_.length() == 0 || inputInFlight_)
       {
          return;
       }
@@ -376,20 +384,26 @@ public class TerminalSession extends XTermWidget
          }
       }
       
-      socket_.dispatchInput(inputSequence_, userInput, doLocalEcho(),
+      inputInFlight_ = true;
+      socket_.dispatchInput(inputSequence_, userInput,
             new VoidServerRequestCallback() {
 
                @Override
                public void onResponseReceived(Void response)
                {
+                  inputInFlight_ = false;
                   sendUserInput();
                }
 
                @Override
                public void onError(ServerError error)
                {
+                  inputInFlight_ = false;
                   Debug.logError(error);
                   writeError(error.getUserMessage());
+
+                  // don't leave queued input waiting for the next keystroke
+                  sendUserInput();
                }
             });
    }
@@ -465,6 +479,7 @@ public class TerminalSession extends XTermWidget
     */
    public void clearBuffer()
    {
+      socket_.flushOutput();
       clear();
       
       // talk directly to the server so it will wake up if suspended and
@@ -497,6 +512,7 @@ public class TerminalSession extends XTermWidget
 
    protected void writeError(String msg)
    {
+      socket_.flushOutput();
       writeln(AnsiCode.ForeColor.RED + "Error: " + msg + AnsiCode.DEFAULTCOLORS);
    }
 
@@ -669,7 +685,7 @@ public class TerminalSession extends XTermWidget
       else
       {
          reloading_ = true;
-         fetchNextChunk(0);
+         reloadBuffer();
       }
    }
 
@@ -696,7 +712,13 @@ public class TerminalSession extends XTermWidget
       }
    }
    
-   private void fetchNextChunk(final int chunkToFetch)
+   /**
+    * Reload the terminal's buffer from the server. Chunk zero is fetched on
+    * its own (requesting it makes the server trim the buffer), after which
+    * up to RELOAD_PIPELINE_DEPTH chunk requests are kept in flight; chunks
+    * are written to the terminal in order as they arrive.
+    */
+   private void reloadBuffer()
    {
       if (!shellSupportsReload())
       {
@@ -704,55 +726,101 @@ public class TerminalSession extends XTermWidget
          return;
       }
 
+      final int generation = ++reloadGeneration_;
+      receivedChunks_.clear();
+      nextChunkToWrite_ = 0;
+      nextChunkToRequest_ = 0;
+
       Scheduler.get().scheduleDeferred(new ScheduledCommand()
       {
          @Override
          public void execute()
          {
             onResize();
-            if (consoleProcess_ != null)
-            {
-               consoleProcess_.getTerminalBufferChunk(chunkToFetch,
-                     new ServerRequestCallback<ProcessBufferChunk>()
-               {
-                  @Override
-                  public void onResponseReceived(final ProcessBufferChunk chunk)
-                  {
-                     write(chunk.getChunk());
-                     if (chunk.getMoreAvailable())
-                     {
-                        fetchNextChunk(chunk.getChunkNumber() + 1);
-                     }
-                     else
-                     {
-                        writeRestartSequence();
-                        if (procInfo_.getZombie())
-                           showZombieMessage();
-                        reloading_ = false;
-                        for (String outputStr : deferredOutput_)
-                        {
-                           socket_.dispatchOutput(outputStr, doLocalEcho());
-                        }
-                        deferredOutput_.clear();
-                     }
-                  }
+            fetchChunk(generation);
+         }
+      });
+   }
 
-                  @Override
-                  public void onError(ServerError error)
-                  {
-                     Debug.logError(error);
-                     writeError(error.getUserMessage());
-                     reloading_ = false;
-                     deferredOutput_.clear();
-                  }
-               });
-            }
+   private void fetchChunk(final int generation)
+   {
+      if (consoleProcess_ == null)
+         return;
+
+      final int chunkToFetch = nextChunkToRequest_++;
+      consoleProcess_.getTerminalBufferChunk(chunkToFetch,
+            new ServerRequestCallback<ProcessBufferChunk>()
+      {
+         @Override
+         public void onResponseReceived(final ProcessBufferChunk chunk)
+         {
+            // ignore responses for a reload that has since finished, failed
+            // or been restarted
+            if (generation != reloadGeneration_ || !reloading_)
+               return;
+
+            receivedChunks_.put(chunkToFetch, chunk);
+            writeReceivedChunks(generation);
+         }
+
+         @Override
+         public void onError(ServerError error)
+         {
+            if (generation != reloadGeneration_ || !reloading_)
+               return;
+
+            Debug.logError(error);
+            writeError(error.getUserMessage());
+            reloading_ = false;
+            deferredOutput_.clear();
          }
       });
    }
+
+   private void writeReceivedChunks(int generation)
+   {
+      while (receivedChunks_.containsKey(nextChunkToWrite_))
+      {
+         ProcessBufferChunk chunk = receivedChunks_.remove(nextChunkToWrite_);
+         nextChunkToWrite_++;
+         write(chunk.getChunk());
+         if (!chunk.getMoreAvailable())
+         {
+            // requests past the end of the buffer may still be in flight;
+            // their (empty) responses are ignored
+            receivedChunks_.clear();
+            onReloadFinished();
+            return;
+         }
+      }
+
+      // keep the pipeline full (requesting past the end of the buffer is
+      // harmless, the server returns an empty chunk)
+      while (nextChunkToWrite_ > 0 &&
+             nextChunkToRequest_ < nextChunkToWrite_ + RELOAD_PIPELINE_DEPTH)
+      {
+         fetchChunk(generation);
+      }
+   }
+
+   private void onReloadFinished()
+   {
+      writeRestartSequence();
+      if (procInfo_.getZombie())
+         showZombieMessage();
+      reloading_ = false;
+
+      // output that arrived during the reload follows the buffer, in order
+      for (String outputStr : deferredOutput_)
+      {
+         socket_.dispatchOutput(outputStr, doLocalEcho());
+      }
+      deferredOutput_.clear();
+   }
    
    public void showZombieMessage()
    {
+      socket_.flushOutput();
       writeln("[Process completed]");
       write("[Exit code: ");
       if (procInfo_.getExitCode() != null)
@@ -847,9 +915,15 @@ public class TerminalSession extends XTermWidget
    private boolean terminating_;
    private boolean reloading_;
    private ArrayList<String> deferredOutput_ = new ArrayList<String>();
+   private int reloadGeneration_;
+   private HashMap<Integer, ProcessBufferChunk> receivedChunks_ =
+         new HashMap<Integer, ProcessBufferChunk>();
+   private int nextChunkToWrite_;
+   private int nextChunkToRequest_;
    private boolean restartSequenceWritten_;
    private StringBuilder inputQueue_ = new StringBuilder();
    private int inputSequence_ = ShellInput.IGNORE_SEQUENCE;
+   private boolean inputInFlight_ = false;
    private boolean newTerminal_ = true;
    private boolean showAltAfterReload_;
    private boolean createdByApi_;
@@ -858,4 +932,7 @@ public class TerminalSession extends XTermWidget
    private WorkbenchServerOperations server_; 
    private EventBus eventBus_;
    private UIPrefs uiPrefs_;
+
+   // number of buffer chunk requests kept in flight while reloading
+   private static final int RELOAD_PIPELINE_DEPTH = 4;
 }
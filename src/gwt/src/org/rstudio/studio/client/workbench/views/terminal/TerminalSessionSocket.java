@@ -20,6 +20,7 @@ import java.util.LinkedList;
 import org.rstudio.core.client.Debug;
 import org.rstudio.core.client.HandlerRegistrations;
 import org.rstudio.core.client.Stopwatch;
+import org.rstudio.core.client.StringSink;
 import org.rstudio.core.client.StringUtil;
 import org.rstudio.core.client.regex.Pattern;
 import org.rstudio.studio.client.application.Desktop;
@@ -34,6 +35,8 @@ import org.rstudio.studio.client.server.VoidServerRequestCallback;
 import org.rstudio.studio.client.workbench.views.terminal.events.TerminalDataInputEvent;
 import org.rstudio.studio.client.workbench.views.terminal.xterm.XTermWidget;
 
+import com.google.gwt.animation.client.AnimationScheduler;
+import com.google.gwt.animation.client.AnimationScheduler.AnimationCallback;
 import com.google.gwt.core.client.GWT;
 import com.google.gwt.event.shared.HandlerRegistration;
 import com.sksamuel.gwt.websockets.CloseEvent;
@@ -142,10 +145,100 @@ public class TerminalSessionSocket
       {
          return Long.toString(average()) + "ms";
       }
+
+      // round trips of writeStandardInput RPCs (only one is in flight at
+      // a time)
+      public void inputRpcSent()
+      {
+         rpcStopWatch_.reset();
+      }
+
+      public void inputRpcCompleted()
+      {
+         accumulatedRpcPoints_++;
+         accumulatedRpcTime_ += rpcStopWatch_.mark("Input RPC");
+      }
+
+      public String averageRpcTimeMsg()
+      {
+         if (accumulatedRpcPoints_ == 0)
+            return "<none>";
+         return Long.toString(accumulatedRpcTime_ / accumulatedRpcPoints_) +
+               "ms (" + accumulatedRpcPoints_ + " requests)";
+      }
       
       private LinkedList<InputDatapoint> pending_;
       private long accumulatedPoints_;
       private long accumulatedTime_;
+      private Stopwatch rpcStopWatch_ = new Stopwatch(false);
+      private long accumulatedRpcPoints_;
+      private long accumulatedRpcTime_;
+   }
+
+   // Accumulates output for the terminal emulator and writes it once per
+   // animation frame, so a burst of small messages (e.g. from `find /`)
+   // doesn't cost a write to xterm each; at most MAX_FLUSH_CHARS are written
+   // per frame so a huge burst doesn't stall the page
+   class OutputBuffer implements StringSink
+   {
+      @Override
+      public void write(String str)
+      {
+         if (StringUtil.isNullOrEmpty(str))
+            return;
+
+         pending_.append(str);
+         scheduleFlush();
+      }
+
+      /**
+       * Write all pending output now, e.g. before something else writes to
+       * the terminal directly.
+       */
+      public void flush()
+      {
+         flush(pending_.length());
+      }
+
+      private void flush(int maxChars)
+      {
+         int end = Math.min(maxChars, pending_.length());
+         if (end == 0)
+            return;
+
+         // don't split a surrogate pair across writes
+         if (end < pending_.length() &&
+             Character.isHighSurrogate(pending_.charAt(end - 1)))
+         {
+            end--;
+         }
+
+         String output = pending_.substring(0, end);
+         pending_.delete(0, end);
+         xterm_.write(output);
+      }
+
+      private void scheduleFlush()
+      {
+         if (scheduled_)
+            return;
+
+         scheduled_ = true;
+         AnimationScheduler.get().requestAnimationFrame(new AnimationCallback()
+         {
+            @Override
+            public void execute(double timestamp)
+            {
+               scheduled_ = false;
+               flush(MAX_FLUSH_CHARS);
+               if (pending_.length() > 0)
+                  scheduleFlush();
+            }
+         });
+      }
+
+      private final StringBuilder pending_ = new StringBuilder();
+      private boolean scheduled_;
    }
    
    /**
@@ -158,7 +251,11 @@ public class TerminalSessionSocket
    {
       session_ = session;
       xterm_ = xterm;
-      localEcho_ = new TerminalLocalEcho(xterm_);
+      outputBuffer_ = new OutputBuffer();
+
+      // local-echo goes through the output buffer so it stays in order
+      // with output from the server
+      localEcho_ = new TerminalLocalEcho(outputBuffer_);
 
       // Show delay between receiving a keystroke and sending it to the 
       // terminal emulator; for diagnostics on laggy typing.
@@ -290,28 +387,54 @@ public class TerminalSessionSocket
    }
    
    /**
-    * Send user input to the server.
-    * @param inputSequence used to fix out-of-order RPC calls
-    * @param input text to send
+    * Echo user input locally (if appropriate) as it is typed, ahead of it
+    * being sent to the server.
+    * @param input text typed by the user
     * @param localEcho echo input locally
-    * @param requestCallback callback
     */
-   public void dispatchInput(int inputSequence,
-                             String input,
-                             boolean localEcho,
-                             VoidServerRequestCallback requestCallback)
+   public void echoInput(String input, boolean localEcho)
    {
       if (localEcho)
+      {
+         // show the keystroke (and anything pending before it) right away
          localEcho_.echo(input);
+         outputBuffer_.flush();
+      }
       else
          localEcho_.clear();
+   }
 
+   /**
+    * Send user input to the server.
+    * @param inputSequence used to fix out-of-order RPC calls
+    * @param input text to send
+    * @param requestCallback callback
+    */
+   public void dispatchInput(int inputSequence,
+                             String input,
+                             final VoidServerRequestCallback requestCallback)
+   {
       switch (consoleProcess_.getChannelMode())
       {
       case ConsoleProcessInfo.CHANNEL_RPC:
+         inputEchoTiming_.inputRpcSent();
          consoleProcess_.writeStandardInput(
                ShellInput.create(inputSequence, input,  true /*echo input*/), 
-               requestCallback);
+               new VoidServerRequestCallback()
+               {
+                  @Override
+                  public void onResponseReceived(Void response)
+                  {
+                     inputEchoTiming_.inputRpcCompleted();
+                     requestCallback.onResponseReceived(response);
+                  }
+
+                  @Override
+                  public void onError(ServerError error)
+                  {
+                     requestCallback.onError(error);
+                  }
+               });
          break;
       case ConsoleProcessInfo.CHANNEL_WEBSOCKET:
          if (socket_ != null)
@@ -323,6 +446,9 @@ public class TerminalSessionSocket
          break;
       case ConsoleProcessInfo.CHANNEL_PIPE:
       default:
+         // input isn't sent on this channel; complete the request so the
+         // caller doesn't wait on it
+         requestCallback.onResponseReceived(null);
          break;
       }
    }
@@ -348,12 +474,21 @@ public class TerminalSessionSocket
       }
       if (!detectLocalEcho || localEcho_.isEmpty())
       {
-         xterm_.write(output);
+         outputBuffer_.write(output);
          return;
       }
       
       localEcho_.write(output);
    }
+
+   /**
+    * Write any output still waiting for the next animation frame to the
+    * terminal emulator; call before writing to the terminal directly.
+    */
+   public void flushOutput()
+   {
+      outputBuffer_.flush();
+   }
    
    @Override
    public void onTerminalDataInput(TerminalDataInputEvent event)
@@ -387,6 +522,7 @@ public class TerminalSessionSocket
    public void disconnect(boolean permanent)
    {
       diagnostic(permanent ? "Permanently Disconnected" : "Disconnected");
+      outputBuffer_.flush();
       if (socket_ != null)
          socket_.close();
       socket_ = null;
@@ -437,10 +573,16 @@ public class TerminalSessionSocket
    {
       return inputEchoTiming_.averageTimeMsg();
    }
+
+   public String getInputRpcLagMsg()
+   {
+      return inputEchoTiming_.averageRpcTimeMsg();
+   }
  
    private HandlerRegistrations registrations_ = new HandlerRegistrations();
    private final Session session_;
    private final XTermWidget xterm_;
+   private final OutputBuffer outputBuffer_;
    private ConsoleProcess consoleProcess_;
    private HandlerRegistration terminalInputHandler_;
    private InputEchoTimeMonitor inputEchoTiming_;
@@ -454,4 +596,7 @@ public class TerminalSessionSocket
    
    public static final Pattern PASSWORD_PATTERN =
          Pattern.create(PASSWORD_REGEX, "im");
+
+   // most output written to the terminal emulator in one animation frame
+   private static final int MAX_FLUSH_CHARS = 64 * 1024;
 }
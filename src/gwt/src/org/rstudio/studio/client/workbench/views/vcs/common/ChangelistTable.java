@@ -28,6 +28,7 @@ import com.google.gwt.text.shared.SafeHtmlRenderer;
 import com.google.gwt.user.cellview.client.CellTable;
 import com.google.gwt.user.cellview.client.Column;
 import com.google.gwt.user.cellview.client.ColumnSortEvent;
+import com.google.gwt.user.cellview.client.ColumnSortList;
 import com.google.gwt.user.client.ui.Composite;
 import com.google.gwt.user.client.ui.LayoutPanel;
 import com.google.gwt.user.client.ui.ScrollPanel;
@@ -39,8 +40,11 @@ import org.rstudio.core.client.widget.ProgressPanel;
 import org.rstudio.studio.client.common.vcs.StatusAndPath;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 public abstract class ChangelistTable extends Composite
@@ -317,6 +321,100 @@ public abstract class ChangelistTable extends Composite
       }
    }
 
+   /**
+    * Patches the table with the given changes rather than replacing all of
+    * its items; only the affected rows are redrawn.
+    */
+   public void updateItems(ArrayList<StatusAndPath> added,
+                           ArrayList<StatusAndPath> removed,
+                           ArrayList<StatusAndPath> changed)
+   {
+      List<StatusAndPath> items = dataProvider_.getList();
+      ArrayList<StatusAndPath> inserted = new ArrayList<StatusAndPath>(added);
+
+      HashMap<String, Integer> rows = new HashMap<String, Integer>();
+      if (!removed.isEmpty() || !changed.isEmpty())
+      {
+         for (int i = 0; i < items.size(); i++)
+            rows.put(items.get(i).getPath(), i);
+      }
+
+      // changed entries keep their rows (and, since rows are keyed by path,
+      // their selection state)
+      for (StatusAndPath item : changed)
+      {
+         Integer row = rows.get(item.getPath());
+         if (row != null)
+            items.set(row, item);
+         else
+            inserted.add(item);
+      }
+
+      // remove from the bottom up so the remaining row indexes stay valid
+      ArrayList<Integer> removedRows = new ArrayList<Integer>();
+      for (StatusAndPath item : removed)
+      {
+         Integer row = rows.get(item.getPath());
+         if (row != null)
+         {
+            removedRows.add(row);
+            selectionModel_.setSelected(items.get(row), false);
+         }
+      }
+      Collections.sort(removedRows, Collections.<Integer>reverseOrder());
+      for (int row : removedRows)
+         items.remove(row);
+
+      // insert new entries at their sorted positions
+      Comparator<StatusAndPath> comparator = getSortComparator();
+      for (StatusAndPath item : inserted)
+      {
+         int row = items.size();
+         if (comparator != null)
+         {
+            int low = 0;
+            while (low < row)
+            {
+               int mid = (low + row) >>> 1;
+               if (comparator.compare(items.get(mid), item) <= 0)
+                  low = mid + 1;
+               else
+                  row = mid;
+            }
+         }
+         items.add(row, item);
+      }
+
+      table_.setPageSize(items.size());
+   }
+
+   // returns the comparator the table is currently sorted with, or null if
+   // it isn't sorted
+   @SuppressWarnings("unchecked")
+   private Comparator<StatusAndPath> getSortComparator()
+   {
+      ColumnSortList sortList = table_.getColumnSortList();
+      if (sortList.size() == 0)
+         return null;
+
+      ColumnSortList.ColumnSortInfo sortInfo = sortList.get(0);
+      final Comparator<StatusAndPath> comparator = sortHandler_.getComparator(
+            (Column<StatusAndPath, ?>) sortInfo.getColumn());
+      if (comparator == null)
+         return null;
+
+      final boolean ascending = sortInfo.isAscending();
+      return new Comparator<StatusAndPath>()
+      {
+         @Override
+         public int compare(StatusAndPath a, StatusAndPath b)
+         {
+            int result = comparator.compare(a, b);
+            return ascending ? result : -result;
+         }
+      };
+   }
+
    public ArrayList<StatusAndPath> getSelectedItems()
    {
       SelectionModel<? super StatusAndPath> selectionModel = table_.getSelectionModel();
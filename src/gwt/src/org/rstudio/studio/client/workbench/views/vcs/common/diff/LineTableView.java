@@ -426,6 +426,69 @@ public class LineTableView extends MultiSelectCellTable<ChunkOrLine> implements
       useEndBorder_ = useEndBorder;
    }
 
+   /**
+    * In windowed mode only the rows near the region passed to showWindow are
+    * rendered; the space of the others is reserved with margins, so the
+    * height of the table doesn't depend on which rows are rendered. Must be
+    * set before calling setData.
+    */
+   public void setWindowed(boolean windowed)
+   {
+      windowed_ = windowed;
+   }
+
+   /**
+    * Renders the rows intersecting the given region (in pixels, relative to
+    * the top of the table) if they aren't already rendered.
+    */
+   public void showWindow(int top, int bottom)
+   {
+      if (!windowed_ || lines_.isEmpty())
+         return;
+
+      // rows are rendered lazily, so we can only measure them once the
+      // previous window is in the DOM
+      if (!rowHeightMeasured_ && windowEnd_ > windowStart_)
+      {
+         int bodyHeight = getTableBodyElement().getOffsetHeight();
+         if (bodyHeight > 0)
+         {
+            rowHeight_ = Math.max(1, bodyHeight / (windowEnd_ - windowStart_));
+            rowHeightMeasured_ = true;
+            updateWindowMargins();
+         }
+      }
+
+      int rowCount = lines_.size();
+      int first = Math.max(0, Math.min(rowCount, top / rowHeight_));
+      int last = Math.max(0, Math.min(rowCount, bottom / rowHeight_ + 1));
+      if (first >= windowStart_ && last <= windowEnd_ &&
+          windowEnd_ > windowStart_)
+      {
+         return;
+      }
+
+      renderWindow(Math.max(0, first - WINDOW_OVERSCAN_ROWS),
+                   Math.min(rowCount, last + WINDOW_OVERSCAN_ROWS));
+   }
+
+   private void renderWindow(int start, int end)
+   {
+      windowStart_ = start;
+      windowEnd_ = end;
+
+      setVisibleRange(start, end - start);
+      setRowData(start, new ArrayList<ChunkOrLine>(lines_.subList(start, end)));
+      updateWindowMargins();
+   }
+
+   private void updateWindowMargins()
+   {
+      getElement().getStyle().setMarginTop(windowStart_ * rowHeight_, Unit.PX);
+      getElement().getStyle().setMarginBottom(
+            (lines_.size() - windowEnd_) * rowHeight_, Unit.PX);
+   }
+
    @Override
    public void setData(ArrayList<ChunkOrLine> diffData, PatchMode patchMode)
    {
@@ -442,10 +505,18 @@ public class LineTableView extends MultiSelectCellTable<ChunkOrLine> implements
       }
 
       lines_ = diffData;
-      setPageSize(diffData.size());
       selectionModel_.clear();
       firstSelectedLine_ = null;
-      setRowData(diffData);
+      if (windowed_)
+      {
+         setRowCount(diffData.size(), true);
+         renderWindow(0, 0);
+      }
+      else
+      {
+         setPageSize(diffData.size());
+         setRowData(diffData);
+      }
 
       startRows_.clear();
       endRows_.clear();
@@ -486,10 +557,11 @@ public class LineTableView extends MultiSelectCellTable<ChunkOrLine> implements
    @Override
    protected boolean canSelectVisibleRow(int visibleRow)
    {
-      if (visibleRow < 0 || visibleRow >= lines_.size())
+      int row = getPageStart() + visibleRow;
+      if (visibleRow < 0 || row >= lines_.size())
          return false;
 
-      Line line = lines_.get(visibleRow).getLine();
+      Line line = lines_.get(row).getLine();
       return line != null && (line.getType() == Type.Insertion
                               || line.getType() == Type.Deletion);
    }
@@ -550,8 +622,15 @@ public class LineTableView extends MultiSelectCellTable<ChunkOrLine> implements
    private HashSet<Integer> endRows_ = new HashSet<Integer>();
    private boolean useStartBorder_ = false;
    private boolean useEndBorder_ = true;
+   private boolean windowed_ = false;
+   private int windowStart_ = 0;
+   private int windowEnd_ = 0;
+   private int rowHeight_ = ESTIMATED_ROW_HEIGHT;
+   private boolean rowHeightMeasured_ = false;
    // Keep explicit track of the first selected line so we can render it differently
    private ChunkOrLine firstSelectedLine_;
+   public static final int ESTIMATED_ROW_HEIGHT = 16;
+   private static final int WINDOW_OVERSCAN_ROWS = 50;
    private static final LineTableViewCellTableResources RES = GWT.create(LineTableViewCellTableResources.class);
    private static final LineActionButtonRenderer blueButtonRenderer_ = LineActionButtonRenderer.createBlue();
    private static final LineActionButtonRenderer grayButtonRenderer_ = LineActionButtonRenderer.createGray();
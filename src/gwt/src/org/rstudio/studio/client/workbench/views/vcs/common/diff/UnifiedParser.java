@@ -184,9 +184,61 @@ public class UnifiedParser implements DiffParser
       return new DiffChunk(ranges, chunkHeaderInfo.extraInfo, lines, chunkDiffIndex);
    }
 
+   /**
+    * Splits off the chunks of the current file (everything up to the next
+    * file header) into a parser of their own, and moves this parser past
+    * them. This lets callers defer parsing a file's chunks until (and
+    * unless) they're needed. Diff indices of the returned parser continue
+    * from this parser's, but aren't advanced here for the lines skipped.
+    */
+   public UnifiedParser splitFileChunks()
+   {
+      int start = pos_;
+      int end = data_.length();
+      for (String prefix : NEW_FILE_PREFIXES)
+      {
+         int index = indexOfLineStartingWith(prefix, start);
+         if (index != -1 && index < end)
+            end = index;
+      }
+
+      pos_ = end;
+      return new UnifiedParser(data_.substring(start, end), diffIndex_);
+   }
+
+   /**
+    * The number of lines which have yet to be parsed.
+    */
+   public int getRemainingLineCount()
+   {
+      if (isEOD())
+         return 0;
+
+      int count = 1;
+      for (int i = data_.indexOf('\n', pos_);
+           i != -1 && i + 1 < data_.length();
+           i = data_.indexOf('\n', i + 1))
+      {
+         count++;
+      }
+      return count;
+   }
+
+   private int indexOfLineStartingWith(String prefix, int from)
+   {
+      if (from == 0 && data_.startsWith(prefix))
+         return 0;
+
+      int index = data_.indexOf("\n" + prefix, Math.max(0, from - 1));
+      return index == -1 ? -1 : index + 1;
+   }
+
    private boolean isNewFileLine(String nextLine)
    {
-      return nextLine.startsWith("diff ") || nextLine.startsWith("Index: ");
+      for (String prefix : NEW_FILE_PREFIXES)
+         if (nextLine.startsWith(prefix))
+            return true;
+      return false;
    }
 
    private boolean[] complement(boolean[] array)
@@ -303,6 +355,7 @@ public class UnifiedParser implements DiffParser
 
    private final String data_;
    private int pos_;
+   private static final String[] NEW_FILE_PREFIXES = { "diff ", "Index: " };
    private int diffIndex_;
 }
 
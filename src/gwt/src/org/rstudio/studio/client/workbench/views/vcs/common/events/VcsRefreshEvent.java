@@ -16,12 +16,19 @@ package org.rstudio.studio.client.workbench.views.vcs.common.events;
 
 import com.google.gwt.event.shared.GwtEvent;
 
+import org.rstudio.studio.client.common.vcs.StatusAndPath;
+
+import java.util.ArrayList;
+
 public class VcsRefreshEvent extends GwtEvent<VcsRefreshHandler>
 {
    public enum Reason { NA, FileChange, VcsOperation }
 
    private final Reason reason_;
    private final int delayMs_;
+   private final ArrayList<StatusAndPath> added_;
+   private final ArrayList<StatusAndPath> removed_;
+   private final ArrayList<StatusAndPath> changed_;
 
    public static final Type<VcsRefreshHandler> TYPE = new Type<VcsRefreshHandler>();
 
@@ -34,6 +41,24 @@ public class VcsRefreshEvent extends GwtEvent<VcsRefreshHandler>
    {
       reason_ = reason;
       delayMs_ = delayMs;
+      added_ = null;
+      removed_ = null;
+      changed_ = null;
+   }
+
+   /**
+    * An incremental refresh, resulting from file changes, which lists the
+    * exact status entries that changed.
+    */
+   public VcsRefreshEvent(ArrayList<StatusAndPath> added,
+                          ArrayList<StatusAndPath> removed,
+                          ArrayList<StatusAndPath> changed)
+   {
+      reason_ = Reason.FileChange;
+      delayMs_ = 0;
+      added_ = added;
+      removed_ = removed;
+      changed_ = changed;
    }
 
    public Reason getReason()
@@ -46,6 +71,26 @@ public class VcsRefreshEvent extends GwtEvent<VcsRefreshHandler>
       return delayMs_;
    }
 
+   public boolean isIncremental()
+   {
+      return added_ != null;
+   }
+
+   public ArrayList<StatusAndPath> getAdded()
+   {
+      return added_;
+   }
+
+   public ArrayList<StatusAndPath> getRemoved()
+   {
+      return removed_;
+   }
+
+   public ArrayList<StatusAndPath> getChanged()
+   {
+      return changed_;
+   }
+
    @Override
    public Type<VcsRefreshHandler> getAssociatedType()
    {
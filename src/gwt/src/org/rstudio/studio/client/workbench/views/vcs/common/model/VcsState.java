@@ -14,6 +14,8 @@
  */
 package org.rstudio.studio.client.workbench.views.vcs.common.model;
 
+import com.google.gwt.animation.client.AnimationScheduler;
+import com.google.gwt.animation.client.AnimationScheduler.AnimationCallback;
 import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.core.client.Scheduler.RepeatingCommand;
 import com.google.gwt.core.client.Scheduler.ScheduledCommand;
@@ -37,6 +39,7 @@ import org.rstudio.studio.client.workbench.views.vcs.common.events.VcsRefreshEve
 import org.rstudio.studio.client.workbench.views.vcs.common.events.VcsRefreshHandler;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 
 public abstract class VcsState
 {
@@ -102,27 +105,26 @@ public abstract class VcsState
                return;
             }
 
-            if (status_ != null && status != null)
+            if (status == null)
+               return;
+
+            // a branch switch or checkout can change thousands of files at
+            // once; collect the changes and apply them together, once per
+            // frame
+            pendingChanges_.put(status.getRawPath(), status);
+            if (!changesScheduled_)
             {
-               for (int i = 0; i < status_.size(); i++)
+               changesScheduled_ = true;
+               AnimationScheduler.get().requestAnimationFrame(
+                     new AnimationCallback()
                {
-                  if (status.getRawPath() == status_.get(i).getRawPath())
+                  @Override
+                  public void execute(double timestamp)
                   {
-                     if (StringUtil.notNull(status.getStatus()).trim().length() == 0)
-                        status_.remove(i);
-                     else
-                        status_.set(i, status);
-                     handlers_.fireEvent(new VcsRefreshEvent(Reason.FileChange));
-                     return;
+                     changesScheduled_ = false;
+                     applyPendingChanges();
                   }
-               }
-
-               if (status.getStatus().trim().length() != 0)
-               {
-                  status_.add(status);
-                  handlers_.fireEvent(new VcsRefreshEvent(Reason.FileChange));
-                  return;
-               }
+               });
             }
          }
       }));
@@ -172,12 +174,70 @@ public abstract class VcsState
       return status_;
    }
 
+   protected void setStatus(ArrayList<StatusAndPath> status)
+   {
+      status_ = status;
+      statusByPath_.clear();
+      if (status_ != null)
+      {
+         for (StatusAndPath item : status_)
+            statusByPath_.put(item.getRawPath(), item);
+      }
+   }
+
    public void refresh()
    {
       if (session_.getSessionInfo().isVcsEnabled())
          refresh(true);
    }
 
+   private void applyPendingChanges()
+   {
+      if (status_ == null)
+      {
+         pendingChanges_.clear();
+         return;
+      }
+
+      ArrayList<StatusAndPath> added = new ArrayList<StatusAndPath>();
+      ArrayList<StatusAndPath> removed = new ArrayList<StatusAndPath>();
+      ArrayList<StatusAndPath> changed = new ArrayList<StatusAndPath>();
+      for (StatusAndPath status : pendingChanges_.values())
+      {
+         String path = status.getRawPath();
+         StatusAndPath existing = statusByPath_.get(path);
+         boolean clean = 
+               StringUtil.notNull(status.getStatus()).trim().length() == 0;
+         if (existing != null)
+         {
+            if (clean)
+            {
+               statusByPath_.remove(path);
+               removed.add(existing);
+            }
+            else
+            {
+               statusByPath_.put(path, status);
+               changed.add(status);
+            }
+         }
+         else if (!clean)
+         {
+            statusByPath_.put(path, status);
+            added.add(status);
+         }
+      }
+      pendingChanges_.clear();
+
+      if (added.isEmpty() && removed.isEmpty() && changed.isEmpty())
+         return;
+
+      // entries replaced in the map keep their position, so this preserves
+      // the order of the existing entries (new ones go at the end)
+      status_ = new ArrayList<StatusAndPath>(statusByPath_.values());
+      handlers_.fireEvent(new VcsRefreshEvent(added, removed, changed));
+   }
+
    protected abstract StatusAndPathInfo getStatusFromFile(FileSystemItem file);
 
    protected abstract boolean needsFullRefresh(FileSystemItem file);
@@ -187,7 +247,16 @@ public abstract class VcsState
    protected abstract boolean isInitialized();
 
    protected final HandlerManager handlers_ = new HandlerManager(this);
-   protected ArrayList<StatusAndPath> status_;
+   private ArrayList<StatusAndPath> status_;
+
+   // status entries keyed by raw path, in the order of status_
+   private final LinkedHashMap<String, StatusAndPath> statusByPath_ =
+         new LinkedHashMap<String, StatusAndPath>();
+
+   // file status changes waiting for the next frame, keyed by raw path
+   private final LinkedHashMap<String, StatusAndPath> pendingChanges_ =
+         new LinkedHashMap<String, StatusAndPath>();
+   private boolean changesScheduled_ = false;
    protected final EventBus eventBus_;
    protected final GlobalDisplay globalDisplay_;
    protected final Session session_;
@@ -14,6 +14,8 @@
  */
 package org.rstudio.studio.client.workbench.views.vcs.dialog;
 
+import com.google.gwt.animation.client.AnimationScheduler;
+import com.google.gwt.animation.client.AnimationScheduler.AnimationCallback;
 import com.google.gwt.core.client.GWT;
 import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.core.client.Scheduler.RepeatingCommand;
@@ -21,6 +23,8 @@ import com.google.gwt.dom.client.TableRowElement;
 import com.google.gwt.event.dom.client.ClickEvent;
 import com.google.gwt.event.dom.client.ClickHandler;
 import com.google.gwt.event.dom.client.HasClickHandlers;
+import com.google.gwt.event.dom.client.ScrollEvent;
+import com.google.gwt.event.dom.client.ScrollHandler;
 import com.google.gwt.event.shared.HandlerRegistration;
 import com.google.gwt.i18n.client.DateTimeFormat;
 import com.google.gwt.i18n.client.DateTimeFormat.PredefinedFormat;
@@ -68,6 +72,14 @@ public class CommitDetail extends Composite implements CommitDetailDisplay
    public void setScrollPanel(ScrollPanel container)
    {
     container_ = container;
+    container_.addScrollHandler(new ScrollHandler()
+    {
+       @Override
+       public void onScroll(ScrollEvent event)
+       {
+          scheduleUpdateVisibleFiles();
+       }
+    });
    }
 
    @Override
@@ -87,6 +99,7 @@ public class CommitDetail extends Composite implements CommitDetailDisplay
       invalidation_.invalidate();
       tocPanel_.clear();
       detailPanel_.clear();
+      files_.clear();
 
       setProgressVisible(false);
    }
@@ -119,29 +132,12 @@ public class CommitDetail extends Composite implements CommitDetailDisplay
             if (fileHeader == null)
                return false;
 
-            int filesCompared = 2;
-            ArrayList<ChunkOrLine> lines = new ArrayList<ChunkOrLine>();
-            DiffChunk chunk;
-            while (null != (chunk = unifiedParser.nextChunk()))
-            {
-               if (!chunk.shouldIgnore())
-                  filesCompared = chunk.getRanges().length;
-               lines.addAll(ChunkOrLine.fromChunk(chunk));
-            }
-
-            LineTableView view = new LineTableView(filesCompared);
-            view.setUseStartBorder(true);
-            view.setUseEndBorder(false);
-            view.setShowActions(false);
-            view.setData(lines, PatchMode.Stage);
-            view.setWidth("100%");
-            
             final DiffFrame diffFrame = new DiffFrame(
                            null, 
                            fileHeader.getDescription(), 
                            null, 
                            commit_.getId(), 
-                           view,
+                           null,
                            new ClickHandler() {
                               @Override
                               public void onClick(ClickEvent event)
@@ -154,7 +150,25 @@ public class CommitDetail extends Composite implements CommitDetailDisplay
                            },
                            suppressViewLink);
             diffFrame.setWidth("100%");
+
+            // git output is split into files up front, but a file's chunks
+            // are only parsed once it's about to be shown
+            CommitFile file;
+            if (unifiedParser instanceof UnifiedParser)
+            {
+               file = new CommitFile(
+                     diffFrame,
+                     ((UnifiedParser) unifiedParser).splitFileChunks());
+            }
+            else
+            {
+               ArrayList<ChunkOrLine> lines = new ArrayList<ChunkOrLine>();
+               int filesCompared = parseChunks(unifiedParser, lines);
+               file = new CommitFile(diffFrame, lines, filesCompared);
+            }
+            files_.add(file);
             detailPanel_.add(diffFrame);
+            scheduleUpdateVisibleFiles();
 
             CommitTocRow tocAnchor = new CommitTocRow(fileHeader.getDescription());
             tocAnchor.addClickHandler(new ClickHandler()
@@ -175,6 +189,144 @@ public class CommitDetail extends Composite implements CommitDetailDisplay
       });
    }
 
+   // A file of the commit being shown. Until the file comes near the
+   // viewport its diff frame only reserves the (estimated) height of its
+   // lines; after that its lines are rendered a window at a time.
+   private class CommitFile
+   {
+      public CommitFile(DiffFrame frame, UnifiedParser chunkParser)
+      {
+         frame_ = frame;
+         chunkParser_ = chunkParser;
+         frame_.setPlaceholderHeight(chunkParser.getRemainingLineCount() *
+                                     LineTableView.ESTIMATED_ROW_HEIGHT);
+      }
+
+      public CommitFile(DiffFrame frame,
+                        ArrayList<ChunkOrLine> lines,
+                        int filesCompared)
+      {
+         frame_ = frame;
+         lines_ = lines;
+         filesCompared_ = filesCompared;
+         frame_.setPlaceholderHeight(lines_.size() *
+                                     LineTableView.ESTIMATED_ROW_HEIGHT);
+      }
+
+      public DiffFrame getFrame()
+      {
+         return frame_;
+      }
+
+      public LineTableView ensureView()
+      {
+         if (view_ != null)
+            return view_;
+
+         if (lines_ == null)
+         {
+            lines_ = new ArrayList<ChunkOrLine>();
+            filesCompared_ = parseChunks(chunkParser_, lines_);
+            chunkParser_ = null;
+         }
+
+         view_ = new LineTableView(filesCompared_);
+         view_.setUseStartBorder(true);
+         view_.setUseEndBorder(false);
+         view_.setShowActions(false);
+         view_.setWindowed(true);
+         view_.setData(lines_, PatchMode.Stage);
+         view_.setWidth("100%");
+         frame_.setDiff(view_);
+         lines_ = null;
+
+         return view_;
+      }
+
+      private final DiffFrame frame_;
+      private UnifiedParser chunkParser_;
+      private ArrayList<ChunkOrLine> lines_;
+      private int filesCompared_ = 2;
+      private LineTableView view_;
+   }
+
+   // Returns the number of files compared by the chunks
+   private static int parseChunks(DiffParser parser,
+                                  ArrayList<ChunkOrLine> lines)
+   {
+      int filesCompared = 2;
+      DiffChunk chunk;
+      while (null != (chunk = parser.nextChunk()))
+      {
+         if (!chunk.shouldIgnore())
+            filesCompared = chunk.getRanges().length;
+         lines.addAll(ChunkOrLine.fromChunk(chunk));
+      }
+      return filesCompared;
+   }
+
+   private void scheduleUpdateVisibleFiles()
+   {
+      if (updateVisibleFilesPending_)
+         return;
+
+      updateVisibleFilesPending_ = true;
+      AnimationScheduler.get().requestAnimationFrame(new AnimationCallback()
+      {
+         @Override
+         public void execute(double timestamp)
+         {
+            updateVisibleFilesPending_ = false;
+            updateVisibleFiles();
+         }
+      });
+   }
+
+   // Materializes the files near the viewport and moves their rendered
+   // windows along with it
+   private void updateVisibleFiles()
+   {
+      if (container_ == null || files_.isEmpty() || !isAttached())
+         return;
+
+      int viewTop = container_.getVerticalScrollPosition();
+      int viewBottom = viewTop + container_.getOffsetHeight();
+      if (viewBottom <= viewTop)
+         return;
+
+      // files are laid out in order, so find the first one which ends
+      // after the top of the viewport
+      int low = 0;
+      int high = files_.size() - 1;
+      while (low < high)
+      {
+         int mid = (low + high) / 2;
+         DiffFrame frame = files_.get(mid).getFrame();
+         if (getTop(frame) + frame.getOffsetHeight() <
+             viewTop - MATERIALIZE_MARGIN_PX)
+            low = mid + 1;
+         else
+            high = mid;
+      }
+
+      for (int i = low; i < files_.size(); i++)
+      {
+         CommitFile file = files_.get(i);
+         if (getTop(file.getFrame()) > viewBottom + MATERIALIZE_MARGIN_PX)
+            break;
+
+         LineTableView view = file.ensureView();
+         int viewOffset = getTop(view);
+         view.showWindow(viewTop - viewOffset, viewBottom - viewOffset);
+      }
+   }
+
+   private int getTop(Widget widget)
+   {
+      return DomUtils.getRelativePosition(container_.getElement(),
+                                          widget.getElement()).getY();
+   }
+
    @Override
    public void setCommitListIsLoading(boolean isLoading)
    {
@@ -242,6 +394,8 @@ public class CommitDetail extends Composite implements CommitDetailDisplay
    }
 
    private final Invalidation invalidation_ = new Invalidation();
+   private final ArrayList<CommitFile> files_ = new ArrayList<CommitFile>();
+   private boolean updateVisibleFilesPending_ = false;
    private CommitInfo commit_;
    @UiField
    Label labelIdDesc_;
@@ -271,5 +425,7 @@ public class CommitDetail extends Composite implements CommitDetailDisplay
    HTMLPanel commitViewPanel_;
 
    private ScrollPanel container_;
+
+   private static final int MATERIALIZE_MARGIN_PX = 1000;
    
 }
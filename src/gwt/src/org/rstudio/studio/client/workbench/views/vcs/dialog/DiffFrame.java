@@ -15,6 +15,7 @@
 package org.rstudio.studio.client.workbench.views.vcs.dialog;
 
 import com.google.gwt.core.client.GWT;
+import com.google.gwt.dom.client.Style.Unit;
 import com.google.gwt.event.dom.client.ClickHandler;
 import com.google.gwt.resources.client.ClientBundle;
 import com.google.gwt.resources.client.CssResource;
@@ -93,6 +94,22 @@ public class DiffFrame extends Composite
          viewFileHyperlink_.addStyleName(RES.styles().viewFileHyperlink());
       }
       
+      if (diff != null)
+         container_.add(diff);
+   }
+
+   /**
+    * Reserves space for a diff which hasn't been created yet.
+    */
+   public void setPlaceholderHeight(int height)
+   {
+      container_.getElement().getStyle().setHeight(height, Unit.PX);
+   }
+
+   public void setDiff(LineTableView diff)
+   {
+      container_.getElement().getStyle().clearHeight();
+      container_.clear();
       container_.add(diff);
    }
 
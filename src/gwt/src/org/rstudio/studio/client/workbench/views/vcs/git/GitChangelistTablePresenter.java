@@ -66,7 +66,16 @@ public class GitChangelistTablePresenter
          @Override
          public void onVcsRefresh(VcsRefreshEvent event)
          {
-            view_.setItems(gitState_.getStatus());
+            if (event.isIncremental())
+            {
+               view_.updateItems(event.getAdded(),
+                                 event.getRemoved(),
+                                 event.getChanged());
+            }
+            else
+            {
+               view_.setItems(gitState_.getStatus());
+            }
             
             RemoteBranchInfo remote = gitState_.getRemoteBranchInfo();
             if (remote != null && remote.getCommitsBehind() > 0)
@@ -98,6 +98,11 @@ public class GitPresenter extends BaseVcsPresenter implements IsWidget
          @Override
          public void onVcsRefresh(VcsRefreshEvent event)
          {
+            // the changelist table's presenter patches the table for
+            // incremental refreshes
+            if (event.isIncremental())
+               return;
+
             view_.setItems(gitState_.getStatus());
          }
       });
@@ -36,27 +36,55 @@ public class SVNChangelistTablePresenter
          @Override
          public void onVcsRefresh(VcsRefreshEvent event)
          {
-            ArrayList<StatusAndPath> items =
-                  new ArrayList<StatusAndPath>(svnState.getStatus());
-
             boolean usesChangelists = false;
-            for (int i = items.size()-1; i >= 0; i--)
+            for (StatusAndPath item : svnState.getStatus())
             {
-               StatusAndPath item = items.get(i);
-
                if (!StringUtil.isNullOrEmpty(item.getChangelist()))
+               {
                   usesChangelists = true;
+                  break;
+               }
+            }
 
-               if (rejectItem(item))
-                  items.remove(i);
+            if (event.isIncremental())
+            {
+               // entries which changed into rejected ones are removed
+               ArrayList<StatusAndPath> removed =
+                     new ArrayList<StatusAndPath>(event.getRemoved());
+               ArrayList<StatusAndPath> changed =
+                     new ArrayList<StatusAndPath>();
+               for (StatusAndPath item : event.getChanged())
+               {
+                  if (rejectItem(item))
+                     removed.add(item);
+                  else
+                     changed.add(item);
+               }
+               view.updateItems(filterItems(event.getAdded()),
+                                removed,
+                                changed);
+            }
+            else
+            {
+               view.setItems(filterItems(svnState.getStatus()));
             }
-            view.setItems(items);
             view.setChangelistColumnVisible(usesChangelists);
          }
       });
 
    }
 
+   private ArrayList<StatusAndPath> filterItems(ArrayList<StatusAndPath> items)
+   {
+      ArrayList<StatusAndPath> results = new ArrayList<StatusAndPath>();
+      for (StatusAndPath item : items)
+      {
+         if (!rejectItem(item))
+            results.add(item);
+      }
+      return results;
+   }
+
    protected boolean rejectItem(StatusAndPath item)
    {
       return false;
@@ -86,6 +86,11 @@ public class SVNPresenter extends BaseVcsPresenter
          @Override
          public void onVcsRefresh(VcsRefreshEvent event)
          {
+            // the changelist table's presenter patches the table for
+            // incremental refreshes
+            if (event.isIncremental())
+               return;
+
             view_.setItems(svnState_.getStatus());
          }
       });      
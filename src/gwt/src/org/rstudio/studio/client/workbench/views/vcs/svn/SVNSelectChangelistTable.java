@@ -73,6 +73,22 @@ public class SVNSelectChangelistTable extends SVNChangelistTable
 
    @Override
    public void setItems(ArrayList<StatusAndPath> items)
+   {
+      initSelected(items);
+      super.setItems(items);
+   }
+
+   @Override
+   public void updateItems(ArrayList<StatusAndPath> added,
+                           ArrayList<StatusAndPath> removed,
+                           ArrayList<StatusAndPath> changed)
+   {
+      initSelected(added);
+      initSelected(changed);
+      super.updateItems(added, removed, changed);
+   }
+
+   private void initSelected(ArrayList<StatusAndPath> items)
    {
       for (StatusAndPath item: items)
       {
@@ -82,7 +98,6 @@ public class SVNSelectChangelistTable extends SVNChangelistTable
          selected_.put(item.getPath(),
                        !uncommitableStatuses.contains(item.getStatus()));
       }
-      super.setItems(items);
    }
 
    public Column<StatusAndPath, Boolean> getCommitColumn()
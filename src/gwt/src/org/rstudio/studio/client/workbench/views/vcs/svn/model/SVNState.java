@@ -64,7 +64,7 @@ public class SVNState extends VcsState
          @Override
          public void onResponseReceived(JsArray<StatusAndPathInfo> response)
          {
-            status_ = StatusAndPath.fromInfos(response);
+            setStatus(StatusAndPath.fromInfos(response));
             handlers_.fireEvent(new VcsRefreshEvent(Reason.VcsOperation));
          }
 
@@ -82,7 +82,7 @@ public class SVNState extends VcsState
    @Override
    protected boolean isInitialized()
    {
-      return status_ != null;
+      return getStatus() != null;
    }
 
    private final SVNServerOperations server_;
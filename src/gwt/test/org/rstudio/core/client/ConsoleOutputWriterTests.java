@@ -19,6 +19,8 @@ import java.util.List;
 import org.rstudio.core.client.ConsoleOutputWriter;
 import org.rstudio.core.client.dom.DomUtils;
 
+import com.google.gwt.dom.client.DivElement;
+import com.google.gwt.dom.client.Document;
 import com.google.gwt.dom.client.Element;
 import com.google.gwt.dom.client.SpanElement;
 import com.google.gwt.dom.client.Text;
@@ -601,5 +603,193 @@ public class ConsoleOutputWriterTests extends GWTTestCase
       Assert.assertEquals(
             "<span class=\"myClass\">one\ntwo\nthree</span>",
             getInnerHTML(output));
-   } 
- }
+   }
+
+   public void testLineCountOverwriteNewline()
+   {
+      // backspacing over a newline and writing over it removes the line
+      ConsoleOutputWriter output = new ConsoleOutputWriter();
+      output.outputToConsole("one\ntwo\n", myClass, notError, checkLineCount);
+      Assert.assertEquals(2, output.getCurrentLines());
+      output.outputToConsole("\bX", myClass, notError, checkLineCount);
+      Assert.assertEquals(1, output.getCurrentLines());
+      Assert.assertEquals(1, DomUtils.countLines(output.getElement(), true));
+   }
+
+   public void testLineCountAfterTrimmingTrailingOutput()
+   {
+      // lines trimmed from the output still being written leave the virtual
+      // console too, so later overwrites are counted against what's left
+      ConsoleOutputWriter output = new ConsoleOutputWriter();
+      output.setMaxOutputLines(2);
+      output.outputToConsole("one\ntwo\nthree\n", myClass, notError, checkLineCount);
+      Assert.assertEquals(2, output.getCurrentLines());
+
+      // back up past the start of what's left and overwrite it
+      output.outputToConsole("\b\b\b\b\b\b\b\b\b\b\b\bX", myClass, notError,
+            checkLineCount);
+      Assert.assertEquals(2, output.getCurrentLines());
+      Assert.assertEquals(2, DomUtils.countLines(output.getElement(), true));
+      Assert.assertEquals("Xwo\nthree\n", output.getElement().getInnerText());
+   }
+
+   public void testLineCountLargeStream()
+   {
+      // stream 100k lines one at a time through a bounded console
+      ConsoleOutputWriter output = new ConsoleOutputWriter();
+      final int maxLines = 1000;
+      final int totalLines = 100000;
+      output.setMaxOutputLines(maxLines);
+
+      for (int i = 0; i < totalLines; i++)
+      {
+         output.outputToConsole(numberedLine(i), myClass, notError, checkLineCount);
+         Assert.assertEquals(Math.min(i + 1, maxLines), output.getCurrentLines());
+      }
+
+      Assert.assertEquals(maxLines, output.getCurrentLines());
+      Assert.assertEquals(maxLines, DomUtils.countLines(output.getElement(), true));
+   }
+
+   public void testLineCountLargeChunkedStream()
+   {
+      // stream 100k lines in chunks, alternating regular and error output,
+      // deferring trimming until the end of each chunk
+      ConsoleOutputWriter output = new ConsoleOutputWriter();
+      final int maxLines = 5000;
+      final int totalLines = 100000;
+      final int chunkLines = 250;
+      output.setMaxOutputLines(maxLines);
+
+      int written = 0;
+      while (written < totalLines)
+      {
+         StringBuilder chunk = new StringBuilder();
+         for (int i = 0; i < chunkLines; i++)
+            chunk.append(numberedLine(written + i));
+
+         boolean error = (written / chunkLines) % 2 == 0;
+         int before = output.getCurrentLines();
+         Assert.assertTrue(output.outputToConsole(chunk.toString(),
+               error ? myErrorClass : myClass,
+               error ? isError : notError,
+               ignoreLineCount));
+         Assert.assertEquals(before + chunkLines, output.getCurrentLines());
+
+         written += chunkLines;
+         output.trimExcess();
+         Assert.assertEquals(Math.min(written, maxLines), output.getCurrentLines());
+      }
+
+      Assert.assertEquals(maxLines, output.getCurrentLines());
+      Assert.assertEquals(maxLines, DomUtils.countLines(output.getElement(), true));
+   }
+
+   public void testLineCountProgressStream()
+   {
+      // carriage-return rewrites of the current line never add lines
+      ConsoleOutputWriter output = new ConsoleOutputWriter();
+      for (int i = 0; i < 1000; i++)
+      {
+         output.outputToConsole("\rprogress: " + i, myClass, notError,
+               checkLineCount);
+         Assert.assertEquals(0, output.getCurrentLines());
+      }
+      output.outputToConsole("\n", myClass, notError, checkLineCount);
+      Assert.assertEquals(1, output.getCurrentLines());
+      Assert.assertEquals(1, DomUtils.countLines(output.getElement(), true));
+   }
+
+   public void testVirtualizedLineCount()
+   {
+      // virtualized output keeps a bounded number of lines, most of them
+      // in the line buffer rather than the DOM
+      VirtualizedConsoleOutputWriter output = new VirtualizedConsoleOutputWriter();
+      final int maxLines = 1000;
+      output.setMaxOutputLines(maxLines);
+
+      final int totalLines = 10000;
+      for (int i = 0; i < totalLines; i++)
+      {
+         output.outputToConsole(numberedLine(i), myClass, notError, checkLineCount);
+         if (i % 250 == 0)
+            output.ensureStartingOnNewLine();
+      }
+
+      ConsoleLineBuffer buffer = output.getLineBuffer();
+      Assert.assertEquals(maxLines, buffer.size());
+      int liveLines = DomUtils.countLines(output.getElement(), true);
+      Assert.assertTrue(liveLines <= 200);
+      Assert.assertEquals(maxLines + liveLines, output.getCurrentLines());
+
+      // the buffer holds the oldest retained lines, in order and with their
+      // style, and the DOM the rest
+      int firstLine = totalLines - output.getCurrentLines();
+      for (int i = 0; i < buffer.size(); i++)
+      {
+         ConsoleLineBuffer.Line line = buffer.get(buffer.getFirstIndex() + i);
+         Assert.assertEquals(numberedLine(firstLine + i), line.getText());
+         Assert.assertEquals(myClass, line.getSegments().get(0).clazz);
+      }
+
+      StringBuilder expectedLive = new StringBuilder();
+      for (int i = firstLine + maxLines; i < totalLines; i++)
+         expectedLive.append(numberedLine(i));
+      Assert.assertEquals(expectedLive.toString(),
+                          output.getElement().getInnerText());
+   }
+
+   public void testVirtualizedRetainsErrorElements()
+   {
+      // error output which may yet be replaced stays in the DOM until it's
+      // released
+      VirtualizedConsoleOutputWriter output = new VirtualizedConsoleOutputWriter();
+      output.setMaxOutputLines(1000);
+
+      output.outputToConsole("Error: oops\n", myErrorClass, isError, checkLineCount);
+      List<Element> errorElements = output.getNewElements();
+      Assert.assertFalse(errorElements.isEmpty());
+      output.retainElements(errorElements);
+      output.ensureStartingOnNewLine();
+
+      for (int i = 0; i < 500; i++)
+         output.outputToConsole(numberedLine(i), myClass, notError, checkLineCount);
+
+      Element errorElement = errorElements.get(0);
+      Assert.assertTrue(output.getElement().isOrHasChild(errorElement));
+      Assert.assertEquals(0, output.getLineBuffer().size());
+
+      // once released, it's buffered along with the lines after it
+      output.releaseElements(errorElements);
+      output.outputToConsole(numberedLine(500), myClass, notError, checkLineCount);
+      Assert.assertFalse(output.getElement().isOrHasChild(errorElement));
+      ConsoleLineBuffer buffer = output.getLineBuffer();
+      ConsoleLineBuffer.Line first = buffer.get(buffer.getFirstIndex());
+      Assert.assertEquals("Error: oops\n", first.getText());
+      Assert.assertEquals(myErrorClass, first.getSegments().get(0).clazz);
+   }
+
+   public void testVirtualizedKeepsWidgetsWhole()
+   {
+      // an element swapped in for output (as ShellWidget does with
+      // ConsoleError) is buffered as-is instead of being flattened to text
+      VirtualizedConsoleOutputWriter output = new VirtualizedConsoleOutputWriter();
+      output.setMaxOutputLines(1000);
+
+      output.outputToConsole("Error: oops\n", myErrorClass, isError, checkLineCount);
+      Element errorElement = output.getNewElements().get(0);
+      DivElement widget = Document.get().createDivElement();
+      widget.setInnerText("Error: oops\n");
+      errorElement.getParentNode().replaceChild(widget, errorElement);
+      output.ensureStartingOnNewLine();
+
+      for (int i = 0; i < 500; i++)
+         output.outputToConsole(numberedLine(i), myClass, notError, checkLineCount);
+
+      ConsoleLineBuffer buffer = output.getLineBuffer();
+      ConsoleLineBuffer.Line first = buffer.get(buffer.getFirstIndex());
+      Assert.assertSame(widget, first.getElement());
+      Assert.assertEquals(numberedLine(0),
+            buffer.get(buffer.getFirstIndex() + 1).getText());
+   }
+}
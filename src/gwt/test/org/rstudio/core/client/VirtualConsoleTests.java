@@ -725,6 +725,51 @@ public class VirtualConsoleTests extends GWTTestCase
       Assert.assertEquals("goodbye    ", vc.toString());
    }
 
+   public void testProgressOverwrite()
+   {
+      PreElement ele = Document.get().createPreElement();
+      VirtualConsole vc = new VirtualConsole(ele);
+      vc.submit("Downloading\n", "a");
+      vc.submit("[==  ]  50%", "a");
+      vc.submit("\r[====] 100%", "a");
+      vc.submit("\r[=", "a");
+      Assert.assertEquals(
+            "<span class=\"a\">Downloading\n[====] 100%</span>",
+            ele.getInnerHTML());
+      Assert.assertEquals("Downloading\n[====] 100%", vc.toString());
+
+      // a longer line extends the range
+      vc.submit("\r[====] 100% done", "a");
+      Assert.assertEquals(
+            "<span class=\"a\">Downloading\n[====] 100% done</span>",
+            ele.getInnerHTML());
+   }
+
+   public void testManyProgressUpdates()
+   {
+      PreElement ele = Document.get().createPreElement();
+      VirtualConsole vc = new VirtualConsole(ele);
+      vc.submit("Progress:\n", "a");
+
+      int updates = 200;
+      for (int i = 0; i < updates; i++)
+      {
+         int percent = (int) (100L * (i + 1) / updates);
+         StringBuilder bar = new StringBuilder("\r|");
+         for (int j = 0; j < 50; j++)
+            bar.append(j < percent / 2 ? '=' : ' ');
+         bar.append("| ").append(percent).append("%");
+         vc.submit(bar.toString(), "a");
+      }
+
+      StringBuilder done = new StringBuilder("|");
+      for (int j = 0; j < 50; j++)
+         done.append('=');
+      done.append("| 100%");
+      Assert.assertEquals("Progress:\n" + done, vc.toString());
+      Assert.assertEquals(1, ele.getChildCount());
+   }
+
    public void testNonDestructiveBackspace()
    {
       PreElement ele = Document.get().createPreElement();
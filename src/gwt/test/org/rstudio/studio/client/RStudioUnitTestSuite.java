@@ -20,6 +20,9 @@ import org.rstudio.core.client.StringUtilTests;
 import org.rstudio.core.client.VirtualConsoleTests;
 import org.rstudio.core.client.dom.DomUtilsTests;
 import org.rstudio.studio.client.common.r.RTokenizerTests;
+import org.rstudio.studio.client.workbench.codesearch.FuzzyMatcherTests;
+import org.rstudio.studio.client.workbench.views.console.shell.assist.CompletionRequesterTests;
+import org.rstudio.studio.client.workbench.views.source.model.EditDeltaTrackerTests;
 import org.rstudio.studio.client.workbench.views.terminal.TerminalLocalEchoTests;
 import org.rstudio.studio.client.workbench.views.terminal.TerminalSessionSocketTests;
 
@@ -40,6 +43,9 @@ public class RStudioUnitTestSuite extends GWTTestSuite
         suite.addTestSuite(AnsiCodeTests.class);
         suite.addTestSuite(TerminalLocalEchoTests.class);
         suite.addTestSuite(TerminalSessionSocketTests.class);
+        suite.addTestSuite(CompletionRequesterTests.class);
+        suite.addTestSuite(FuzzyMatcherTests.class);
+        suite.addTestSuite(EditDeltaTrackerTests.class);
         return suite;
     }
 }
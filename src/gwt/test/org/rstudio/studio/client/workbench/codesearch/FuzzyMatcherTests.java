@@ -0,0 +1,149 @@
+/*
+ * FuzzyMatcherTests.java
+ *
+ * Copyright (C) 2009-17 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.codesearch;
+
+import java.util.List;
+
+import org.rstudio.core.client.StringUtil;
+
+import com.google.gwt.junit.client.GWTTestCase;
+
+public class FuzzyMatcherTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   public void testIdentical()
+   {
+      assertEquals(0, new FuzzyMatcher("read.csv").score("read.csv", false));
+      assertEquals(0, new FuzzyMatcher("foo.R").score("foo.R", true));
+   }
+
+   public void testKnownScores()
+   {
+      FuzzyMatcher matcher = new FuzzyMatcher("rc");
+      assertEquals(0, matcher.score("read.csv", false));
+      assertEquals(4, matcher.score("read.csv", true));
+      assertEquals(0, matcher.score("Rcpp", false));
+      assertEquals(13, matcher.score("RcppExports.R", true));
+      assertEquals(4, new FuzzyMatcher("zz").score("abc", false));
+   }
+
+   public void testMatchesReference()
+   {
+      for (String query : QUERIES)
+      {
+         FuzzyMatcher matcher = new FuzzyMatcher(query);
+         for (String suggestion : SUGGESTIONS)
+         {
+            for (int i = 0; i < 2; i++)
+            {
+               boolean isFile = i == 1;
+               assertEquals("'" + suggestion + "' vs '" + query + "'" +
+                            (isFile ? " (file)" : ""),
+                            referenceScore(suggestion, query, isFile),
+                            matcher.score(suggestion, isFile));
+            }
+         }
+      }
+   }
+
+   public void testMatchesReferenceWithSuffixes()
+   {
+      String[] suggestions = new String[200];
+      for (int i = 0; i < suggestions.length; i++)
+      {
+         suggestions[i] = SUGGESTIONS[i % SUGGESTIONS.length] +
+                          Integer.toString(i, 36);
+      }
+
+      for (String query : QUERIES)
+      {
+         FuzzyMatcher matcher = new FuzzyMatcher(query);
+         for (String suggestion : suggestions)
+         {
+            assertEquals("'" + suggestion + "' vs '" + query + "'",
+                         referenceScore(suggestion, query, false),
+                         matcher.score(suggestion, false));
+         }
+      }
+   }
+
+   // The scoring implementation FuzzyMatcher replaced; kept here to pin its
+   // results
+   private static int referenceScore(String suggestion, String query,
+                                     boolean isFile)
+   {
+      String suggestionLower = suggestion.toLowerCase();
+      String queryLower = query.toLowerCase();
+
+      if (suggestion.equals(query))
+         return 0;
+
+      int totalPenalty = 0;
+      List<Integer> matches =
+            StringUtil.subsequenceIndices(suggestionLower, queryLower);
+      for (int j = 0, n = matches.size(); j < n; j++)
+      {
+         int matchPos = matches.get(j);
+         int penalty = matchPos;
+         if (matchPos >= 1)
+         {
+            char prevChar = suggestionLower.charAt(matchPos - 1);
+            if (prevChar == '_' || prevChar == '-' ||
+                  (!isFile && prevChar == '.'))
+            {
+               penalty = j + 1;
+            }
+         }
+
+         if (suggestion.charAt(matchPos) == query.charAt(j))
+            penalty--;
+
+         if (suggestion.equals("RcppExports.R") ||
+             suggestion.equals("RcppExports.cpp"))
+            penalty += 6;
+
+         String extension = StringUtil.getExtension(suggestionLower);
+         if (extension.toLowerCase().equals("rd"))
+            penalty += 6;
+
+         totalPenalty += penalty;
+      }
+
+      if (isFile)
+         totalPenalty++;
+
+      totalPenalty += (query.length() - matches.size()) * query.length();
+      return totalPenalty;
+   }
+
+   private static final String[] SUGGESTIONS = {
+      "", "a", "read.csv", "read_csv", "readRDS", "write-table", "Rcpp",
+      "RcppExports.R", "RcppExports.cpp", "plot.Rd", "summary.RD", "x.rd",
+      ".rd", "rd", "CodeSearchOracle.java", "code_search_oracle",
+      "data.frame", "DATA.FRAME", "as.data.frame", "is.na", "na.omit",
+      "mapply", "tapply", "lapply", "Sys.time", "SessionCodeSearch.cpp",
+      "caf\u00e9", "\u00c9cole", "stra\u00dfe"
+   };
+
+   private static final String[] QUERIES = {
+      "", "r", "rc", "RC", "read", "rds", "dF", "data.frame", "csv", "ap",
+      "xyz", "Rcpp", "sess", "cso", "-", ".", "\u00e9", "caf"
+   };
+}
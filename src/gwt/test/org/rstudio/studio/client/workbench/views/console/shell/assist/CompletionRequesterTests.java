@@ -0,0 +1,180 @@
+/*
+ * CompletionRequesterTests.java
+ *
+ * Copyright (C) 2009-17 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.console.shell.assist;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+
+import org.rstudio.core.client.StringUtil;
+import org.rstudio.studio.client.common.codetools.RCompletionType;
+import org.rstudio.studio.client.workbench.codesearch.CodeSearchOracle;
+import org.rstudio.studio.client.workbench.views.console.shell.assist.CompletionRequester.QualifiedName;
+
+import com.google.gwt.junit.client.GWTTestCase;
+
+public class CompletionRequesterTests extends GWTTestCase
+{
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   public void testNarrowMatchesReference()
+   {
+      ArrayList<QualifiedName> completions = createCompletions(2000);
+      for (String token : TOKENS)
+      {
+         assertSameOrder(token,
+               referenceNarrow(token, completions),
+               CompletionRequester.narrowCompletions(token, completions));
+      }
+   }
+
+   public void testNarrowFromPreviousResult()
+   {
+      ArrayList<QualifiedName> completions = createCompletions(2000);
+      ArrayList<QualifiedName> previous = completions;
+      for (String token : TOKENS)
+      {
+         previous = CompletionRequester.narrowCompletions(token, previous);
+         assertSameOrder(token,
+               CompletionRequester.narrowCompletions(token, completions),
+               previous);
+      }
+   }
+
+   public void testNarrowArgumentsFirst()
+   {
+      ArrayList<QualifiedName> completions = new ArrayList<QualifiedName>();
+      completions.add(new QualifiedName("data", "base", false,
+            RCompletionType.FUNCTION));
+      completions.add(new QualifiedName("data", "<fn>", false,
+            RCompletionType.ARGUMENT));
+
+      ArrayList<QualifiedName> result =
+            CompletionRequester.narrowCompletions("da", completions);
+      assertEquals(2, result.size());
+      assertEquals(RCompletionType.ARGUMENT, result.get(0).type);
+   }
+
+   private static ArrayList<QualifiedName> createCompletions(int count)
+   {
+      ArrayList<QualifiedName> completions = new ArrayList<QualifiedName>();
+      for (int i = 0; i < count; i++)
+      {
+         String first = WORDS[i % WORDS.length];
+         String second = WORDS[(i / WORDS.length) % WORDS.length];
+         String sep = SEPARATORS[i % SEPARATORS.length];
+         String name = first + sep + second + Integer.toString(i, 36);
+
+         if (i % 50 == 0)
+         {
+            completions.add(new QualifiedName("R/" + name + ".R", "", false,
+                  RCompletionType.FILE));
+         }
+         else if (i % 10 == 0)
+         {
+            completions.add(new QualifiedName(name + " = ", "<fn>", false,
+                  RCompletionType.ARGUMENT));
+         }
+         else
+         {
+            completions.add(new QualifiedName(name, "pkg" + (i % 7), false,
+                  RCompletionType.FUNCTION));
+         }
+      }
+      return completions;
+   }
+
+   private static ArrayList<QualifiedName> referenceNarrow(
+         final String token,
+         ArrayList<QualifiedName> completions)
+   {
+      ArrayList<QualifiedName> result = new ArrayList<QualifiedName>();
+      final String tokenSub = token.substring(token.lastIndexOf('/') + 1);
+      String tokenFuzzy = tokenSub.substring(0, 1) +
+            tokenSub.substring(1).replaceAll("[._]", "");
+
+      for (QualifiedName qname : completions)
+      {
+         if (RCompletionType.isFileType(qname.type))
+         {
+            if (StringUtil.isSubsequence(basename(qname.name), tokenFuzzy, true))
+               result.add(qname);
+         }
+         else
+         {
+            if (StringUtil.isSubsequence(qname.name, tokenFuzzy, true) &&
+                (token.startsWith(".") || !qname.name.startsWith(".")))
+               result.add(qname);
+         }
+      }
+
+      Collections.sort(result, new Comparator<QualifiedName>()
+      {
+         @Override
+         public int compare(QualifiedName lhs, QualifiedName rhs)
+         {
+            int lhsScore = RCompletionType.isFileType(lhs.type)
+                  ? CodeSearchOracle.scoreMatch(basename(lhs.name), tokenSub, true)
+                  : CodeSearchOracle.scoreMatch(lhs.name, token, false);
+
+            int rhsScore = RCompletionType.isFileType(rhs.type)
+                  ? CodeSearchOracle.scoreMatch(basename(rhs.name), tokenSub, true)
+                  : CodeSearchOracle.scoreMatch(rhs.name, token, false);
+
+            if (lhs.type == RCompletionType.ARGUMENT) lhsScore -= 3;
+            if (rhs.type == RCompletionType.ARGUMENT) rhsScore -= 3;
+
+            if (lhsScore == rhsScore)
+               return lhs.compareTo(rhs);
+
+            return lhsScore < rhsScore ? -1 : 1;
+         }
+      });
+      return result;
+   }
+
+   private static String basename(String path)
+   {
+      return path.substring(path.lastIndexOf('/') + 1);
+   }
+
+   private static void assertSameOrder(String token,
+                                       ArrayList<QualifiedName> expected,
+                                       ArrayList<QualifiedName> actual)
+   {
+      assertEquals("Completions for '" + token + "'",
+            expected.size(), actual.size());
+      for (int i = 0; i < expected.size(); i++)
+      {
+         assertSame("Completion " + i + " for '" + token + "'",
+               expected.get(i), actual.get(i));
+      }
+   }
+
+   private static final String[] WORDS = {
+      "read", "write", "get", "set", "data", "frame", "plot", "model",
+      "fit", "summary", "is", "as", "to", "from", "table", "apply"
+   };
+
+   private static final String[] SEPARATORS = { "_", ".", "" };
+
+   private static final String[] TOKENS = {
+      "r", "re", "rea", "read", "read_", "read_d", "read_da", "read_dat"
+   };
+}
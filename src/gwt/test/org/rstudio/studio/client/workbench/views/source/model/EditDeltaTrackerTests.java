@@ -0,0 +1,268 @@
+/*
+ * EditDeltaTrackerTests.java
+ *
+ * Copyright (C) 2009-17 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.model;
+
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Position;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Range;
+import org.rstudio.studio.client.workbench.views.source.model.EditDeltaTracker.Delta;
+import org.rstudio.studio.client.workbench.views.source.model.EditDeltaTracker.Snapshot;
+
+import com.google.gwt.junit.client.GWTTestCase;
+
+import junit.framework.Assert;
+
+public class EditDeltaTrackerTests extends GWTTestCase
+{
+   private static final String BASELINE = "one\ntwo\nthree\nfour";
+
+   @Override
+   public String getModuleName()
+   {
+      return "org.rstudio.studio.RStudioTests";
+   }
+
+   @Override
+   protected void gwtSetUp()
+   {
+      installAceRange();
+   }
+
+   @Override
+   protected void gwtTearDown()
+   {
+      removeAceRange();
+   }
+
+   // Range.create() and Range.fromPoints() use Ace's Range, which isn't
+   // loaded in unit tests; stand in a minimal one for 'ace/range' while
+   // these tests run, leaving any other require() as it was
+   private static native void installAceRange() /*-{
+      var original = $wnd.require;
+
+      var Range = function(startRow, startColumn, endRow, endColumn) {
+         this.start = { row: startRow, column: startColumn };
+         this.end = { row: endRow, column: endColumn };
+      };
+      Range.fromPoints = function(start, end) {
+         return new Range(start.row, start.column, end.row, end.column);
+      };
+
+      var require = function(name) {
+         if (name === 'ace/range')
+            return { Range: Range };
+         return original ? original.apply(this, arguments) : undefined;
+      };
+      require.original = original;
+      require.hadOriginal = 'require' in $wnd;
+      $wnd.require = require;
+   }-*/;
+
+   private static native void removeAceRange() /*-{
+      var require = $wnd.require;
+      if (require.hadOriginal)
+         $wnd.require = require.original;
+      else
+         delete $wnd.require;
+   }-*/;
+
+   public void testNoEdits()
+   {
+      FakeTrackedDocument document = new FakeTrackedDocument(BASELINE);
+      EditDeltaTracker tracker = createTracker(document);
+      Assert.assertTrue(tracker.computeDelta(BASELINE).isEmpty());
+   }
+
+   public void testInsert()
+   {
+      FakeTrackedDocument document = new FakeTrackedDocument(BASELINE);
+      EditDeltaTracker tracker = createTracker(document);
+      document.insert(Position.create(1, 1), "X");
+
+      Delta delta = assertDelta(tracker, BASELINE, document);
+      Assert.assertEquals(4, delta.getOffset());
+      Assert.assertEquals("two\n".length(), delta.getLength());
+      Assert.assertEquals("tXwo\n", delta.getReplacement());
+   }
+
+   public void testMultiLineInsert()
+   {
+      FakeTrackedDocument document = new FakeTrackedDocument(BASELINE);
+      EditDeltaTracker tracker = createTracker(document);
+      document.insert(Position.create(2, 2), "ree\nth");
+
+      Delta delta = assertDelta(tracker, BASELINE, document);
+      Assert.assertEquals("three\n".length(), delta.getLength());
+      Assert.assertEquals("three\nthree\n", delta.getReplacement());
+   }
+
+   public void testDelete()
+   {
+      FakeTrackedDocument document = new FakeTrackedDocument(BASELINE);
+      EditDeltaTracker tracker = createTracker(document);
+      document.remove(Range.create(1, 0, 2, 0));
+
+      Delta delta = assertDelta(tracker, BASELINE, document);
+      Assert.assertEquals(4, delta.getOffset());
+      Assert.assertEquals("two\nthree\n".length(), delta.getLength());
+      Assert.assertEquals("three\n", delta.getReplacement());
+   }
+
+   public void testEditFirstRow()
+   {
+      // no untouched rows before the edit
+      FakeTrackedDocument document = new FakeTrackedDocument(BASELINE);
+      EditDeltaTracker tracker = createTracker(document);
+      document.insert(Position.create(0, 0), "zero\n");
+
+      Delta delta = assertDelta(tracker, BASELINE, document);
+      Assert.assertEquals(0, delta.getOffset());
+   }
+
+   public void testEditLastRow()
+   {
+      // no untouched rows after the edit, and no trailing newline
+      FakeTrackedDocument document = new FakeTrackedDocument(BASELINE);
+      EditDeltaTracker tracker = createTracker(document);
+      document.insert(Position.create(3, 4), "\nfive");
+
+      Delta delta = assertDelta(tracker, BASELINE, document);
+      Assert.assertEquals("one\ntwo\nthree\n".length(), delta.getOffset());
+      Assert.assertEquals("four\nfive", delta.getReplacement());
+
+      document.remove(Range.create(0, 0, 4, 4));
+      assertDelta(tracker, BASELINE, document);
+   }
+
+   public void testEditsWhichCancelOut()
+   {
+      FakeTrackedDocument document = new FakeTrackedDocument(BASELINE);
+      EditDeltaTracker tracker = createTracker(document);
+      document.insert(Position.create(1, 3), "s");
+      document.remove(Range.create(1, 3, 1, 4));
+
+      Assert.assertTrue(tracker.computeDelta(BASELINE).isEmpty());
+   }
+
+   public void testAcknowledge()
+   {
+      FakeTrackedDocument document = new FakeTrackedDocument(BASELINE);
+      EditDeltaTracker tracker = createTracker(document);
+      document.insert(Position.create(0, 0), "X");
+      Snapshot snapshot = tracker.snapshot();
+      String saved = document.getCode();
+
+      // edits during the save are included until it's acknowledged...
+      document.insert(Position.create(3, 0), "Y");
+      assertDelta(tracker, BASELINE, document);
+
+      // ...and only they are left afterwards
+      tracker.acknowledge(snapshot);
+      Delta delta = assertDelta(tracker, saved, document);
+      Assert.assertEquals(saved.lastIndexOf('\n') + 1, delta.getOffset());
+   }
+
+   public void testAbandon()
+   {
+      FakeTrackedDocument document = new FakeTrackedDocument(BASELINE);
+      EditDeltaTracker tracker = createTracker(document);
+      document.insert(Position.create(0, 0), "X");
+      Snapshot snapshot = tracker.snapshot();
+      document.insert(Position.create(3, 0), "Y");
+
+      // the failed save's edits still need to be sent
+      tracker.abandon(snapshot);
+      Delta delta = assertDelta(tracker, BASELINE, document);
+      Assert.assertEquals(0, delta.getOffset());
+
+      // abandoning again (or a snapshot that's gone) changes nothing
+      tracker.abandon(snapshot);
+      assertDelta(tracker, BASELINE, document);
+   }
+
+   public void testAbandonWithLaterSnapshot()
+   {
+      FakeTrackedDocument document = new FakeTrackedDocument(BASELINE);
+      EditDeltaTracker tracker = createTracker(document);
+      document.insert(Position.create(0, 0), "X");
+      Snapshot first = tracker.snapshot();
+      document.insert(Position.create(3, 0), "Y");
+      Snapshot second = tracker.snapshot();
+      String saved = document.getCode();
+
+      // the first save's edits move into the second; acknowledging that
+      // one covers both
+      tracker.abandon(first);
+      assertDelta(tracker, BASELINE, document);
+      tracker.acknowledge(second);
+      Assert.assertTrue(tracker.computeDelta(saved).isEmpty());
+   }
+
+   public void testInvalidate()
+   {
+      FakeTrackedDocument document = new FakeTrackedDocument(BASELINE);
+      EditDeltaTracker tracker = createTracker(document);
+      document.insert(Position.create(1, 0), "X");
+      tracker.invalidate();
+      Assert.assertNull(tracker.computeDelta(BASELINE));
+
+      // still unknown while the next save is in flight...
+      Snapshot snapshot = tracker.snapshot();
+      String saved = document.getCode();
+      document.insert(Position.create(2, 0), "Y");
+      Assert.assertNull(tracker.computeDelta(BASELINE));
+
+      // ...but known again relative to what it saved
+      tracker.acknowledge(snapshot);
+      assertDelta(tracker, saved, document);
+   }
+
+   public void testMarkSynced()
+   {
+      FakeTrackedDocument document = new FakeTrackedDocument(BASELINE);
+      EditDeltaTracker tracker = createTracker(document);
+      document.insert(Position.create(1, 0), "X");
+      tracker.invalidate();
+      tracker.markSynced();
+      Assert.assertTrue(tracker.computeDelta(document.getCode()).isEmpty());
+   }
+
+   public void testMismatchedBaseline()
+   {
+      // a region whose surrounding rows don't match the baseline isn't
+      // trusted
+      FakeTrackedDocument document = new FakeTrackedDocument(BASELINE);
+      EditDeltaTracker tracker = createTracker(document);
+      document.insert(Position.create(1, 0), "X");
+      Assert.assertNull(tracker.computeDelta("ONE\ntwo\nthree\nfour"));
+      Assert.assertNull(tracker.computeDelta("one\ntwo\nTHREE\nfour"));
+   }
+
+   private EditDeltaTracker createTracker(FakeTrackedDocument document)
+   {
+      EditDeltaTracker tracker = new EditDeltaTracker(document);
+      tracker.markSynced();
+      return tracker;
+   }
+
+   private Delta assertDelta(EditDeltaTracker tracker,
+                             String baseline,
+                             FakeTrackedDocument document)
+   {
+      Delta delta = tracker.computeDelta(baseline);
+      Assert.assertNotNull(delta);
+      Assert.assertEquals(document.getCode(), delta.apply(baseline));
+      return delta;
+   }
+}
@@ -0,0 +1,154 @@
+/*
+ * FakeTrackedDocument.java
+ *
+ * Copyright (C) 2009-17 by RStudio, Inc.
+ *
+ * Unless you have received this program directly from RStudio pursuant
+ * to the terms of a commercial license agreement with RStudio, then
+ * this program is licensed to you under the terms of version 3 of the
+ * GNU Affero General Public License. This program is distributed WITHOUT
+ * ANY EXPRESS OR IMPLIED WARRANTY, INCLUDING THOSE OF NON-INFRINGEMENT,
+ * MERCHANTABILITY OR FITNESS FOR A PARTICULAR PURPOSE. Please refer to the
+ * AGPL (http://www.gnu.org/licenses/agpl-3.0.txt) for more details.
+ *
+ */
+package org.rstudio.studio.client.workbench.views.source.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.AceDocumentChangeEventNative;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Position;
+import org.rstudio.studio.client.workbench.views.source.editors.text.ace.Range;
+import org.rstudio.studio.client.workbench.views.source.editors.text.events.DocumentChangedEvent;
+
+import com.google.gwt.event.shared.GwtEvent;
+import com.google.gwt.event.shared.HandlerRegistration;
+
+/**
+ * A TrackedDocument backed by a plain string. Edits made through insert()
+ * and remove() fire DocumentChangedEvents the way Ace does.
+ */
+public class FakeTrackedDocument implements TrackedDocument
+{
+   public FakeTrackedDocument(String code)
+   {
+      code_ = code;
+   }
+
+   public String getCode()
+   {
+      return code_;
+   }
+
+   public void insert(Position position, String text)
+   {
+      int index = positionToIndex(position);
+      code_ = code_.substring(0, index) + text + code_.substring(index);
+
+      Position end = indexToPosition(index + text.length());
+      fireChange("insert", Range.fromPoints(position, end), text);
+   }
+
+   public void remove(Range range)
+   {
+      String text = getTextForRange(range);
+      code_ = code_.substring(0, positionToIndex(range.getStart())) +
+              code_.substring(positionToIndex(range.getEnd()));
+      fireChange("remove", range, text);
+   }
+
+   @Override
+   public HandlerRegistration addDocumentChangedHandler(
+         final DocumentChangedEvent.Handler handler)
+   {
+      handlers_.add(handler);
+      return new HandlerRegistration()
+      {
+         @Override
+         public void removeHandler()
+         {
+            handlers_.remove(handler);
+         }
+      };
+   }
+
+   @Override
+   public void fireEvent(GwtEvent<?> event)
+   {
+      if (event instanceof DocumentChangedEvent)
+         fireChange((DocumentChangedEvent) event);
+   }
+
+   @Override
+   public int getRowCount()
+   {
+      return getRows().length;
+   }
+
+   @Override
+   public int getLength(int row)
+   {
+      return getRows()[row].length();
+   }
+
+   @Override
+   public int positionToIndex(Position position)
+   {
+      String[] rows = getRows();
+      int index = 0;
+      for (int i = 0; i < position.getRow(); i++)
+         index += rows[i].length() + 1;
+      return index + position.getColumn();
+   }
+
+   @Override
+   public String getTextForRange(Range range)
+   {
+      return code_.substring(positionToIndex(range.getStart()),
+                             positionToIndex(range.getEnd()));
+   }
+
+   private Position indexToPosition(int index)
+   {
+      int row = 0;
+      int rowStart = 0;
+      for (int i = 0; i < index; i++)
+      {
+         if (code_.charAt(i) == '\n')
+         {
+            row++;
+            rowStart = i + 1;
+         }
+      }
+      return Position.create(row, index - rowStart);
+   }
+
+   private String[] getRows()
+   {
+      return code_.split("\n", -1);
+   }
+
+   private void fireChange(String action, Range range, String text)
+   {
+      fireChange(new DocumentChangedEvent(createChange(action, range, text)));
+   }
+
+   private void fireChange(DocumentChangedEvent event)
+   {
+      for (DocumentChangedEvent.Handler handler :
+           new ArrayList<DocumentChangedEvent.Handler>(handlers_))
+      {
+         handler.onDocumentChanged(event);
+      }
+   }
+
+   private static native AceDocumentChangeEventNative createChange(
+         String action, Range range, String text) /*-{
+      return { data: { action: action, range: range, text: text } };
+   }-*/;
+
+   private final List<DocumentChangedEvent.Handler> handlers_ =
+         new ArrayList<DocumentChangedEvent.Handler>();
+   private String code_;
+}
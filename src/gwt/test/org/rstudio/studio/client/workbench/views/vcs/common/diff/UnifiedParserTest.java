@@ -18,6 +18,7 @@ import junit.framework.TestCase;
 
 import java.io.*;
 import java.net.URL;
+import java.util.ArrayList;
 
 public class UnifiedParserTest extends TestCase
 {
@@ -62,6 +63,60 @@ public class UnifiedParserTest extends TestCase
       testFile("diff2");
    }
 
+   public void testSplitFileChunks() throws Exception
+   {
+      String data =
+            "diff --git a/a.R b/a.R\n" +
+            "index 1111111..2222222 100644\n" +
+            "--- a/a.R\n" +
+            "+++ b/a.R\n" +
+            "@@ -1,2 +1,2 @@\n" +
+            " x <- 1\n" +
+            "-y <- 2\n" +
+            "+y <- 3\n" +
+            "@@ -10,1 +10,2 @@\n" +
+            " z <- 4\n" +
+            "+w <- 5\n" +
+            "diff --git a/b.R b/b.R\n" +
+            "index 3333333..4444444 100644\n" +
+            "--- a/b.R\n" +
+            "+++ b/b.R\n" +
+            "@@ -1 +1 @@\n" +
+            "-a\n" +
+            "+b\n";
+
+      StringWriter expected = new StringWriter();
+      UnifiedParser parser = new UnifiedParser(data);
+      while (parser.nextFilePair() != null)
+         printChunks(parser, new PrintWriter(expected));
+
+      StringWriter actual = new StringWriter();
+      ArrayList<UnifiedParser> fileParsers = new ArrayList<UnifiedParser>();
+      parser = new UnifiedParser(data);
+      while (parser.nextFilePair() != null)
+         fileParsers.add(parser.splitFileChunks());
+
+      assertEquals(2, fileParsers.size());
+      assertEquals(7, fileParsers.get(0).getRemainingLineCount());
+      assertEquals(3, fileParsers.get(1).getRemainingLineCount());
+      for (UnifiedParser fileParser : fileParsers)
+         printChunks(fileParser, new PrintWriter(actual));
+
+      assertEquals(expected.toString(), actual.toString());
+   }
+
+   private void printChunks(UnifiedParser parser, PrintWriter output)
+   {
+      DiffChunk chunk;
+      while (null != (chunk = parser.nextChunk()))
+      {
+         output.println(UnifiedEmitter.createChunkString(chunk));
+         for (Line line : chunk.getLines())
+            output.println(line.getType() + " " + line.getText());
+      }
+      output.flush();
+   }
+
    private void testFile(String testName) throws Exception
    {
       StringWriter stringWriter = new StringWriter();